@@ -16,6 +16,8 @@
 package com.netflix.spinnaker.kork.artifacts.artifactstore;
 
 import com.netflix.spinnaker.kork.artifacts.model.Artifact;
+import java.util.Collection;
+import java.util.List;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 
@@ -39,6 +41,12 @@ public class ArtifactStore implements ArtifactStoreGetter, ArtifactStoreStorer {
     return artifactStoreStorer.store(artifact);
   }
 
+  /** Store several artifacts in the artifact store, possibly concurrently */
+  @Override
+  public List<Artifact> storeAll(Collection<Artifact> artifacts) {
+    return artifactStoreStorer.storeAll(artifacts);
+  }
+
   /**
    * get is used to return an artifact with some id, while also decorating that artifact with any
    * necessary fields needed which should be then be returned by the artifact store.
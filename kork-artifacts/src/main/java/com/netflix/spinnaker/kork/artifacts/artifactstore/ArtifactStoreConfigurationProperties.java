@@ -42,6 +42,24 @@ public class ArtifactStoreConfigurationProperties {
     private String accessKey = null;
     private String secretKey = null;
     private boolean forcePathStyle = true;
+
+    /** The number of stored artifact references to remember, to skip storing them again. */
+    private long knownStoredCacheSize = 10_000;
+
+    /** The number of threads uploading artifacts stored together; 0 uploads them sequentially. */
+    private int uploadThreads = 4;
+
+    /** The total size, in bytes, of retrieved artifact contents to cache in memory. */
+    private long cacheMaxBytes = 64L * 1024 * 1024;
+
+    /**
+     * A directory to keep artifact contents evicted from the memory cache in. When null, evicted
+     * contents are discarded.
+     */
+    private String cacheDirectory = null;
+
+    /** The total size, in bytes, of artifact contents to keep in {@link #cacheDirectory}. */
+    private long cacheMaxDiskBytes = 1024L * 1024 * 1024;
   }
 
   @Data
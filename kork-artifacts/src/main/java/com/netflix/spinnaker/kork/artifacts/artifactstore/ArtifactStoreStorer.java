@@ -16,6 +16,9 @@
 package com.netflix.spinnaker.kork.artifacts.artifactstore;
 
 import com.netflix.spinnaker.kork.artifacts.model.Artifact;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * ArtifactStoreStorer is an interface that allows for different types of artifact storage to be
@@ -24,4 +27,16 @@ import com.netflix.spinnaker.kork.artifacts.model.Artifact;
 public interface ArtifactStoreStorer {
 
   Artifact store(Artifact artifact);
+
+  /**
+   * Stores several artifacts, returning the stored artifacts in the same order. Implementations may
+   * store them concurrently; by default they are stored one at a time.
+   */
+  default List<Artifact> storeAll(Collection<Artifact> artifacts) {
+    List<Artifact> stored = new ArrayList<>(artifacts.size());
+    for (Artifact artifact : artifacts) {
+      stored.add(store(artifact));
+    }
+    return stored;
+  }
 }
@@ -23,6 +23,9 @@ import com.netflix.spinnaker.kork.artifacts.ArtifactTypes;
 import com.netflix.spinnaker.kork.artifacts.artifactstore.exceptions.ArtifactStoreIOException;
 import com.netflix.spinnaker.kork.artifacts.model.Artifact;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * EmbeddedArtifactSerializer will store any embedded/base64 artifact into the ArtifactStore
@@ -50,6 +53,27 @@ public class EmbeddedArtifactSerializer extends StdSerializer<Artifact> {
     defaultObjectMapper.writeValue(gen, stored);
   }
 
+  /**
+   * Stores the embedded artifacts among {@code artifacts} ahead of serialization, concurrently if
+   * the artifact store supports it, so that serializing a context holding many embedded artifacts
+   * finds them already stored instead of uploading them one at a time.
+   *
+   * <p>Nothing in kork calls this, since a serializer only ever sees one artifact. Services that
+   * serialize contexts call it with the context's artifacts just before writing them. It only
+   * saves uploads with a storer that remembers what it has stored, such as {@link
+   * com.netflix.spinnaker.kork.artifacts.artifactstore.s3.S3ArtifactStoreStorer}; otherwise each
+   * artifact is stored again when it is serialized.
+   */
+  public void prestore(Collection<Artifact> artifacts) {
+    List<Artifact> embedded =
+        artifacts.stream()
+            .filter(EmbeddedArtifactSerializer::shouldStoreArtifact)
+            .collect(Collectors.toList());
+    if (!embedded.isEmpty()) {
+      storage.storeAll(embedded);
+    }
+  }
+
   /**
    * shouldStore will return whether we want to store the reference in the ArtifactStore or not.
    * This checks to ensure the reference isn't null or an empty string. Further we only care about
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.kork.artifacts.artifactstore.s3;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Caches the contents of artifacts, which are content addressed and never change, in memory up to
+ * a total size. If a directory is configured, contents evicted from memory are written there and
+ * read back on the next miss, up to a total size on disk.
+ *
+ * <p>Concurrent loads of the same key share a single load, and failed loads are not cached.
+ */
+@Log4j2
+class ArtifactContentCache {
+  private static final String FILE_SUFFIX = ".artifact";
+  private static final String SPILL_PREFIX = "spill";
+
+  private final AsyncCache<String, byte[]> memory;
+  private final Cache<String, Path> disk;
+  private final Path directory;
+
+  /**
+   * Runs evictions on a dedicated daemon thread, since writing evicted contents to disk blocks.
+   *
+   * @param maxBytes the total size of contents to keep in memory
+   * @param directory where to keep contents evicted from memory, or null to discard them
+   * @param maxDiskBytes the total size of contents to keep in {@code directory}
+   */
+  ArtifactContentCache(long maxBytes, Path directory, long maxDiskBytes) {
+    this(
+        maxBytes,
+        directory,
+        maxDiskBytes,
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("artifact-content-cache-%d")
+                .setDaemon(true)
+                .build()));
+  }
+
+  /** @param executor runs evictions, including writing evicted contents to disk */
+  ArtifactContentCache(long maxBytes, Path directory, long maxDiskBytes, Executor executor) {
+    this.directory = directory;
+    if (directory != null) {
+      prepare(directory);
+      this.disk =
+          Caffeine.newBuilder()
+              .executor(executor)
+              .maximumWeight(maxDiskBytes)
+              .<String, Path>weigher((key, path) -> weigh(path))
+              .removalListener(
+                  (String key, Path path, RemovalCause cause) -> {
+                    if (path != null && cause != RemovalCause.REPLACED) {
+                      delete(path);
+                    }
+                  })
+              .build();
+    } else {
+      this.disk = null;
+    }
+
+    this.memory =
+        Caffeine.newBuilder()
+            .executor(executor)
+            .maximumWeight(maxBytes)
+            .<String, byte[]>weigher((key, contents) -> contents.length)
+            .removalListener(
+                (String key, byte[] contents, RemovalCause cause) -> {
+                  if (cause == RemovalCause.SIZE && contents != null) {
+                    spill(key, contents);
+                  }
+                })
+            .buildAsync();
+  }
+
+  /** @return the cached contents for {@code key}, loading them on a miss */
+  byte[] get(String key, Function<String, byte[]> loader) {
+    CompletableFuture<byte[]> load = new CompletableFuture<>();
+    CompletableFuture<byte[]> contents = memory.get(key, (k, executor) -> load);
+    if (contents != load) {
+      try {
+        return contents.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      }
+    }
+
+    try {
+      byte[] loaded = readSpilled(key);
+      if (loaded == null) {
+        loaded = loader.apply(key);
+      }
+      load.complete(loaded);
+      return loaded;
+    } catch (RuntimeException e) {
+      load.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private void spill(String key, byte[] contents) {
+    if (disk == null) {
+      return;
+    }
+    Path path = directory.resolve(fileName(key));
+    Path temporary = null;
+    try {
+      temporary = Files.createTempFile(directory, SPILL_PREFIX, ".tmp");
+      Files.write(temporary, contents);
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+      disk.put(key, path);
+    } catch (IOException e) {
+      log.warn("Failed to write artifact contents to {}", path, e);
+    } finally {
+      if (temporary != null) {
+        delete(temporary);
+      }
+    }
+  }
+
+  private byte[] readSpilled(String key) {
+    if (disk == null) {
+      return null;
+    }
+    Path path = disk.getIfPresent(key);
+    if (path == null) {
+      return null;
+    }
+    try {
+      return Files.readAllBytes(path);
+    } catch (IOException e) {
+      log.warn("Failed to read artifact contents from {}", path, e);
+      disk.invalidate(key);
+      return null;
+    }
+  }
+
+  private static String fileName(String key) {
+    return Hashing.sha256().hashString(key, StandardCharsets.UTF_8) + FILE_SUFFIX;
+  }
+
+  private static int weigh(Path path) {
+    try {
+      return (int) Math.min(Integer.MAX_VALUE, Files.size(path));
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private static void delete(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      log.warn("Failed to delete artifact contents at {}", path, e);
+    }
+  }
+
+  /** Creates {@code directory}, removing contents left there by a previous process. */
+  private static void prepare(Path directory) {
+    try {
+      Files.createDirectories(directory);
+      String glob = "{*" + FILE_SUFFIX + "," + SPILL_PREFIX + "*.tmp}";
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+        for (Path file : files) {
+          delete(file);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to prepare artifact cache directory " + directory, e);
+    }
+  }
+}
@@ -21,7 +21,13 @@ import com.netflix.spinnaker.kork.artifacts.artifactstore.ArtifactStoreStorer;
 import com.netflix.spinnaker.kork.artifacts.artifactstore.ArtifactStoreURIBuilder;
 import com.netflix.spinnaker.security.UserPermissionEvaluator;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
@@ -52,7 +58,31 @@ public class S3ArtifactStoreConfiguration {
         s3Client,
         properties.getS3().getBucket(),
         artifactStoreURIBuilder,
-        properties.getApplicationsRegex());
+        properties.getApplicationsRegex(),
+        properties.getS3().getKnownStoredCacheSize(),
+        uploadExecutor(properties.getS3().getUploadThreads()));
+  }
+
+  private static Executor uploadExecutor(int threads) {
+    if (threads <= 0) {
+      return null;
+    }
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            1,
+            TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "artifact-store-upload-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 
   @Bean
@@ -66,9 +96,15 @@ public class S3ArtifactStoreConfiguration {
           "UserPermissionEvaluator is not present. This means anyone will be able to access any artifact in the store.");
     }
 
-    String bucket = properties.getS3().getBucket();
+    ArtifactStoreConfigurationProperties.S3ClientConfig config = properties.getS3();
 
-    return new S3ArtifactStoreGetter(s3Client, userPermissionEvaluator.orElse(null), bucket);
+    return new S3ArtifactStoreGetter(
+        s3Client,
+        userPermissionEvaluator.orElse(null),
+        config.getBucket(),
+        config.getCacheMaxBytes(),
+        (config.getCacheDirectory() != null) ? Path.of(config.getCacheDirectory()) : null,
+        config.getCacheMaxDiskBytes());
   }
 
   @Bean
@@ -17,6 +17,8 @@ package com.netflix.spinnaker.kork.artifacts.artifactstore.s3;
 
 import static com.netflix.spinnaker.kork.artifacts.artifactstore.s3.S3ArtifactStore.ENFORCE_PERMS_KEY;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.netflix.spinnaker.kork.artifacts.ArtifactTypes;
 import com.netflix.spinnaker.kork.artifacts.artifactstore.ArtifactDecorator;
 import com.netflix.spinnaker.kork.artifacts.artifactstore.ArtifactReferenceURI;
@@ -24,8 +26,10 @@ import com.netflix.spinnaker.kork.artifacts.artifactstore.ArtifactStoreGetter;
 import com.netflix.spinnaker.kork.artifacts.model.Artifact;
 import com.netflix.spinnaker.security.AuthenticatedRequest;
 import com.netflix.spinnaker.security.UserPermissionEvaluator;
+import java.nio.file.Path;
 import java.util.Base64;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.security.authentication.AuthenticationServiceException;
 import software.amazon.awssdk.core.ResponseBytes;
@@ -36,18 +40,46 @@ import software.amazon.awssdk.services.s3.model.GetObjectTaggingRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectTaggingResponse;
 import software.amazon.awssdk.services.s3.model.Tag;
 
-/** Retrieve objects from an s3 compatible service */
+/**
+ * Retrieve objects from an s3 compatible service
+ *
+ * <p>Objects are content addressed and never change, so their contents and the application they
+ * were stored for are cached, and concurrent retrievals of the same object share one request. The
+ * user's permission on that application is still checked on every retrieval.
+ */
 @Log4j2
 public class S3ArtifactStoreGetter implements ArtifactStoreGetter {
+  public static final long DEFAULT_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+  public static final long DEFAULT_TAG_CACHE_SIZE = 10_000;
+
   private final S3Client s3Client;
   private final UserPermissionEvaluator userPermissionEvaluator;
   private final String bucket;
+  private final ArtifactContentCache contents;
+  private final Cache<String, Optional<String>> applications;
 
   public S3ArtifactStoreGetter(
       S3Client s3Client, UserPermissionEvaluator userPermissionEvaluator, String bucket) {
+    this(s3Client, userPermissionEvaluator, bucket, DEFAULT_CACHE_MAX_BYTES, null, 0);
+  }
+
+  /**
+   * @param cacheMaxBytes the total size of object contents to cache in memory
+   * @param cacheDirectory where to keep contents evicted from memory, or null to discard them
+   * @param cacheMaxDiskBytes the total size of object contents to keep in {@code cacheDirectory}
+   */
+  public S3ArtifactStoreGetter(
+      S3Client s3Client,
+      UserPermissionEvaluator userPermissionEvaluator,
+      String bucket,
+      long cacheMaxBytes,
+      Path cacheDirectory,
+      long cacheMaxDiskBytes) {
     this.s3Client = s3Client;
     this.bucket = bucket;
     this.userPermissionEvaluator = userPermissionEvaluator;
+    this.contents = new ArtifactContentCache(cacheMaxBytes, cacheDirectory, cacheMaxDiskBytes);
+    this.applications = Caffeine.newBuilder().maximumSize(DEFAULT_TAG_CACHE_SIZE).build();
   }
 
   /**
@@ -62,13 +94,11 @@ public class S3ArtifactStoreGetter implements ArtifactStoreGetter {
             .orElseThrow(
                 () -> new NoSuchElementException("Could not authenticate due to missing user id")));
 
-    GetObjectRequest request = GetObjectRequest.builder().bucket(bucket).key(uri.paths()).build();
-
-    ResponseBytes<GetObjectResponse> resp = s3Client.getObjectAsBytes(request);
+    byte[] bytes = contents.get(uri.paths(), this::getObject);
     Artifact.ArtifactBuilder builder =
         Artifact.builder()
             .type(ArtifactTypes.REMOTE_BASE64.getMimeType())
-            .reference(Base64.getEncoder().encodeToString(resp.asByteArray()));
+            .reference(Base64.getEncoder().encodeToString(bytes));
 
     if (decorators == null) {
       return builder.build();
@@ -88,26 +118,37 @@ public class S3ArtifactStoreGetter implements ArtifactStoreGetter {
    * @throws AuthenticationServiceException when user does not have correct permissions
    */
   private void hasAuthorization(ArtifactReferenceURI uri, String userId) {
-    GetObjectTaggingRequest request =
-        GetObjectTaggingRequest.builder().bucket(bucket).key(uri.paths()).build();
+    String application = applications.get(uri.paths(), this::getApplication).orElse(null);
 
-    GetObjectTaggingResponse resp = s3Client.getObjectTagging(request);
-    Tag tag =
-        resp.tagSet().stream()
-            .filter(t -> t.key().equals(ENFORCE_PERMS_KEY))
-            .findFirst()
-            .orElse(null);
-
-    if (tag == null
+    if (application == null
         || (userPermissionEvaluator != null
             && !userPermissionEvaluator.hasPermission(
-                userId, tag.value(), "application", "READ"))) {
+                userId, application, "application", "READ"))) {
       log.error(
           "Could not authenticate to retrieve artifact user={} applicationOfStoredArtifact={}",
           userId,
-          (tag == null) ? "(none)" : tag.value());
+          (application == null) ? "(none)" : application);
       throw new AuthenticationServiceException(
           userId + " does not have permission to access this artifact");
     }
   }
+
+  /** @return the application the object was stored for, from its tags */
+  private Optional<String> getApplication(String paths) {
+    GetObjectTaggingRequest request =
+        GetObjectTaggingRequest.builder().bucket(bucket).key(paths).build();
+
+    GetObjectTaggingResponse resp = s3Client.getObjectTagging(request);
+    return resp.tagSet().stream()
+        .filter(t -> t.key().equals(ENFORCE_PERMS_KEY))
+        .findFirst()
+        .map(Tag::value);
+  }
+
+  private byte[] getObject(String paths) {
+    GetObjectRequest request = GetObjectRequest.builder().bucket(bucket).key(paths).build();
+
+    ResponseBytes<GetObjectResponse> resp = s3Client.getObjectAsBytes(request);
+    return resp.asByteArray();
+  }
 }
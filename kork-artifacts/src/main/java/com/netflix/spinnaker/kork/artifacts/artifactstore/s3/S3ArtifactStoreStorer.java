@@ -17,6 +17,8 @@ package com.netflix.spinnaker.kork.artifacts.artifactstore.s3;
 
 import static com.netflix.spinnaker.kork.artifacts.artifactstore.s3.S3ArtifactStore.ENFORCE_PERMS_KEY;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.netflix.spinnaker.kork.artifacts.ArtifactTypes;
 import com.netflix.spinnaker.kork.artifacts.artifactstore.ArtifactReferenceURI;
 import com.netflix.spinnaker.kork.artifacts.artifactstore.ArtifactStoreStorer;
@@ -24,7 +26,14 @@ import com.netflix.spinnaker.kork.artifacts.artifactstore.ArtifactStoreURIBuilde
 import com.netflix.spinnaker.kork.artifacts.model.Artifact;
 import com.netflix.spinnaker.kork.exceptions.SpinnakerException;
 import com.netflix.spinnaker.security.AuthenticatedRequest;
+import com.netflix.spinnaker.security.AuthenticatedRequestDecorator;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 import lombok.extern.log4j.Log4j2;
 import org.apache.http.HttpStatus;
@@ -42,19 +51,41 @@ import software.amazon.awssdk.services.s3.model.Tagging;
  *
  * <p>Note: It is very important that the S3 bucket has object lock on it to prevent multiple writes
  * {@see https://docs.aws.amazon.com/AmazonS3/latest/userguide/object-lock-overview.html}
+ *
+ * <p>Objects are content addressed and never change, so the references this instance has stored or
+ * seen in the bucket are remembered, and storing them again makes no requests. Concurrent stores of
+ * the same reference share a single upload.
  */
 @Log4j2
 public class S3ArtifactStoreStorer implements ArtifactStoreStorer {
+  public static final long DEFAULT_KNOWN_STORED_CACHE_SIZE = 10_000;
+
   private final S3Client s3Client;
   private final String bucket;
   private final ArtifactStoreURIBuilder uriBuilder;
   private final Pattern applicationsPattern;
+  private final AsyncCache<String, Boolean> knownStored;
+  private final Executor uploadExecutor;
 
   public S3ArtifactStoreStorer(
       S3Client s3Client,
       String bucket,
       ArtifactStoreURIBuilder uriBuilder,
       String applicationsRegex) {
+    this(s3Client, bucket, uriBuilder, applicationsRegex, DEFAULT_KNOWN_STORED_CACHE_SIZE, null);
+  }
+
+  /**
+   * @param knownStoredCacheSize the number of stored references to remember
+   * @param uploadExecutor runs the uploads of {@link #storeAll}, or null to upload sequentially
+   */
+  public S3ArtifactStoreStorer(
+      S3Client s3Client,
+      String bucket,
+      ArtifactStoreURIBuilder uriBuilder,
+      String applicationsRegex,
+      long knownStoredCacheSize,
+      Executor uploadExecutor) {
     this.s3Client = s3Client;
     this.bucket = bucket;
     this.uriBuilder = uriBuilder;
@@ -62,6 +93,8 @@ public class S3ArtifactStoreStorer implements ArtifactStoreStorer {
         (applicationsRegex != null)
             ? Pattern.compile(applicationsRegex, Pattern.CASE_INSENSITIVE)
             : null;
+    this.knownStored = Caffeine.newBuilder().maximumSize(knownStoredCacheSize).buildAsync();
+    this.uploadExecutor = uploadExecutor;
   }
 
   /**
@@ -104,10 +137,55 @@ public class S3ArtifactStoreStorer implements ArtifactStoreStorer {
             .reference(ref.uri())
             .build();
 
-    if (objectExists(ref)) {
+    CompletableFuture<Boolean> upload = new CompletableFuture<>();
+    CompletableFuture<Boolean> stored = knownStored.get(ref.paths(), (paths, executor) -> upload);
+    if (stored != upload) {
+      // stored already, or being stored by another thread
+      join(stored);
       return remoteArtifact;
     }
 
+    try {
+      upload(application, ref, referenceBytes);
+      upload.complete(true);
+    } catch (RuntimeException e) {
+      // failed uploads are not remembered, so the next store tries again
+      upload.completeExceptionally(e);
+      throw e;
+    }
+    return remoteArtifact;
+  }
+
+  /**
+   * Stores several artifacts, uploading them in parallel on the upload executor if there is one.
+   * The request context, including the application, is propagated to the uploads.
+   */
+  @Override
+  public List<Artifact> storeAll(Collection<Artifact> artifacts) {
+    if (uploadExecutor == null || artifacts.size() < 2) {
+      return ArtifactStoreStorer.super.storeAll(artifacts);
+    }
+
+    List<CompletableFuture<Artifact>> futures = new ArrayList<>(artifacts.size());
+    for (Artifact artifact : artifacts) {
+      futures.add(
+          CompletableFuture.supplyAsync(
+              () -> store(artifact),
+              task -> uploadExecutor.execute(AuthenticatedRequestDecorator.wrap(task))));
+    }
+
+    List<Artifact> stored = new ArrayList<>(futures.size());
+    for (CompletableFuture<Artifact> future : futures) {
+      stored.add(join(future));
+    }
+    return stored;
+  }
+
+  private void upload(String application, ArtifactReferenceURI ref, byte[] referenceBytes) {
+    if (objectExists(ref)) {
+      return;
+    }
+
     // purpose of tagging is to ensure some sort of identity is persisted to
     // enforce permissions when retrieving the artifact
     Tag accountTag = Tag.builder().key(ENFORCE_PERMS_KEY).value(application).build();
@@ -120,7 +198,17 @@ public class S3ArtifactStoreStorer implements ArtifactStoreStorer {
             .build();
 
     s3Client.putObject(request, RequestBody.fromBytes(referenceBytes));
-    return remoteArtifact;
+  }
+
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
   }
 
   private byte[] getReferenceAsBytes(Artifact artifact) {
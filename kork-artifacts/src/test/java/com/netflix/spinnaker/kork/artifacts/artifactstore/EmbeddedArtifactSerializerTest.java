@@ -30,6 +30,7 @@ import com.netflix.spinnaker.kork.common.Header;
 import com.netflix.spinnaker.security.AuthenticatedRequest;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
 import java.util.stream.Stream;
 import org.apache.commons.codec.binary.Base64;
 import org.junit.jupiter.api.Test;
@@ -97,6 +98,26 @@ class EmbeddedArtifactSerializerTest {
     assertEquals(expectedExceptionMessage, e.getMessage());
   }
 
+  @Test
+  public void prestoreOnlyStoresEmbeddedArtifacts() {
+    ArtifactStore storage = Mockito.mock(ArtifactStore.class);
+    EmbeddedArtifactSerializer serializer =
+        new EmbeddedArtifactSerializer(new ObjectMapper(), storage);
+    Artifact embedded =
+        Artifact.builder()
+            .type(ArtifactTypes.EMBEDDED_BASE64.getMimeType())
+            .reference(Base64.encodeBase64String("foo".getBytes()))
+            .build();
+    Artifact remote =
+        Artifact.builder().type(ArtifactTypes.REMOTE_BASE64.getMimeType()).reference("link").build();
+
+    serializer.prestore(List.of(embedded, remote));
+    serializer.prestore(List.of(remote));
+
+    Mockito.verify(storage).storeAll(List.of(embedded));
+    Mockito.verifyNoMoreInteractions(storage);
+  }
+
   private static Stream<Arguments> generateTestCase() {
     return Stream.of(
         Arguments.of(
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.kork.artifacts.artifactstore.s3;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArtifactContentCacheTest {
+
+  @Test
+  public void testContentsAreLoadedOnce() {
+    ArtifactContentCache cache = new ArtifactContentCache(1024, null, 0, Runnable::run);
+    AtomicInteger loads = new AtomicInteger();
+    Function<String, byte[]> loader =
+        key -> {
+          loads.incrementAndGet();
+          return key.getBytes(StandardCharsets.UTF_8);
+        };
+
+    assertThat(cache.get("app/hash", loader)).isEqualTo(bytes("app/hash"));
+    assertThat(cache.get("app/hash", loader)).isEqualTo(bytes("app/hash"));
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  public void testFailedLoadsAreNotCached() {
+    ArtifactContentCache cache = new ArtifactContentCache(1024, null, 0, Runnable::run);
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            cache.get(
+                "app/hash",
+                key -> {
+                  throw new IllegalStateException("unavailable");
+                }));
+    assertThat(cache.get("app/hash", this::bytes)).isEqualTo(bytes("app/hash"));
+  }
+
+  @Test
+  public void testEvictedContentsAreReadFromDisk(@TempDir Path directory) throws Exception {
+    Files.write(directory.resolve("stale.artifact"), bytes("stale"));
+    ArtifactContentCache cache = new ArtifactContentCache(12, directory, 1024, Runnable::run);
+    assertThat(directory.resolve("stale.artifact")).doesNotExist();
+
+    cache.get("app/first", this::bytes);
+    cache.get("app/other", this::bytes);
+
+    Function<String, byte[]> unavailable =
+        key -> {
+          throw new IllegalStateException("not cached: " + key);
+        };
+    assertThat(cache.get("app/first", unavailable)).isEqualTo(bytes("app/first"));
+    assertThat(cache.get("app/other", unavailable)).isEqualTo(bytes("app/other"));
+  }
+
+  private byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
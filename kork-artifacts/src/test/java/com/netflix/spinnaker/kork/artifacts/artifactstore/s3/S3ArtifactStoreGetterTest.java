@@ -18,9 +18,11 @@ package com.netflix.spinnaker.kork.artifacts.artifactstore.s3;
 
 import static com.netflix.spinnaker.kork.artifacts.artifactstore.s3.S3ArtifactStore.ENFORCE_PERMS_KEY;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,8 +31,11 @@ import com.netflix.spinnaker.kork.artifacts.model.Artifact;
 import com.netflix.spinnaker.kork.common.Header;
 import com.netflix.spinnaker.security.AuthenticatedRequest;
 import com.netflix.spinnaker.security.UserPermissionEvaluator;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
@@ -88,4 +93,47 @@ public class S3ArtifactStoreGetterTest {
     verify(userPermissionEvaluator)
         .hasPermission(eq(user), eq(application), eq("application"), eq("READ"));
   }
+
+  @Test
+  public void testGetCachesContentsButAuthorizesEveryRequest() {
+    // given:
+    String application = "my-application";
+    S3Client client = mock(S3Client.class);
+    byte[] contents = "hello world".getBytes(StandardCharsets.UTF_8);
+    when(client.getObjectAsBytes(any(GetObjectRequest.class)))
+        .thenReturn(ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), contents));
+    when(client.getObjectTagging(any(GetObjectTaggingRequest.class)))
+        .thenReturn(
+            GetObjectTaggingResponse.builder()
+                .tagSet(Tag.builder().key(ENFORCE_PERMS_KEY).value(application).build())
+                .build());
+
+    UserPermissionEvaluator userPermissionEvaluator = mock(UserPermissionEvaluator.class);
+    when(userPermissionEvaluator.hasPermission(
+            eq("allowed"), eq(application), eq("application"), eq("READ")))
+        .thenReturn(true);
+
+    S3ArtifactStoreGetter artifactStoreGetter =
+        new S3ArtifactStoreGetter(client, userPermissionEvaluator, "my-bucket");
+    ArtifactReferenceURI uri =
+        ArtifactReferenceURI.builder().uriPaths(List.of(application, "hash")).build();
+
+    // when
+    AuthenticatedRequest.set(Header.USER, "allowed");
+    Artifact first = artifactStoreGetter.get(uri);
+    Artifact second = artifactStoreGetter.get(uri);
+    AuthenticatedRequest.set(Header.USER, "denied");
+
+    // then
+    assertThrows(AuthenticationServiceException.class, () -> artifactStoreGetter.get(uri));
+    assertThat(first.getReference()).isEqualTo(Base64.getEncoder().encodeToString(contents));
+    assertThat(second.getReference()).isEqualTo(first.getReference());
+
+    verify(client).getObjectTagging(any(GetObjectTaggingRequest.class));
+    verify(client).getObjectAsBytes(any(GetObjectRequest.class));
+    verify(userPermissionEvaluator, times(2))
+        .hasPermission(eq("allowed"), eq(application), eq("application"), eq("READ"));
+    verify(userPermissionEvaluator)
+        .hasPermission(eq("denied"), eq(application), eq("application"), eq("READ"));
+  }
 }
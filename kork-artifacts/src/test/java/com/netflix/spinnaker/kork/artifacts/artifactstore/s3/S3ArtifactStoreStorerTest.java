@@ -16,6 +16,7 @@
 
 package com.netflix.spinnaker.kork.artifacts.artifactstore.s3;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -31,14 +32,22 @@ import com.netflix.spinnaker.kork.common.Header;
 import com.netflix.spinnaker.kork.exceptions.SpinnakerException;
 import com.netflix.spinnaker.security.AuthenticatedRequest;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 
 public class S3ArtifactStoreStorerTest {
@@ -129,4 +138,90 @@ public class S3ArtifactStoreStorerTest {
     assertEquals(expectedReference, artifact.getReference());
     assertEquals(ArtifactTypes.EMBEDDED_BASE64.getMimeType(), artifact.getType());
   }
+
+  @Test
+  public void testStoredReferencesAreNotStoredAgain() {
+    S3Client client = mock(S3Client.class);
+    when(client.headObject(any(HeadObjectRequest.class)))
+        .thenThrow(NoSuchKeyException.builder().build());
+    AuthenticatedRequest.set(Header.APPLICATION, "my-application");
+    S3ArtifactStoreStorer artifactStoreStorer =
+        new S3ArtifactStoreStorer(client, "my-bucket", new ArtifactStoreURISHA256Builder(), null);
+
+    Artifact first = artifactStoreStorer.store(embedded("aGVsbG8gd29ybGQK"));
+    Artifact second = artifactStoreStorer.store(embedded("aGVsbG8gd29ybGQK"));
+
+    assertEquals(first.getReference(), second.getReference());
+    verify(client).headObject(any(HeadObjectRequest.class));
+    verify(client).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    verifyNoMoreInteractions(client);
+  }
+
+  @Test
+  public void testFailedStoresAreRetried() {
+    S3Client client = mock(S3Client.class);
+    when(client.headObject(any(HeadObjectRequest.class)))
+        .thenThrow(S3Exception.builder().statusCode(403).build())
+        .thenReturn(null);
+    AuthenticatedRequest.set(Header.APPLICATION, "my-application");
+    S3ArtifactStoreStorer artifactStoreStorer =
+        new S3ArtifactStoreStorer(client, "my-bucket", new ArtifactStoreURISHA256Builder(), null);
+
+    Assertions.assertThrows(
+        SpinnakerException.class, () -> artifactStoreStorer.store(embedded("aGVsbG8gd29ybGQK")));
+    artifactStoreStorer.store(embedded("aGVsbG8gd29ybGQK"));
+    artifactStoreStorer.store(embedded("aGVsbG8gd29ybGQK"));
+
+    verify(client, times(2)).headObject(any(HeadObjectRequest.class));
+    verifyNoMoreInteractions(client);
+  }
+
+  @Test
+  public void testStoreAllUploadsConcurrentlyAndCoalescesDuplicates() throws Exception {
+    S3Client client = mock(S3Client.class);
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    when(client.headObject(any(HeadObjectRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              bothStarted.countDown();
+              // only returns early if two different references are checked at the same time
+              bothStarted.await(10, TimeUnit.SECONDS);
+              throw NoSuchKeyException.builder().build();
+            });
+    AuthenticatedRequest.set(Header.APPLICATION, "my-application");
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      S3ArtifactStoreStorer artifactStoreStorer =
+          new S3ArtifactStoreStorer(
+              client, "my-bucket", new ArtifactStoreURISHA256Builder(), null, 100, executor);
+
+      List<Artifact> stored =
+          artifactStoreStorer.storeAll(
+              List.of(
+                  embedded("aGVsbG8gd29ybGQK"),
+                  embedded("Z29vZGJ5ZSB3b3JsZAo="),
+                  embedded("aGVsbG8gd29ybGQK")));
+
+      assertThat(stored).hasSize(3);
+      assertThat(stored)
+          .allMatch(a -> a.getType().equals(ArtifactTypes.REMOTE_BASE64.getMimeType()));
+      assertEquals(stored.get(0).getReference(), stored.get(2).getReference());
+      assertThat(bothStarted.getCount()).isZero();
+
+      ArgumentCaptor<PutObjectRequest> puts = ArgumentCaptor.forClass(PutObjectRequest.class);
+      verify(client, times(2)).headObject(any(HeadObjectRequest.class));
+      verify(client, times(2)).putObject(puts.capture(), any(RequestBody.class));
+      assertThat(puts.getAllValues().stream().map(PutObjectRequest::tagging))
+          .allMatch(tagging -> tagging.contains("my-application"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Artifact embedded(String reference) {
+    return Artifact.builder()
+        .type(ArtifactTypes.EMBEDDED_BASE64.getMimeType())
+        .reference(reference)
+        .build();
+  }
 }
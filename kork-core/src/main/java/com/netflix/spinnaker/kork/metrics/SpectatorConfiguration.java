@@ -21,6 +21,8 @@ import com.netflix.spectator.api.Spectator;
 import com.netflix.spectator.gc.GcLogger;
 import com.netflix.spectator.jvm.Jmx;
 import com.netflix.spectator.micrometer.MicrometerRegistry;
+import com.netflix.spinnaker.kork.core.RetryListener;
+import com.netflix.spinnaker.kork.core.RetrySupport;
 import io.micrometer.core.instrument.MeterRegistry;
 import javax.annotation.PreDestroy;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -40,6 +42,18 @@ public class SpectatorConfiguration {
     return new MicrometerRegistry(meterRegistry);
   }
 
+  @Bean
+  @ConditionalOnMissingBean(RetryListener.class)
+  RetryListener retryListener(Registry registry) {
+    return new SpectatorRetryListener(registry);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(RetrySupport.class)
+  RetrySupport retrySupport(RetryListener retryListener) {
+    return new RetrySupport(retryListener);
+  }
+
   @Bean
   RegistryInitializer registryInitializer(
       Registry registry, SpectatorGcLoggingConfiguration spectatorConfigurationProperties) {
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.kork.metrics;
+
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.kork.core.RetryListener;
+import java.util.Objects;
+
+/**
+ * Reports {@link com.netflix.spinnaker.kork.core.RetrySupport} attempts, give-ups and exhausted
+ * retry budgets as {@code retrySupport.attempts}, {@code retrySupport.giveUps} and {@code
+ * retrySupport.budgetExhausted}, tagged with the dependency.
+ */
+public class SpectatorRetryListener implements RetryListener {
+  private final Registry registry;
+  private final Id attemptsId;
+  private final Id giveUpsId;
+  private final Id budgetExhaustedId;
+
+  public SpectatorRetryListener(Registry registry) {
+    this.registry = Objects.requireNonNull(registry);
+    this.attemptsId = registry.createId("retrySupport.attempts");
+    this.giveUpsId = registry.createId("retrySupport.giveUps");
+    this.budgetExhaustedId = registry.createId("retrySupport.budgetExhausted");
+  }
+
+  @Override
+  public void onAttempt(String dependency, boolean retry) {
+    registry
+        .counter(attemptsId.withTags("dependency", dependency, "retry", Boolean.toString(retry)))
+        .increment();
+  }
+
+  @Override
+  public void onGiveUp(String dependency, String reason) {
+    if ("budgetExhausted".equals(reason)) {
+      registry.counter(budgetExhaustedId.withTag("dependency", dependency)).increment();
+    }
+    registry.counter(giveUpsId.withTags("dependency", dependency, "reason", reason)).increment();
+  }
+}
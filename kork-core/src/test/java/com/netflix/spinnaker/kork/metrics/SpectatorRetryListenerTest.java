@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.kork.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.kork.core.RetryBudget;
+import com.netflix.spinnaker.kork.core.RetrySupport;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class SpectatorRetryListenerTest {
+
+  private final Registry registry = new DefaultRegistry();
+
+  @Test
+  void countsAttemptsAndExhaustedBudgets() {
+    RetrySupport retrySupport = new RetrySupport(new SpectatorRetryListener(registry));
+    RetryBudget budget = new RetryBudget("dependency", 1, 0);
+
+    assertThatThrownBy(
+            () ->
+                retrySupport.retry(
+                    () -> {
+                      throw new IllegalStateException("always fails");
+                    },
+                    10,
+                    Duration.ZERO,
+                    false,
+                    budget))
+        .isInstanceOf(IllegalStateException.class);
+
+    assertThat(
+            registry
+                .counter("retrySupport.attempts", "dependency", "dependency", "retry", "false")
+                .count())
+        .isEqualTo(1);
+    assertThat(
+            registry
+                .counter("retrySupport.attempts", "dependency", "dependency", "retry", "true")
+                .count())
+        .isEqualTo(1);
+    assertThat(registry.counter("retrySupport.budgetExhausted", "dependency", "dependency").count())
+        .isEqualTo(1);
+    assertThat(
+            registry
+                .counter(
+                    "retrySupport.giveUps", "dependency", "dependency", "reason", "budgetExhausted")
+                .count())
+        .isEqualTo(1);
+  }
+}
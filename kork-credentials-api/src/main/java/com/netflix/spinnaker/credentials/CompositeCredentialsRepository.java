@@ -25,10 +25,15 @@ import javax.annotation.Nullable;
 /**
  * Provides access to credentials (or extension of Credentials) across credentials types.
  *
+ * <p>When every repository tracks a {@link CredentialsRepository#getVersion() version}, the
+ * combined list of credentials and an index by name are built once and reused until one of the
+ * repositories changes.
+ *
  * @param <T>
  */
 public class CompositeCredentialsRepository<T extends Credentials> {
   private Map<String, CredentialsRepository<? extends T>> allRepositories;
+  @Nullable private volatile Snapshot<T> snapshot;
 
   public CompositeCredentialsRepository(List<CredentialsRepository<? extends T>> repositories) {
     allRepositories = new HashMap<>();
@@ -37,6 +42,7 @@ public class CompositeCredentialsRepository<T extends Credentials> {
 
   public void registerRepository(CredentialsRepository<? extends T> repository) {
     allRepositories.put(repository.getType(), repository);
+    snapshot = null;
   }
 
   public T getCredentials(String credentialsName, String type) {
@@ -61,6 +67,10 @@ public class CompositeCredentialsRepository<T extends Credentials> {
    */
   @Nullable
   public T getFirstCredentialsWithName(String name) {
+    Snapshot<T> current = currentSnapshot();
+    if (current != null) {
+      return current.byName.get(name);
+    }
     return allRepositories.values().stream()
         .map(r -> r.getOne(name))
         .filter(Objects::nonNull)
@@ -70,10 +80,70 @@ public class CompositeCredentialsRepository<T extends Credentials> {
 
   /** @return All credentials across all repositories */
   public List<T> getAllCredentials() {
+    Snapshot<T> current = currentSnapshot();
+    if (current != null) {
+      return current.all;
+    }
     return Collections.unmodifiableList(
         allRepositories.values().stream()
             .map(CredentialsRepository::getAll)
             .flatMap(Collection::stream)
             .collect(Collectors.toList()));
   }
+
+  /** @return a snapshot matching the current repository versions, or null if not versioned */
+  @Nullable
+  private Snapshot<T> currentSnapshot() {
+    Snapshot<T> current = snapshot;
+    if (current != null && current.isCurrent(allRepositories)) {
+      return current;
+    }
+
+    Map<String, Long> versions = new HashMap<>();
+    for (CredentialsRepository<? extends T> repository : allRepositories.values()) {
+      long version = repository.getVersion();
+      if (version < 0) {
+        return null;
+      }
+      versions.put(repository.getType(), version);
+    }
+
+    List<T> all = new ArrayList<>();
+    Map<String, T> byName = new HashMap<>();
+    for (CredentialsRepository<? extends T> repository : allRepositories.values()) {
+      for (T credentials : repository.getAll()) {
+        all.add(credentials);
+        byName.putIfAbsent(credentials.getName(), credentials);
+      }
+    }
+    // The versions were read before the credentials, so a concurrent change is seen next time
+    current = new Snapshot<>(versions, Collections.unmodifiableList(all), byName);
+    snapshot = current;
+    return current;
+  }
+
+  private static class Snapshot<T extends Credentials> {
+    final Map<String, Long> versions;
+    final List<T> all;
+    final Map<String, T> byName;
+
+    Snapshot(Map<String, Long> versions, List<T> all, Map<String, T> byName) {
+      this.versions = versions;
+      this.all = all;
+      this.byName = byName;
+    }
+
+    boolean isCurrent(Map<String, ? extends CredentialsRepository<?>> repositories) {
+      if (repositories.size() != versions.size()) {
+        return false;
+      }
+      for (CredentialsRepository<?> repository : repositories.values()) {
+        Long version = versions.get(repository.getType());
+        if (version == null || version != repository.getVersion()) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
 }
@@ -39,9 +39,22 @@ public interface CredentialsRepository<T extends Credentials> extends SpinnakerE
    */
   boolean has(String name);
 
-  /** @return A new set containing all known credentials */
+  /**
+   * @return All known credentials. The set must not be modified; implementations may share it
+   *     between callers.
+   */
   Set<T> getAll();
 
+  /**
+   * Returns a number that increases whenever credentials are saved or deleted, letting callers
+   * reuse anything derived from {@link #getAll()} while it is unchanged.
+   *
+   * @return the current version, or a negative value if the repository does not track versions
+   */
+  default long getVersion() {
+    return -1;
+  }
+
   /**
    * Add or update credentials
    *
@@ -19,12 +19,24 @@ package com.netflix.spinnaker.credentials;
 import com.netflix.spinnaker.kork.exceptions.InvalidCredentialsTypeException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import lombok.Getter;
 
+/**
+ * Keeps credentials in a map. {@link #getAll()} returns a shared, read-only snapshot that is only
+ * rebuilt after the credentials change, so frequent readers do not copy the map.
+ *
+ * @param <T>
+ */
 public class MapBackedCredentialsRepository<T extends Credentials>
     implements CredentialsRepository<T> {
-  protected Map<String, T> credentials = new ConcurrentHashMap<>();
+  // Only changed through save and delete, which invalidate the getAll() snapshot
+  private final Map<String, T> credentials = new ConcurrentHashMap<>();
+
+  private final AtomicLong version = new AtomicLong();
+  // Rebuilt by the first reader after a change
+  @Nullable private volatile Snapshot<T> snapshot;
   @Nullable protected CredentialsLifecycleHandler<T> eventHandler;
   @Getter protected String type;
 
@@ -46,7 +58,29 @@ public class MapBackedCredentialsRepository<T extends Credentials>
 
   @Override
   public Set<T> getAll() {
-    return new HashSet<>(credentials.values());
+    long currentVersion = version.get();
+    Snapshot<T> current = snapshot;
+    if (current == null || current.version != currentVersion) {
+      // Changes are applied before the version is bumped, so the copy holds at least this version
+      current =
+          new Snapshot<>(
+              currentVersion, Collections.unmodifiableSet(new HashSet<>(credentials.values())));
+      snapshot = current;
+    }
+    return current.credentials;
+  }
+
+  @Override
+  public long getVersion() {
+    return version.get();
+  }
+
+  /**
+   * A read-only view of the credentials by name. Subclasses change the credentials through {@link
+   * #save} and {@link #delete}.
+   */
+  protected Map<String, T> getCredentialsByName() {
+    return Collections.unmodifiableMap(credentials);
   }
 
   @Override
@@ -69,13 +103,27 @@ public class MapBackedCredentialsRepository<T extends Credentials>
       }
     }
     credentials.put(creds.getName(), creds);
+    version.incrementAndGet();
   }
 
   @Override
   public void delete(String key) {
     T credentials = this.credentials.remove(key);
-    if (credentials != null && eventHandler != null) {
-      eventHandler.credentialsDeleted(credentials);
+    if (credentials != null) {
+      version.incrementAndGet();
+      if (eventHandler != null) {
+        eventHandler.credentialsDeleted(credentials);
+      }
+    }
+  }
+
+  private static class Snapshot<T> {
+    final long version;
+    final Set<T> credentials;
+
+    Snapshot(long version, Set<T> credentials) {
+      this.version = version;
+      this.credentials = credentials;
     }
   }
 }
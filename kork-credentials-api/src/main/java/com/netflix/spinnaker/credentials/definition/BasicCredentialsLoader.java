@@ -16,34 +16,65 @@
 
 package com.netflix.spinnaker.credentials.definition;
 
+import com.netflix.spectator.api.NoopRegistry;
+import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.credentials.Credentials;
 import com.netflix.spinnaker.credentials.CredentialsRepository;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * CredentialsLoader that expects the full list of credentials on each load, and updates the
  * credential repository on each run. It can be run once or multiple times.
  *
+ * <p>Definitions are only parsed when they are new or changed since the last successful parse. A
+ * definition that fails to parse or save is logged and counted in {@code credentials.changes} with
+ * {@code change=failed}, without failing the load or preventing the other definitions from being
+ * applied. It is retried on the next load that reads the definitions, that is once the source
+ * version changes, or on every load for sources without versions. Only failing to list the
+ * definitions fails the load.
+ *
  * @param <T>
  * @param <U>
  */
+@Slf4j
 public class BasicCredentialsLoader<T extends CredentialsDefinition, U extends Credentials>
     extends AbstractCredentialsLoader<U> {
+  /** Default number of definitions parsed and saved concurrently when parallel is enabled. */
+  public static final int DEFAULT_PARALLELISM = 16;
+
+  /** Number of changed definitions parsed together while reading the definitions. */
+  private static final int PAGE_SIZE = 500;
+
   protected final CredentialsParser<T, U> parser;
   protected final CredentialsDefinitionSource<T> definitionSource;
   /**
-   * When parallel is true, the loader may apply changes in parallel. See {@link
-   * java.util.concurrent.ForkJoinPool} for limitations. This can be useful when adding or updating
+   * When parallel is true, the loader parses definitions and applies changes in parallel, using at
+   * most {@link #parallelism} threads. This can be useful when parsing, adding or updating
    * credentials is expected to take some time, as for instance when making a network call.
    */
   @Setter @Getter protected boolean parallel;
+  /** The maximum number of definitions parsed and saved concurrently when parallel is true. */
+  @Setter @Getter protected int parallelism = DEFAULT_PARALLELISM;
+  /** Records how long each credential took to parse. */
+  @Setter @Getter protected Registry registry = new NoopRegistry();
   // Definition is kept so we can quickly check for changes before parsing
   protected final Map<String, T> loadedDefinitions = new ConcurrentHashMap<>();
+  // Fingerprint of each loaded definition, compared before the full definition on each load
+  protected final Map<String, Integer> loadedFingerprints = new ConcurrentHashMap<>();
+  // Source version of the last load that read every definition, if the source has versions
+  private volatile String loadedVersion;
 
   public BasicCredentialsLoader(
       CredentialsDefinitionSource<T> definitionSource,
@@ -65,38 +96,203 @@ public class BasicCredentialsLoader<T extends CredentialsDefinition, U extends C
 
   @Override
   public void load() {
-    this.parse(definitionSource.getCredentialsDefinitions());
+    String version = definitionSource.getVersion();
+    if (version != null && version.equals(loadedVersion)) {
+      log.debug("{} credentials unchanged at version {}", credentialsRepository.getType(), version);
+      return;
+    }
+
+    // Only skip later loads once the definitions were read, so a failed listing is retried
+    loadedVersion = null;
+    try (Stream<T> definitions = definitionSource.streamCredentialsDefinitions()) {
+      parse(definitions);
+    }
+    loadedVersion = version;
   }
 
+  /**
+   * Applies the definitions to the repository.
+   *
+   * @deprecated {@link #load()} no longer calls this method; override {@link #parse(Stream)}
+   *     instead, which lets definitions be streamed from the source
+   */
+  @Deprecated
   protected void parse(Collection<T> definitions) {
-    Set<String> definitionNames = definitions.stream().map(T::getName).collect(Collectors.toSet());
-
-    credentialsRepository.getAll().stream()
-        .map(Credentials::getName)
-        .filter(name -> !definitionNames.contains(name))
-        .peek(loadedDefinitions::remove)
-        .forEach(credentialsRepository::delete);
-
-    List<U> toApply = new ArrayList<>();
-
-    for (T definition : definitions) {
-      if (!loadedDefinitions.containsKey(definition.getName())) {
-        U cred = parser.parse(definition);
-        if (cred != null) {
-          toApply.add(cred);
-          // Add to loaded definition now in case we trigger another parse before this one finishes
-          loadedDefinitions.put(definition.getName(), definition);
-        }
-      } else if (!loadedDefinitions.get(definition.getName()).equals(definition)) {
-        U cred = parser.parse(definition);
-        if (cred != null) {
-          toApply.add(cred);
-          loadedDefinitions.put(definition.getName(), definition);
+    parse(definitions.stream());
+  }
+
+  /**
+   * Applies the definitions to the repository, parsing changed definitions a page at a time so
+   * that large sources can be streamed rather than listed.
+   */
+  protected void parse(Stream<T> definitions) {
+    Set<String> definitionNames = new HashSet<>();
+    List<T> page = new ArrayList<>();
+    AtomicInteger failures = new AtomicInteger();
+    int changed = 0;
+
+    Iterator<T> iterator = definitions.iterator();
+    while (iterator.hasNext()) {
+      T definition = iterator.next();
+      definitionNames.add(definition.getName());
+      if (hasChanged(definition)) {
+        page.add(definition);
+      }
+      if (page.size() >= PAGE_SIZE || (!iterator.hasNext() && !page.isEmpty())) {
+        changed += page.size();
+        apply(page, failures);
+        page.clear();
+      }
+    }
+
+    List<String> deleted =
+        credentialsRepository.getAll().stream()
+            .map(Credentials::getName)
+            .filter(name -> !definitionNames.contains(name))
+            .collect(Collectors.toList());
+    for (String name : deleted) {
+      loadedDefinitions.remove(name);
+      loadedFingerprints.remove(name);
+      credentialsRepository.delete(name);
+    }
+
+    String type = String.valueOf(credentialsRepository.getType());
+    registry
+        .counter("credentials.changes", "type", type, "change", "updated")
+        .increment(changed - failures.get());
+    registry
+        .counter("credentials.changes", "type", type, "change", "failed")
+        .increment(failures.get());
+    registry
+        .counter("credentials.changes", "type", type, "change", "deleted")
+        .increment(deleted.size());
+
+    if (failures.get() > 0) {
+      log.warn("Failed to load {} of {} changed {} credentials", failures.get(), changed, type);
+    }
+  }
+
+  /**
+   * Parses and saves the changed definitions, in parallel if enabled, counting the definitions
+   * that could not be parsed or saved in the given failures.
+   */
+  private void apply(List<T> changed, AtomicInteger failures) {
+    if (!parallel || changed.size() == 1) {
+      for (T definition : changed) {
+        applyDefinition(definition, failures);
+      }
+      return;
+    }
+
+    ExecutorService executor = newExecutor(Math.min(Math.max(1, parallelism), changed.size()));
+    try {
+      List<Future<?>> futures = new ArrayList<>(changed.size());
+      for (T definition : changed) {
+        futures.add(executor.submit(() -> applyDefinition(definition, failures)));
+      }
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          failures.incrementAndGet();
+          log.error("Failed to load {} credentials", credentialsRepository.getType(), e.getCause());
         }
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Interrupted while loading {} credentials", credentialsRepository.getType());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void applyDefinition(T definition, AtomicInteger failures) {
+    try {
+      U cred = parseDefinition(definition);
+      if (cred != null) {
+        credentialsRepository.save(cred);
+      }
+    } catch (Exception e) {
+      // Forget the definition so it is parsed again on the next load
+      loadedDefinitions.remove(definition.getName());
+      loadedFingerprints.remove(definition.getName());
+      failures.incrementAndGet();
+      log.error(
+          "Failed to load {} credentials {}",
+          credentialsRepository.getType(),
+          definition.getName(),
+          e);
+    }
+  }
+
+  /**
+   * Computes the value compared between loads to decide whether a definition changed.
+   *
+   * <p>Definitions whose fingerprint differs from the loaded one are parsed again without
+   * comparing them further; equal fingerprints are confirmed with {@link Object#equals}. Defaults
+   * to {@link Object#hashCode()}, which definitions already keep consistent with equals.
+   * Subclasses may override this with a cheaper value, such as a resource version from the
+   * definition source.
+   */
+  protected int fingerprint(T definition) {
+    return definition.hashCode();
+  }
+
+  private boolean hasChanged(T definition) {
+    T loaded = loadedDefinitions.get(definition.getName());
+    if (loaded == definition) {
+      return false;
+    }
+    Integer loadedFingerprint = loadedFingerprints.get(definition.getName());
+    if (loaded == null
+        || loadedFingerprint == null
+        || loadedFingerprint != fingerprint(definition)) {
+      return true;
+    }
+    // fingerprints may collide, so only equal definitions are skipped
+    return !loaded.equals(definition);
+  }
+
+  /**
+   * Parses a single definition, recording the time it took.
+   *
+   * @return the credentials, or null if they should be ignored.
+   */
+  private U parseDefinition(T definition) {
+    long start = System.nanoTime();
+    boolean success = false;
+    try {
+      U cred = parser.parse(definition);
+      success = true;
+      if (cred != null) {
+        // Add to loaded definition now in case we trigger another parse before this one finishes
+        loadedDefinitions.put(definition.getName(), definition);
+        loadedFingerprints.put(definition.getName(), fingerprint(definition));
+      }
+      return cred;
+    } finally {
+      registry
+          .timer(
+              "credentials.parse",
+              "type",
+              String.valueOf(credentialsRepository.getType()),
+              "account",
+              definition.getName(),
+              "success",
+              String.valueOf(success))
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
+  }
 
-    Stream<U> stream = parallel ? toApply.parallelStream() : toApply.stream();
-    stream.forEach(credentialsRepository::save);
+  private ExecutorService newExecutor(int threads) {
+    AtomicInteger count = new AtomicInteger();
+    String prefix = "credentials-loader-" + credentialsRepository.getType() + "-";
+    return Executors.newFixedThreadPool(
+        threads,
+        runnable -> {
+          Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
   }
 }
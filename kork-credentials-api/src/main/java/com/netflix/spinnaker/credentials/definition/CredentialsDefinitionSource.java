@@ -18,6 +18,8 @@ package com.netflix.spinnaker.credentials.definition;
 
 import com.netflix.spinnaker.kork.plugins.api.internal.SpinnakerExtensionPoint;
 import java.util.List;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
 
 /**
  * A source of credentials definitions. It could be backed by Spring properties or fetched from an
@@ -28,4 +30,26 @@ import java.util.List;
 public interface CredentialsDefinitionSource<T extends CredentialsDefinition>
     extends SpinnakerExtensionPoint {
   List<T> getCredentialsDefinitions();
+
+  /**
+   * Returns a token, such as a version or ETag, that changes whenever the definitions change.
+   *
+   * <p>Loaders skip reading the definitions when the token matches the one of the last successful
+   * load. Sources that cannot cheaply tell whether anything changed return null, in which case the
+   * definitions are read on every load.
+   */
+  @Nullable
+  default String getVersion() {
+    return null;
+  }
+
+  /**
+   * Streams the definitions instead of listing them all at once.
+   *
+   * <p>Sources backed by very large or paged external systems can override this to fetch
+   * definitions lazily. The stream is closed by the caller once consumed.
+   */
+  default Stream<T> streamCredentialsDefinitions() {
+    return getCredentialsDefinitions().stream();
+  }
 }
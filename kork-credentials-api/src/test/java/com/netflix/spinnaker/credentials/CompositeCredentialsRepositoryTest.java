@@ -40,4 +40,35 @@ public class CompositeCredentialsRepositoryTest {
         new CompositeCredentialsRepository<>(Arrays.asList(repo1, repo2));
     assertThat(composite.getAllCredentials()).hasSize(1);
   }
+
+  @Test
+  public void testSnapshotFollowsRepositoryChanges() {
+    MapBackedCredentialsRepository<Credentials> repo1 =
+        new MapBackedCredentialsRepository<>("type1", null);
+    MapBackedCredentialsRepository<Credentials> repo2 =
+        new MapBackedCredentialsRepository<>("type2", null);
+    repo1.save(credentials("cred1", "type1"));
+
+    CompositeCredentialsRepository<Credentials> composite =
+        new CompositeCredentialsRepository<>(Arrays.asList(repo1, repo2));
+    List<Credentials> all = composite.getAllCredentials();
+    assertThat(all).hasSize(1);
+    assertThat(composite.getAllCredentials()).isSameAs(all);
+    assertThat(composite.getFirstCredentialsWithName("cred2")).isNull();
+
+    Credentials cred2 = credentials("cred2", "type2");
+    repo2.save(cred2);
+    assertThat(composite.getAllCredentials()).hasSize(2);
+    assertThat(composite.getFirstCredentialsWithName("cred2")).isSameAs(cred2);
+
+    repo2.delete("cred2");
+    assertThat(composite.getFirstCredentialsWithName("cred2")).isNull();
+  }
+
+  private static Credentials credentials(String name, String type) {
+    Credentials credentials = mock(Credentials.class);
+    when(credentials.getName()).thenReturn(name);
+    when(credentials.getType()).thenReturn(type);
+    return credentials;
+  }
 }
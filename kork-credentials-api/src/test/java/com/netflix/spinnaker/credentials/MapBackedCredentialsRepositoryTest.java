@@ -19,6 +19,8 @@ package com.netflix.spinnaker.credentials;
 import static org.mockito.Mockito.*;
 
 import com.netflix.spinnaker.kork.exceptions.InvalidCredentialsTypeException;
+import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -60,4 +62,50 @@ public class MapBackedCredentialsRepositoryTest {
 
     Assertions.assertThrows(InvalidCredentialsTypeException.class, () -> repository.save(c1));
   }
+
+  @Test
+  public void testGetAllSharesSnapshotUntilChanged() {
+    final String TYPE = "myType";
+    MapBackedCredentialsRepository<Credentials> repository =
+        new MapBackedCredentialsRepository<>(TYPE, null);
+
+    Credentials c1 = mock(Credentials.class);
+    when(c1.getName()).thenReturn("cred1");
+    when(c1.getType()).thenReturn(TYPE);
+    Credentials c2 = mock(Credentials.class);
+    when(c2.getName()).thenReturn("cred2");
+    when(c2.getType()).thenReturn(TYPE);
+
+    repository.save(c1);
+    Set<Credentials> first = repository.getAll();
+    Assertions.assertSame(first, repository.getAll());
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> first.add(c2));
+
+    long version = repository.getVersion();
+    repository.save(c2);
+    Assertions.assertTrue(repository.getVersion() > version);
+    Set<Credentials> second = repository.getAll();
+    Assertions.assertNotSame(first, second);
+    Assertions.assertEquals(Set.of(c1, c2), second);
+
+    repository.delete("cred1");
+    Assertions.assertEquals(Set.of(c2), repository.getAll());
+  }
+
+  @Test
+  public void testCredentialsByNameIsReadOnly() {
+    final String TYPE = "myType";
+    MapBackedCredentialsRepository<Credentials> repository =
+        new MapBackedCredentialsRepository<>(TYPE, null);
+
+    Credentials c1 = mock(Credentials.class);
+    when(c1.getName()).thenReturn("cred1");
+    when(c1.getType()).thenReturn(TYPE);
+
+    Map<String, Credentials> credentials = repository.getCredentialsByName();
+    repository.save(c1);
+    Assertions.assertEquals(Map.of("cred1", c1), credentials);
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> credentials.clear());
+    Assertions.assertEquals(Set.of(c1), repository.getAll());
+  }
 }
@@ -17,17 +17,28 @@
 package com.netflix.spinnaker.credentials.definition;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.netflix.spectator.api.DefaultRegistry;
 import com.netflix.spinnaker.credentials.Credentials;
 import com.netflix.spinnaker.credentials.CredentialsLifecycleHandler;
 import com.netflix.spinnaker.credentials.CredentialsRepository;
 import com.netflix.spinnaker.credentials.MapBackedCredentialsRepository;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import org.junit.jupiter.api.Test;
 
 public class BasicCredentialsLoaderTest {
@@ -36,7 +47,7 @@ public class BasicCredentialsLoaderTest {
   @Test
   public void testCredentialsLoader() {
     CredentialsDefinitionSource<CredentialsDefinition> source =
-        mock(CredentialsDefinitionSource.class);
+        mock(CredentialsDefinitionSource.class, CALLS_REAL_METHODS);
     CredentialsLifecycleHandler<FakeCredentials> handler = mock(CredentialsLifecycleHandler.class);
     CredentialsRepository<FakeCredentials> repository =
         new MapBackedCredentialsRepository<>(TEST_TYPE, handler);
@@ -72,6 +83,170 @@ public class BasicCredentialsLoaderTest {
     assertThat(repository.getAll()).isEmpty();
   }
 
+  @Test
+  public void testParallelLoadSkipsUnchangedAndIsolatesFailures() {
+    CredentialsDefinitionSource<FakeDefinition> source =
+        mock(CredentialsDefinitionSource.class, CALLS_REAL_METHODS);
+    CredentialsLifecycleHandler<FakeCredentials> handler = mock(CredentialsLifecycleHandler.class);
+    CredentialsRepository<FakeCredentials> repository =
+        new MapBackedCredentialsRepository<>(TEST_TYPE, handler);
+
+    Map<String, AtomicInteger> parseCounts = new ConcurrentHashMap<>();
+    CredentialsParser<FakeDefinition, FakeCredentials> parser =
+        definition -> {
+          parseCounts
+              .computeIfAbsent(definition.getName(), k -> new AtomicInteger())
+              .incrementAndGet();
+          if (definition.getVersion() < 0) {
+            throw new IllegalStateException("cannot parse " + definition.getName());
+          }
+          return new FakeCredentials(definition.getName());
+        };
+
+    DefaultRegistry registry = new DefaultRegistry();
+    BasicCredentialsLoader<FakeDefinition, FakeCredentials> loader =
+        new BasicCredentialsLoader<>(source, parser, repository, true);
+    loader.setParallelism(4);
+    loader.setRegistry(registry);
+
+    List<FakeDefinition> definitions = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      definitions.add(new FakeDefinition("cred" + i, i == 3 ? -1 : 1));
+    }
+    when(source.getCredentialsDefinitions()).thenReturn(definitions);
+    loader.load();
+
+    // The failing definition does not prevent the others from loading
+    assertThat(repository.getAll()).hasSize(19);
+    assertThat(repository.getOne("cred3")).isNull();
+    assertThat(changes(registry, "updated")).isEqualTo(19);
+    assertThat(changes(registry, "failed")).isEqualTo(1);
+    assertThat(
+            registry
+                .timer(
+                    "credentials.parse",
+                    "type",
+                    TEST_TYPE,
+                    "account",
+                    "cred3",
+                    "success",
+                    "false")
+                .count())
+        .isEqualTo(1);
+
+    // Equal definitions are not parsed again, changed and failed ones are
+    List<FakeDefinition> updated = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      updated.add(new FakeDefinition("cred" + i, i == 5 ? 2 : 1));
+    }
+    when(source.getCredentialsDefinitions()).thenReturn(updated);
+    loader.load();
+
+    assertThat(repository.getAll()).hasSize(20);
+    assertThat(parseCounts.get("cred0")).hasValue(1);
+    assertThat(parseCounts.get("cred3")).hasValue(2);
+    assertThat(parseCounts.get("cred5")).hasValue(2);
+  }
+
+  @Test
+  public void testLoadSkipsUnchangedVersion() {
+    CredentialsDefinitionSource<FakeDefinition> source =
+        mock(CredentialsDefinitionSource.class, CALLS_REAL_METHODS);
+    CredentialsLifecycleHandler<FakeCredentials> handler = mock(CredentialsLifecycleHandler.class);
+    CredentialsRepository<FakeCredentials> repository =
+        new MapBackedCredentialsRepository<>(TEST_TYPE, handler);
+    AtomicInteger failures = new AtomicInteger(1);
+    BasicCredentialsLoader<FakeDefinition, FakeCredentials> loader =
+        new BasicCredentialsLoader<>(
+            source,
+            definition -> {
+              if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("transient failure");
+              }
+              return new FakeCredentials(definition.getName());
+            },
+            repository);
+
+    when(source.getVersion()).thenReturn("v1");
+    when(source.getCredentialsDefinitions()).thenReturn(List.of(new FakeDefinition("cred1", 1)));
+
+    // Once read, the same version is not read again, even if a definition failed to parse
+    loader.load();
+    assertThat(repository.getAll()).isEmpty();
+    loader.load();
+    verify(source, times(1)).getCredentialsDefinitions();
+
+    // A new version retries the failed definition
+    when(source.getVersion()).thenReturn("v2");
+    loader.load();
+    verify(source, times(2)).getCredentialsDefinitions();
+    assertThat(repository.getOne("cred1")).isNotNull();
+  }
+
+  @Test
+  public void testFailedListingIsRetriedAtTheSameVersion() {
+    CredentialsDefinitionSource<FakeDefinition> source =
+        mock(CredentialsDefinitionSource.class, CALLS_REAL_METHODS);
+    CredentialsLifecycleHandler<FakeCredentials> handler = mock(CredentialsLifecycleHandler.class);
+    CredentialsRepository<FakeCredentials> repository =
+        new MapBackedCredentialsRepository<>(TEST_TYPE, handler);
+    BasicCredentialsLoader<FakeDefinition, FakeCredentials> loader =
+        new BasicCredentialsLoader<>(
+            source, definition -> new FakeCredentials(definition.getName()), repository);
+
+    when(source.getVersion()).thenReturn("v1");
+    when(source.getCredentialsDefinitions())
+        .thenThrow(new IllegalStateException("backend unavailable"))
+        .thenReturn(List.of(new FakeDefinition("cred1", 1)));
+
+    assertThatThrownBy(loader::load).hasMessage("backend unavailable");
+    loader.load();
+    assertThat(repository.getOne("cred1")).isNotNull();
+  }
+
+  @Test
+  public void testFingerprintCollisionsAreConfirmedWithEquals() {
+    CredentialsDefinitionSource<FakeDefinition> source =
+        mock(CredentialsDefinitionSource.class, CALLS_REAL_METHODS);
+    CredentialsLifecycleHandler<FakeCredentials> handler = mock(CredentialsLifecycleHandler.class);
+    CredentialsRepository<FakeCredentials> repository =
+        new MapBackedCredentialsRepository<>(TEST_TYPE, handler);
+    AtomicInteger parses = new AtomicInteger();
+    BasicCredentialsLoader<FakeDefinition, FakeCredentials> loader =
+        new BasicCredentialsLoader<>(
+            source,
+            definition -> {
+              parses.incrementAndGet();
+              return new FakeCredentials(definition.getName());
+            },
+            repository) {
+          @Override
+          protected int fingerprint(FakeDefinition definition) {
+            return 0;
+          }
+        };
+
+    when(source.getCredentialsDefinitions()).thenReturn(List.of(new FakeDefinition("cred1", 1)));
+    loader.load();
+    when(source.getCredentialsDefinitions()).thenReturn(List.of(new FakeDefinition("cred1", 1)));
+    loader.load();
+    assertThat(parses).hasValue(1);
+
+    when(source.getCredentialsDefinitions()).thenReturn(List.of(new FakeDefinition("cred1", 2)));
+    loader.load();
+    assertThat(parses).hasValue(2);
+  }
+
+  private static long changes(DefaultRegistry registry, String change) {
+    return registry.counter("credentials.changes", "type", TEST_TYPE, "change", change).count();
+  }
+
+  @Value
+  private static class FakeDefinition implements CredentialsDefinition {
+    String name;
+    int version;
+  }
+
   @RequiredArgsConstructor
   private class FakeCredentials implements Credentials {
     @Getter private final String name;
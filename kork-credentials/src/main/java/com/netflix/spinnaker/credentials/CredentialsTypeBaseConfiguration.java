@@ -17,6 +17,7 @@
 
 package com.netflix.spinnaker.credentials;
 
+import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.credentials.definition.*;
 import com.netflix.spinnaker.credentials.definition.AbstractCredentialsLoader;
 import com.netflix.spinnaker.credentials.definition.BasicCredentialsLoader;
@@ -161,6 +162,11 @@ public class CredentialsTypeBaseConfiguration<
     values.addGenericArgumentValue(credentialsRepository);
     values.addGenericArgumentValue(properties.isParallel());
     bd.setConstructorArgumentValues(values);
+    bd.getPropertyValues().add("parallelism", properties.getParallelism());
+    Registry registry = context.getBeanProvider(Registry.class).getIfAvailable();
+    if (registry != null) {
+      bd.getPropertyValues().add("registry", registry);
+    }
 
     String beanName = "credentialsLoader." + properties.getType();
     ((DefaultListableBeanFactory) ((AbstractApplicationContext) context).getBeanFactory())
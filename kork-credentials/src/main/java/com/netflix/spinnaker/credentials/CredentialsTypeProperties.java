@@ -17,6 +17,7 @@
 
 package com.netflix.spinnaker.credentials;
 
+import com.netflix.spinnaker.credentials.definition.BasicCredentialsLoader;
 import com.netflix.spinnaker.credentials.definition.CredentialsDefinition;
 import com.netflix.spinnaker.credentials.definition.CredentialsDefinitionSource;
 import com.netflix.spinnaker.credentials.definition.CredentialsParser;
@@ -32,4 +33,5 @@ public class CredentialsTypeProperties<T extends Credentials, U extends Credenti
   private final CredentialsDefinitionSource<U> defaultCredentialsSource;
   private final CredentialsParser<U, T> credentialsParser;
   private final boolean parallel;
+  @Builder.Default private final int parallelism = BasicCredentialsLoader.DEFAULT_PARALLELISM;
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.credentials.poller;
+
+import java.util.Date;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+/**
+ * Runs a {@link Poller} with a fixed delay between reloads, doubling the delay after each
+ * consecutive failure up to a maximum.
+ */
+class BackoffTrigger implements Trigger {
+  private final Poller<?> poller;
+  private final long reloadFrequencyMs;
+  private final long maxBackoffMs;
+
+  BackoffTrigger(Poller<?> poller, long reloadFrequencyMs, long maxBackoffMs) {
+    this.poller = poller;
+    this.reloadFrequencyMs = reloadFrequencyMs;
+    this.maxBackoffMs = Math.max(reloadFrequencyMs, maxBackoffMs);
+  }
+
+  @Override
+  public Date nextExecutionTime(TriggerContext triggerContext) {
+    Date lastCompletion = triggerContext.lastCompletionTime();
+    if (lastCompletion == null) {
+      // The initial load already happened on startup
+      return new Date(System.currentTimeMillis() + reloadFrequencyMs);
+    }
+    return new Date(lastCompletion.getTime() + delayMs());
+  }
+
+  long delayMs() {
+    int failures = poller.getConsecutiveFailures();
+    if (failures == 0) {
+      return reloadFrequencyMs;
+    }
+    long delay = reloadFrequencyMs << Math.min(failures, 20);
+    return delay < 0 ? maxBackoffMs : Math.min(delay, maxBackoffMs);
+  }
+}
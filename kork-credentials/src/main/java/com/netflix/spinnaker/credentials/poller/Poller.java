@@ -16,9 +16,12 @@
 
 package com.netflix.spinnaker.credentials.poller;
 
+import com.netflix.spectator.api.NoopRegistry;
+import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.credentials.Credentials;
 import com.netflix.spinnaker.credentials.definition.CredentialsLoader;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -27,20 +30,46 @@ import lombok.extern.slf4j.Slf4j;
  * <p>Pollers are enabled by `credentials.poller.enabled`. Frequency is given by the property
  * `credentials.poller.[credentials type].reloadFrequencyMs` and defaults to
  * `credentials.poller.default.reloadFrequencyMs`. If not provided, the default is zero which
- * disables the polling.
+ * disables the polling. While reloads keep failing, the interval backs off up to
+ * `maxBackoffMs`.
  *
  * @param <T>
  */
 @Slf4j
-@RequiredArgsConstructor
 public class Poller<T extends Credentials> implements Runnable {
   private final CredentialsLoader<T> credentialsLoader;
+  private final Registry registry;
+  /** Number of reloads that failed since the last successful one. */
+  @Getter private volatile int consecutiveFailures;
+
+  public Poller(CredentialsLoader<T> credentialsLoader) {
+    this(credentialsLoader, new NoopRegistry());
+  }
+
+  public Poller(CredentialsLoader<T> credentialsLoader, Registry registry) {
+    this.credentialsLoader = credentialsLoader;
+    this.registry = registry;
+  }
 
   public void run() {
+    long start = System.nanoTime();
+    boolean success = false;
     try {
       credentialsLoader.load();
+      success = true;
+      consecutiveFailures = 0;
     } catch (Exception e) {
+      consecutiveFailures++;
       log.error("Error reloading repository", e);
+    } finally {
+      registry
+          .timer(
+              "credentials.poller.load",
+              "type",
+              String.valueOf(credentialsLoader.getCredentialsRepository().getType()),
+              "success",
+              String.valueOf(success))
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
   }
 }
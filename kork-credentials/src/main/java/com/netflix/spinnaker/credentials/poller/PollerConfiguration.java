@@ -16,16 +16,16 @@
 
 package com.netflix.spinnaker.credentials.poller;
 
+import com.netflix.spectator.api.NoopRegistry;
+import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.credentials.Credentials;
 import com.netflix.spinnaker.credentials.definition.CredentialsLoader;
 import com.netflix.spinnaker.kork.annotations.NonnullByDefault;
-import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
-import org.springframework.scheduling.support.PeriodicTrigger;
 
 @EnableConfigurationProperties(PollerConfigurationProperties.class)
 @RequiredArgsConstructor
@@ -33,6 +33,7 @@ import org.springframework.scheduling.support.PeriodicTrigger;
 public class PollerConfiguration implements SchedulingConfigurer {
   private final PollerConfigurationProperties config;
   private final ObjectProvider<CredentialsLoader<? extends Credentials>> pollers;
+  private final ObjectProvider<Registry> registry;
 
   @Override
   public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
@@ -42,10 +43,11 @@ public class PollerConfiguration implements SchedulingConfigurer {
             PollerConfigurationProperties.Settings settings =
                 config.getSettings(poller.getCredentialsRepository().getType());
             if (settings != null && settings.getReloadFrequencyMs() > 0) {
-              PeriodicTrigger trigger =
-                  new PeriodicTrigger(settings.getReloadFrequencyMs(), TimeUnit.MILLISECONDS);
-              trigger.setInitialDelay(settings.getReloadFrequencyMs());
-              taskRegistrar.addTriggerTask(new Poller<>(poller), trigger);
+              Poller<?> task = new Poller<>(poller, registry.getIfAvailable(NoopRegistry::new));
+              taskRegistrar.addTriggerTask(
+                  task,
+                  new BackoffTrigger(
+                      task, settings.getReloadFrequencyMs(), settings.getMaxBackoffMs()));
             }
           });
     }
@@ -40,5 +40,7 @@ public class PollerConfigurationProperties {
   @Data
   public static class Settings {
     private long reloadFrequencyMs = 0;
+    /** Upper bound on the reload interval while reloads keep failing. */
+    private long maxBackoffMs = 600000;
   }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.credentials.poller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Timer;
+import com.netflix.spinnaker.credentials.Credentials;
+import com.netflix.spinnaker.credentials.CredentialsRepository;
+import com.netflix.spinnaker.credentials.definition.BasicCredentialsLoader;
+import com.netflix.spinnaker.credentials.definition.CredentialsDefinition;
+import com.netflix.spinnaker.credentials.definition.CredentialsDefinitionSource;
+import com.netflix.spinnaker.credentials.definition.CredentialsLoader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PollerTest {
+
+  @Test
+  public void testBacksOffWhileLoadsFail() {
+    CredentialsLoader<Credentials> loader = mock(CredentialsLoader.class);
+    CredentialsRepository<Credentials> repository = mock(CredentialsRepository.class);
+    when(loader.getCredentialsRepository()).thenReturn(repository);
+    when(repository.getType()).thenReturn("test");
+
+    DefaultRegistry registry = new DefaultRegistry();
+    Poller<Credentials> poller = new Poller<>(loader, registry);
+    BackoffTrigger trigger = new BackoffTrigger(poller, 1000, 5000);
+
+    doThrow(new IllegalStateException("backend unavailable")).when(loader).load();
+    poller.run();
+    assertThat(trigger.delayMs()).isEqualTo(2000);
+    poller.run();
+    assertThat(trigger.delayMs()).isEqualTo(4000);
+    poller.run();
+    assertThat(trigger.delayMs()).isEqualTo(5000);
+
+    doNothing().when(loader).load();
+    poller.run();
+    assertThat(poller.getConsecutiveFailures()).isZero();
+    assertThat(trigger.delayMs()).isEqualTo(1000);
+
+    assertThat(loadTimer(registry, "false").count()).isEqualTo(3);
+    assertThat(loadTimer(registry, "true").count()).isEqualTo(1);
+  }
+
+  @Test
+  public void testDoesNotBackOffWhenOneDefinitionFailsToParse() {
+    CredentialsDefinitionSource<CredentialsDefinition> source =
+        mock(CredentialsDefinitionSource.class, CALLS_REAL_METHODS);
+    List<CredentialsDefinition> definitions = new ArrayList<>();
+    for (String name : List.of("cred1", "cred2", "cred3")) {
+      CredentialsDefinition definition = mock(CredentialsDefinition.class);
+      when(definition.getName()).thenReturn(name);
+      definitions.add(definition);
+    }
+    when(source.getCredentialsDefinitions()).thenReturn(definitions);
+    CredentialsRepository<Credentials> repository = mock(CredentialsRepository.class);
+    when(repository.getType()).thenReturn("test");
+    BasicCredentialsLoader<CredentialsDefinition, Credentials> loader =
+        new BasicCredentialsLoader<>(
+            source,
+            d -> {
+              if (d.getName().equals("cred2")) {
+                throw new IllegalStateException("invalid definition");
+              }
+              return mock(Credentials.class);
+            },
+            repository);
+
+    Poller<Credentials> poller = new Poller<>(loader);
+    BackoffTrigger trigger = new BackoffTrigger(poller, 1000, 5000);
+    poller.run();
+    poller.run();
+
+    assertThat(poller.getConsecutiveFailures()).isZero();
+    assertThat(trigger.delayMs()).isEqualTo(1000);
+    // The valid definitions were saved once, the invalid one is retried on each load
+    verify(repository, times(2)).save(any());
+  }
+
+  private static Timer loadTimer(Registry registry, String success) {
+    return registry.timer("credentials.poller.load", "type", "test", "success", success);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.kork.core;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket limiting the retries made against a single dependency.
+ *
+ * <p>Every request deposits {@code tokenRatio} tokens and every retry withdraws one, so while a
+ * dependency is failing the retries sent to it settle at {@code tokenRatio} times the request rate
+ * instead of multiplying it by the number of attempts. The bucket starts full, holding at most
+ * {@code maxTokens}, so occasional bursts of failures are still retried.
+ *
+ * <p>Budgets obtained from {@link #forDependency(String)} are shared by every caller in the process
+ * using the same name.
+ */
+public class RetryBudget {
+  public static final int DEFAULT_MAX_TOKENS = 100;
+  public static final double DEFAULT_TOKEN_RATIO = 0.1;
+
+  private static final long MILLI_TOKENS = 1000;
+  private static final ConcurrentMap<String, RetryBudget> BUDGETS = new ConcurrentHashMap<>();
+
+  private final String name;
+  private final long maxMilliTokens;
+  private final long depositMilliTokens;
+  private final AtomicLong milliTokens;
+
+  public RetryBudget(String name, int maxTokens, double tokenRatio) {
+    if (maxTokens < 1) {
+      throw new IllegalArgumentException("maxTokens must be positive");
+    }
+    if (tokenRatio < 0) {
+      throw new IllegalArgumentException("tokenRatio must not be negative");
+    }
+    this.name = Objects.requireNonNull(name);
+    this.maxMilliTokens = maxTokens * MILLI_TOKENS;
+    this.depositMilliTokens = Math.round(tokenRatio * MILLI_TOKENS);
+    this.milliTokens = new AtomicLong(maxMilliTokens);
+  }
+
+  /** @return the budget shared by all callers of {@code dependency}, with default limits */
+  public static RetryBudget forDependency(String dependency) {
+    return BUDGETS.computeIfAbsent(
+        dependency, name -> new RetryBudget(name, DEFAULT_MAX_TOKENS, DEFAULT_TOKEN_RATIO));
+  }
+
+  /**
+   * @return the budget shared by all callers of {@code dependency}; the limits only apply if the
+   *     budget does not exist yet
+   */
+  public static RetryBudget forDependency(String dependency, int maxTokens, double tokenRatio) {
+    return BUDGETS.computeIfAbsent(
+        dependency, name -> new RetryBudget(name, maxTokens, tokenRatio));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /** @return the number of retries currently available */
+  public double getAvailableTokens() {
+    return (double) milliTokens.get() / MILLI_TOKENS;
+  }
+
+  /** Records a new request, earning a fraction of a retry. */
+  public void deposit() {
+    milliTokens.accumulateAndGet(
+        depositMilliTokens, (current, deposit) -> Math.min(maxMilliTokens, current + deposit));
+  }
+
+  /** @return whether a retry may be made, in which case its token has been withdrawn */
+  public boolean tryWithdraw() {
+    while (true) {
+      long current = milliTokens.get();
+      if (current < MILLI_TOKENS) {
+        return false;
+      }
+      if (milliTokens.compareAndSet(current, current - MILLI_TOKENS)) {
+        return true;
+      }
+    }
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.kork.core;
+
+/**
+ * Observes the attempts made by a {@link RetrySupport}, e.g. to report them as metrics.
+ *
+ * <p>The {@code dependency} is the name of the {@link RetryBudget} in use, or {@code "none"}.
+ */
+public interface RetryListener {
+  RetryListener NOOP = new RetryListener() {};
+
+  /** Called before each attempt; {@code retry} is false for the first one. */
+  default void onAttempt(String dependency, boolean retry) {}
+
+  /**
+   * Called when a failed attempt is not retried, because the failure is not retryable ({@code
+   * notRetryable}), the attempts are used up ({@code maxRetries}) or the dependency's budget is
+   * ({@code budgetExhausted}).
+   */
+  default void onGiveUp(String dependency, String reason) {}
+}
@@ -18,9 +18,60 @@ package com.netflix.spinnaker.kork.core;
 
 import com.netflix.spinnaker.kork.exceptions.SpinnakerException;
 import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
+import javax.annotation.Nullable;
 
+/**
+ * Retries failed operations with a fixed or exponential backoff.
+ *
+ * <p>Backoffs may be randomized with {@link Jitter} so that callers failing at the same time do
+ * not retry in lockstep, and retries against a dependency may be capped with a shared {@link
+ * RetryBudget}. Attempts and give-ups are reported to an optional {@link RetryListener}.
+ */
 public class RetrySupport {
+  public enum Jitter {
+    /** Wait exactly the computed backoff. */
+    NONE,
+    /** Wait a random time between zero and the computed backoff. */
+    FULL,
+    /**
+     * Wait a random time between the base backoff and three times the previous wait, growing
+     * regardless of whether the backoff is exponential.
+     */
+    DECORRELATED
+  }
+
+  private static final String NO_DEPENDENCY = "none";
+
+  private final RetryListener listener;
+  private final Jitter jitter;
+  private final long maxBackoffMillis;
+
+  public RetrySupport() {
+    this(RetryListener.NOOP);
+  }
+
+  public RetrySupport(RetryListener listener) {
+    this(listener, Jitter.NONE, null);
+  }
+
+  /**
+   * @param jitter how to randomize backoffs
+   * @param maxBackoff the longest time to wait between attempts, or null for no limit
+   */
+  public RetrySupport(RetryListener listener, Jitter jitter, @Nullable Duration maxBackoff) {
+    this.listener = Objects.requireNonNull(listener);
+    this.jitter = Objects.requireNonNull(jitter);
+    this.maxBackoffMillis = maxBackoff == null ? Long.MAX_VALUE : maxBackoff.toMillis();
+  }
+
   /** @deprecated replaced by {@link #retry(Supplier, int, Duration, boolean)} */
   @Deprecated
   public <T> T retry(Supplier<T> fn, int maxRetries, long retryBackoffMillis, boolean exponential) {
@@ -28,32 +79,191 @@ public class RetrySupport {
   }
 
   public <T> T retry(Supplier<T> fn, int maxRetries, Duration retryBackoff, boolean exponential) {
+    return retry(fn, maxRetries, retryBackoff, exponential, null);
+  }
+
+  /**
+   * @param budget limits the retries made against the dependency, or null to always retry up to
+   *     {@code maxRetries}
+   */
+  public <T> T retry(
+      Supplier<T> fn,
+      int maxRetries,
+      Duration retryBackoff,
+      boolean exponential,
+      @Nullable RetryBudget budget) {
+    if (budget != null) {
+      budget.deposit();
+    }
+    String dependency = dependency(budget);
     int retries = 0;
+    long backoff = 0;
     while (true) {
+      recordAttempt(dependency, retries);
       try {
         return fn.get();
       } catch (Exception e) {
-        if (e instanceof SpinnakerException) {
-          Boolean retryable = ((SpinnakerException) e).getRetryable();
-          if (retryable != null && !retryable) {
-            throw e;
-          }
-        }
-        if (retries >= (maxRetries - 1)) {
+        if (!shouldRetry(e, retries, maxRetries, budget, dependency)) {
           throw e;
         }
 
-        long timeout =
-            !exponential
-                ? retryBackoff.toMillis()
-                : (long) Math.pow(2, retries) * retryBackoff.toMillis();
-        sleep(timeout);
+        backoff = nextBackoff(retries, retryBackoff, exponential, backoff);
+        sleep(backoff);
 
         retries++;
       }
     }
   }
 
+  public <T> CompletableFuture<T> retryAsync(
+      Supplier<CompletableFuture<T>> fn,
+      int maxRetries,
+      Duration retryBackoff,
+      boolean exponential) {
+    return retryAsync(fn, maxRetries, retryBackoff, exponential, null);
+  }
+
+  /**
+   * Like {@link #retry(Supplier, int, Duration, boolean, RetryBudget)}, but waits between attempts
+   * on a scheduler rather than blocking the calling thread.
+   *
+   * <p>The returned future fails with the last attempt's exception, unwrapped from any {@link
+   * CompletionException}.
+   */
+  public <T> CompletableFuture<T> retryAsync(
+      Supplier<CompletableFuture<T>> fn,
+      int maxRetries,
+      Duration retryBackoff,
+      boolean exponential,
+      @Nullable RetryBudget budget) {
+    if (budget != null) {
+      budget.deposit();
+    }
+    CompletableFuture<T> result = new CompletableFuture<>();
+    attemptAsync(fn, maxRetries, retryBackoff, exponential, budget, 0, 0, result);
+    return result;
+  }
+
+  private <T> void attemptAsync(
+      Supplier<CompletableFuture<T>> fn,
+      int maxRetries,
+      Duration retryBackoff,
+      boolean exponential,
+      RetryBudget budget,
+      int retries,
+      long previousBackoff,
+      CompletableFuture<T> result) {
+    String dependency = dependency(budget);
+    recordAttempt(dependency, retries);
+
+    CompletableFuture<T> attempt;
+    try {
+      attempt = Objects.requireNonNull(fn.get(), "retryAsync supplier returned null");
+    } catch (Exception e) {
+      attempt = CompletableFuture.failedFuture(e);
+    }
+
+    attempt.whenComplete(
+        (value, error) -> {
+          if (error == null) {
+            result.complete(value);
+            return;
+          }
+
+          Throwable cause = unwrap(error);
+          if (!(cause instanceof Exception)
+              || !shouldRetry((Exception) cause, retries, maxRetries, budget, dependency)) {
+            result.completeExceptionally(cause);
+            return;
+          }
+
+          long backoff = nextBackoff(retries, retryBackoff, exponential, previousBackoff);
+          try {
+            delayedExecutor(backoff)
+                .execute(
+                    () ->
+                        attemptAsync(
+                            fn,
+                            maxRetries,
+                            retryBackoff,
+                            exponential,
+                            budget,
+                            retries + 1,
+                            backoff,
+                            result));
+          } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+          }
+        });
+  }
+
+  private boolean shouldRetry(
+      Exception e, int retries, int maxRetries, RetryBudget budget, String dependency) {
+    if (e instanceof SpinnakerException) {
+      Boolean retryable = ((SpinnakerException) e).getRetryable();
+      if (retryable != null && !retryable) {
+        recordGiveUp(dependency, "notRetryable");
+        return false;
+      }
+    }
+    if (retries >= (maxRetries - 1)) {
+      recordGiveUp(dependency, "maxRetries");
+      return false;
+    }
+    if (budget != null && !budget.tryWithdraw()) {
+      recordGiveUp(dependency, "budgetExhausted");
+      return false;
+    }
+    return true;
+  }
+
+  private long nextBackoff(
+      int retries, Duration retryBackoff, boolean exponential, long previousBackoff) {
+    long base = retryBackoff.toMillis();
+    switch (jitter) {
+      case FULL:
+        return randomBetween(0, computedBackoff(retries, base, exponential));
+      case DECORRELATED:
+        long previous = Math.max(base, previousBackoff);
+        long upper = previous > Long.MAX_VALUE / 3 ? Long.MAX_VALUE : previous * 3;
+        return Math.min(maxBackoffMillis, randomBetween(base, upper));
+      default:
+        return computedBackoff(retries, base, exponential);
+    }
+  }
+
+  private long computedBackoff(int retries, long base, boolean exponential) {
+    long backoff = !exponential ? base : (long) Math.pow(2, retries) * base;
+    return Math.min(maxBackoffMillis, backoff);
+  }
+
+  private static long randomBetween(long lower, long upper) {
+    if (upper <= lower) {
+      return lower;
+    }
+    return ThreadLocalRandom.current().nextLong(lower, upper == Long.MAX_VALUE ? upper : upper + 1);
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    while ((error instanceof CompletionException || error instanceof ExecutionException)
+        && error.getCause() != null) {
+      error = error.getCause();
+    }
+    return error;
+  }
+
+  private static String dependency(RetryBudget budget) {
+    return budget == null ? NO_DEPENDENCY : budget.getName();
+  }
+
+  private void recordAttempt(String dependency, int retries) {
+    listener.onAttempt(dependency, retries > 0);
+  }
+
+  private void recordGiveUp(String dependency, String reason) {
+    listener.onGiveUp(dependency, reason);
+  }
+
   /** Overridable by test cases to avoid Thread.sleep() */
   void sleep(long millis) {
     try {
@@ -61,4 +271,9 @@ public class RetrySupport {
     } catch (InterruptedException ignored) {
     }
   }
+
+  /** Overridable by test cases to avoid waiting between asynchronous attempts */
+  Executor delayedExecutor(long millis) {
+    return CompletableFuture.delayedExecutor(millis, TimeUnit.MILLISECONDS);
+  }
 }
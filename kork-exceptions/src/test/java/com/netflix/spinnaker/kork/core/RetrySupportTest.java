@@ -17,15 +17,27 @@
 package com.netflix.spinnaker.kork.core;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
 
 public class RetrySupportTest {
 
@@ -94,4 +106,166 @@ public class RetrySupportTest {
     // then
     assertEquals(attemptCounter, expectedAttempts);
   }
+
+  @Test
+  void testFullJitterStaysWithinExponentialBackoff() {
+    // given
+    RetrySupport jittered =
+        spy(new RetrySupport(RetryListener.NOOP, RetrySupport.Jitter.FULL, null));
+    doNothing().when(jittered).sleep(anyLong());
+
+    // when
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            jittered.retry(
+                () -> {
+                  throw new IllegalStateException("always fails");
+                },
+                5,
+                Duration.ofMillis(100),
+                true));
+
+    // then
+    ArgumentCaptor<Long> sleeps = ArgumentCaptor.forClass(Long.class);
+    verify(jittered, atLeastOnce()).sleep(sleeps.capture());
+    List<Long> values = sleeps.getAllValues();
+    assertEquals(4, values.size());
+    for (int i = 0; i < values.size(); i++) {
+      assertTrue(values.get(i) >= 0 && values.get(i) <= (100L << i), "sleep " + values.get(i));
+    }
+  }
+
+  @Test
+  void testDecorrelatedJitterIsCapped() {
+    // given
+    RetrySupport jittered =
+        spy(
+            new RetrySupport(
+                RetryListener.NOOP, RetrySupport.Jitter.DECORRELATED, Duration.ofMillis(250)));
+    doNothing().when(jittered).sleep(anyLong());
+
+    // when
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            jittered.retry(
+                () -> {
+                  throw new IllegalStateException("always fails");
+                },
+                10,
+                Duration.ofMillis(100),
+                false));
+
+    // then
+    ArgumentCaptor<Long> sleeps = ArgumentCaptor.forClass(Long.class);
+    verify(jittered, atLeastOnce()).sleep(sleeps.capture());
+    sleeps
+        .getAllValues()
+        .forEach(sleep -> assertTrue(sleep >= 100 && sleep <= 250, "sleep " + sleep));
+  }
+
+  @Test
+  void testRetryBudgetLimitsRetries() {
+    // given
+    RecordingListener listener = new RecordingListener();
+    RetrySupport budgeted = spy(new RetrySupport(listener));
+    doNothing().when(budgeted).sleep(anyLong());
+    RetryBudget budget = new RetryBudget("dependency", 2, 0);
+
+    Supplier<Object> fn =
+        () -> {
+          attemptCounter++;
+          throw new IllegalStateException("always fails");
+        };
+
+    // when
+    assertThrows(
+        IllegalStateException.class,
+        () -> budgeted.retry(fn, 10, Duration.ofMillis(10), false, budget));
+    assertThrows(
+        IllegalStateException.class,
+        () -> budgeted.retry(fn, 10, Duration.ofMillis(10), false, budget));
+
+    // then
+    assertEquals(4, attemptCounter);
+    assertEquals(
+        List.of("dependency:budgetExhausted", "dependency:budgetExhausted"), listener.giveUps);
+  }
+
+  @Test
+  void testRetryBudgetIsReplenishedByRequests() {
+    // given
+    RetryBudget budget = new RetryBudget("dependency", 1, 0.5);
+
+    // when
+    boolean first = budget.tryWithdraw();
+    boolean exhausted = budget.tryWithdraw();
+    budget.deposit();
+    budget.deposit();
+
+    // then
+    assertTrue(first);
+    assertEquals(false, exhausted);
+    assertTrue(budget.tryWithdraw());
+  }
+
+  @Test
+  void testRetryAsyncSucceedsWithoutBlocking() throws Exception {
+    // given
+    RecordingListener listener = new RecordingListener();
+    RetrySupport async = spy(new RetrySupport(listener));
+    doReturn((Executor) Runnable::run).when(async).delayedExecutor(anyLong());
+
+    Supplier<CompletableFuture<String>> fn =
+        () -> {
+          if (attemptCounter++ < 2) {
+            return CompletableFuture.failedFuture(new IllegalStateException("not yet"));
+          }
+          return CompletableFuture.completedFuture("done");
+        };
+
+    // when
+    String result = async.retryAsync(fn, 5, Duration.ofSeconds(10), true).get();
+
+    // then
+    assertEquals("done", result);
+    assertEquals(3, attemptCounter);
+    assertEquals(List.of("none:false", "none:true", "none:true"), listener.attempts);
+  }
+
+  @Test
+  void testRetryAsyncGivesUpAfterMaxRetries() {
+    // given
+    Supplier<CompletableFuture<String>> fn =
+        () -> {
+          attemptCounter++;
+          throw new IllegalStateException("always fails");
+        };
+
+    // when
+    ExecutionException e =
+        assertThrows(
+            ExecutionException.class,
+            () -> new RetrySupport().retryAsync(fn, 3, Duration.ofMillis(1), false).get());
+
+    // then
+    assertEquals(3, attemptCounter);
+    assertTrue(e.getCause() instanceof IllegalStateException);
+  }
+
+  private static class RecordingListener implements RetryListener {
+    private final List<String> attempts = new ArrayList<>();
+    private final List<String> giveUps = new ArrayList<>();
+
+    @Override
+    public void onAttempt(String dependency, boolean retry) {
+      attempts.add(dependency + ":" + retry);
+    }
+
+    @Override
+    public void onGiveUp(String dependency, String reason) {
+      giveUps.add(dependency + ":" + reason);
+    }
+  }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.moniker.frigga;
+
+import com.netflix.frigga.Names;
+import com.netflix.spinnaker.moniker.Moniker;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link FriggaReflectiveNamer#deriveMoniker} with looking up the accessor reflectively
+ * and parsing the name on every call, as it used to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FriggaReflectiveNamerBenchmark {
+
+  public static class ServerGroup {
+    private final String name;
+
+    public ServerGroup(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+  }
+
+  public static class AwsServerGroup extends ServerGroup {
+    public AwsServerGroup(String name) {
+      super(name);
+    }
+  }
+
+  private final FriggaReflectiveNamer namer = new FriggaReflectiveNamer();
+  private final Object serverGroup = new AwsServerGroup("app-stack-detail-v001");
+
+  @Benchmark
+  public Moniker deriveMoniker() {
+    return namer.deriveMoniker(serverGroup);
+  }
+
+  @Benchmark
+  public Moniker uncachedDeriveMoniker() throws Exception {
+    String name = null;
+    for (Class<?> clazz = serverGroup.getClass(); clazz != Object.class; ) {
+      try {
+        Method getName = clazz.getDeclaredMethod("getName");
+        getName.setAccessible(true);
+        name = (String) getName.invoke(serverGroup);
+        break;
+      } catch (NoSuchMethodException e) {
+        clazz = clazz.getSuperclass();
+      }
+    }
+
+    Names names = Names.parseName(name);
+    return Moniker.builder()
+        .app(names.getApp())
+        .stack(names.getStack())
+        .detail(names.getDetail())
+        .cluster(names.getCluster())
+        .sequence(names.getSequence())
+        .build();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(FriggaReflectiveNamerBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
@@ -16,17 +16,58 @@
 
 package com.netflix.spinnaker.moniker.frigga;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.netflix.frigga.autoscaling.AutoScalingGroupNameBuilder;
 import com.netflix.spinnaker.moniker.Moniker;
 import com.netflix.spinnaker.moniker.Namer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 
 public class FriggaReflectiveNamer implements Namer<Object> {
+  private static final int MAX_CACHED_NAMES = 10_000;
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE =
+      MethodType.methodType(void.class, Object.class, String.class);
+
+  /** Name accessors per class, resolved once rather than walking the hierarchy on every call. */
+  private static final ClassValue<Accessors> ACCESSORS =
+      new ClassValue<>() {
+        @Override
+        protected Accessors computeValue(Class<?> type) {
+          return Accessors.resolve(type);
+        }
+      };
+
+  /**
+   * Parsed names. Monikers are mutable, so callers get a copy of the cached one rather than the
+   * cached instance itself.
+   */
+  private final Cache<String, Moniker> parsedNames =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_NAMES).build();
+
   @Override
   public Moniker deriveMoniker(Object obj) {
     String name = getName(obj);
+    Moniker parsed =
+        name == null ? parse(null) : parsedNames.get(name, FriggaReflectiveNamer::parse);
+    return Moniker.builder()
+        .app(parsed.getApp())
+        .stack(parsed.getStack())
+        .detail(parsed.getDetail())
+        .cluster(parsed.getCluster())
+        .sequence(parsed.getSequence())
+        .build();
+  }
+
+  private static Moniker parse(String name) {
     com.netflix.frigga.Names names = com.netflix.frigga.Names.parseName(name);
     return Moniker.builder()
         .app(names.getApp())
@@ -53,75 +94,106 @@ public class FriggaReflectiveNamer implements Namer<Object> {
   }
 
   private void setName(Object obj, String name) {
-    Class clazz = obj.getClass();
-
-    // First walk up the object hierarchy and try to find some "setName" method to call
-    while (clazz != Object.class) {
+    for (MethodHandle setter : ACCESSORS.get(obj.getClass()).setters) {
       try {
-        Method setName = clazz.getDeclaredMethod("setName", String.class);
-        setName.setAccessible(true);
-        setName.invoke(obj, name);
+        setter.invokeExact(obj, name);
         return;
-      } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ignored) {
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable ignored) {
       }
-
-      clazz = clazz.getSuperclass();
     }
 
-    clazz = obj.getClass();
+    throw new IllegalArgumentException(
+        "No way to infer how to name " + obj.getClass().getSimpleName());
+  }
+
+  private String getName(Object obj) {
+    // If the object is a String, just return it.
+    if (obj.getClass() == String.class) {
+      return (String) obj;
+    }
 
-    // Since the first attempt didn't work, retry with raw fields
-    while (clazz != Object.class) {
+    for (MethodHandle getter : ACCESSORS.get(obj.getClass()).getters) {
+      Object name;
       try {
-        Field nameField = clazz.getDeclaredField("name");
-        nameField.setAccessible(true);
-        nameField.set(obj, name);
-        return;
-      } catch (NoSuchFieldException | IllegalAccessException ignored) {
+        name = getter.invokeExact(obj);
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable ignored) {
+        continue;
       }
-
-      clazz = clazz.getSuperclass();
+      return (String) name;
     }
 
     throw new IllegalArgumentException(
         "No way to infer how to name " + obj.getClass().getSimpleName());
   }
 
-  private String getName(Object obj) {
-    Class clazz = obj.getClass();
+  /**
+   * The ways to get and set the name of a class, in order of preference: the first {@code
+   * getName}/{@code setName} method declared up the class hierarchy, then the first {@code name}
+   * field. Later accessors are only tried if earlier ones fail.
+   */
+  private static class Accessors {
+    private final List<MethodHandle> getters = new ArrayList<>();
+    private final List<MethodHandle> setters = new ArrayList<>();
+
+    private static Accessors resolve(Class<?> type) {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      Accessors accessors = new Accessors();
+
+      for (Class<?> clazz = type;
+          clazz != null && clazz != Object.class;
+          clazz = clazz.getSuperclass()) {
+        for (Method method : clazz.getDeclaredMethods()) {
+          if (method.getName().equals("getName")
+              && method.getParameterCount() == 0
+              && makeAccessible(method)) {
+            accessors.add(accessors.getters, () -> lookup.unreflect(method), GETTER_TYPE);
+          } else if (method.getName().equals("setName")
+              && method.getParameterCount() == 1
+              && method.getParameterTypes()[0] == String.class
+              && makeAccessible(method)) {
+            accessors.add(accessors.setters, () -> lookup.unreflect(method), SETTER_TYPE);
+          }
+        }
+      }
 
-    // If the object is a String, just return it.
-    if (clazz == String.class) {
-      return (String) obj;
+      for (Class<?> clazz = type;
+          clazz != null && clazz != Object.class;
+          clazz = clazz.getSuperclass()) {
+        for (Field field : clazz.getDeclaredFields()) {
+          if (field.getName().equals("name") && makeAccessible(field)) {
+            accessors.add(accessors.getters, () -> lookup.unreflectGetter(field), GETTER_TYPE);
+            accessors.add(accessors.setters, () -> lookup.unreflectSetter(field), SETTER_TYPE);
+          }
+        }
+      }
+
+      return accessors;
     }
 
-    // First walk up the object hierarchy and try to find some "getName" method to call
-    while (clazz != Object.class) {
+    private void add(List<MethodHandle> handles, HandleSupplier supplier, MethodType type) {
       try {
-        Method setName = clazz.getDeclaredMethod("getName");
-        setName.setAccessible(true);
-        return (String) setName.invoke(obj);
-      } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ignored) {
+        handles.add(supplier.get().asType(type));
+      } catch (IllegalAccessException | RuntimeException ignored) {
+        // Not usable, e.g. a getName() that does not return a String-compatible type
       }
-
-      clazz = clazz.getSuperclass();
     }
 
-    clazz = obj.getClass();
-
-    // Since the first attempt didn't work, retry with raw fields
-    while (clazz != Object.class) {
+    private static boolean makeAccessible(AccessibleObject member) {
       try {
-        Field nameField = clazz.getDeclaredField("name");
-        nameField.setAccessible(true);
-        return (String) nameField.get(obj);
-      } catch (NoSuchFieldException | IllegalAccessException ignored) {
+        member.setAccessible(true);
+        return true;
+      } catch (RuntimeException e) {
+        return false;
       }
-
-      clazz = clazz.getSuperclass();
     }
+  }
 
-    throw new IllegalArgumentException(
-        "No way to infer how to name " + obj.getClass().getSimpleName());
+  @FunctionalInterface
+  private interface HandleSupplier {
+    MethodHandle get() throws IllegalAccessException;
   }
 }
@@ -100,6 +100,41 @@ class FriggaReflectiveNamerSpec extends Specification {
     "app-stack-detail-v000"                                || "app-stack-detail" | "app" | "stack" | "detail" | 0
   }
 
+  void "derived monikers are not shared between calls"() {
+    given:
+    def first = namer.deriveMoniker("app-stack-detail-v000")
+    first.stack = "changed"
+
+    when:
+    def second = namer.deriveMoniker("app-stack-detail-v000")
+
+    then:
+    second.stack == "stack"
+    !second.is(first)
+  }
+
+  void "names are read and written through setters and fields of the same class"() {
+    given:
+    def withMethods = new HasNameMethodsChild()
+    def withField = new HasNameChild()
+
+    when:
+    namer.applyMoniker(withMethods, Moniker.builder().app("app").sequence(1).build())
+    namer.applyMoniker(withField, Moniker.builder().app("other").build())
+
+    then:
+    namer.deriveMoniker(withMethods).sequence == 1
+    namer.deriveMoniker(withField).app == "other"
+  }
+
+  void "objects without a name are rejected"() {
+    when:
+    namer.deriveMoniker(new Object())
+
+    then:
+    thrown(IllegalArgumentException)
+  }
+
   private static class HasName {
     String name
   }
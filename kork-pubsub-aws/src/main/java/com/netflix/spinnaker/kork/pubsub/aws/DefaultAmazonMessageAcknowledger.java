@@ -16,15 +16,24 @@
 
 package com.netflix.spinnaker.kork.pubsub.aws;
 
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
 import com.amazonaws.services.sqs.model.Message;
 import com.amazonaws.services.sqs.model.ReceiptHandleIsInvalidException;
 import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.kork.pubsub.aws.api.AmazonMessageAcknowledger;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class DefaultAmazonMessageAcknowledger implements AmazonMessageAcknowledger {
+  /** SQS accepts at most 10 entries per batch request */
+  private static final int MAX_BATCH_SIZE = 10;
+
   private Registry registry;
 
   public DefaultAmazonMessageAcknowledger(Registry registry) {
@@ -44,6 +53,36 @@ public class DefaultAmazonMessageAcknowledger implements AmazonMessageAcknowledg
     }
   }
 
+  @Override
+  public void ackAll(AmazonSubscriptionInformation subscription, List<Message> messages) {
+    // Delete from queue, at most MAX_BATCH_SIZE messages per request
+    for (int start = 0; start < messages.size(); start += MAX_BATCH_SIZE) {
+      List<Message> batch =
+          messages.subList(start, Math.min(messages.size(), start + MAX_BATCH_SIZE));
+      List<DeleteMessageBatchRequestEntry> entries = new ArrayList<>(batch.size());
+      for (int i = 0; i < batch.size(); i++) {
+        entries.add(
+            new DeleteMessageBatchRequestEntry(
+                Integer.toString(i), batch.get(i).getReceiptHandle()));
+      }
+
+      DeleteMessageBatchResult result =
+          subscription.amazonSQS.deleteMessageBatch(
+              new DeleteMessageBatchRequest(subscription.queueUrl, entries));
+      registry.counter(getSuccessCounter(subscription)).increment(result.getSuccessful().size());
+      for (BatchResultErrorEntry failed : result.getFailed()) {
+        Message message = batch.get(Integer.parseInt(failed.getId()));
+        log.warn(
+            "Error deleting message: {}, subscription: {}, code: {}, reason: {}",
+            message.getMessageId(),
+            subscription,
+            failed.getCode(),
+            failed.getMessage());
+        registry.counter(getBatchErrorCounter(subscription, failed)).increment();
+      }
+    }
+  }
+
   @Override
   public void nack(AmazonSubscriptionInformation subscription, Message message) {
     // Do nothing
@@ -64,6 +103,16 @@ public class DefaultAmazonMessageAcknowledger implements AmazonMessageAcknowledg
         e.getClass().getSimpleName());
   }
 
+  private Id getBatchErrorCounter(
+      AmazonSubscriptionInformation subscription, BatchResultErrorEntry failed) {
+    return registry.createId(
+        "pubsub.amazon.ackFailed",
+        "subscription",
+        subscription.properties.getName(),
+        "errorCode",
+        failed.getCode());
+  }
+
   private Id getNackCounter(AmazonSubscriptionInformation subscription) {
     return registry.createId(
         "pubsub.amazon.nacked", "subscription", subscription.properties.getName());
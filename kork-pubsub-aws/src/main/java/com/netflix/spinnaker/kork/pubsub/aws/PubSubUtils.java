@@ -23,10 +23,12 @@ import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sns.model.SetTopicAttributesRequest;
 import com.amazonaws.services.sqs.AmazonSQS;
 import com.amazonaws.services.sqs.model.QueueDoesNotExistException;
+import com.netflix.spectator.api.Spectator;
 import com.netflix.spinnaker.kork.aws.ARN;
 import com.netflix.spinnaker.kork.core.RetrySupport;
 import com.netflix.spinnaker.kork.discovery.DiscoveryStatusListener;
 import com.netflix.spinnaker.kork.dynamicconfig.DynamicConfigService;
+import com.netflix.spinnaker.kork.metrics.SpectatorRetryListener;
 import com.netflix.spinnaker.kork.pubsub.aws.config.AmazonPubsubProperties.AmazonPubsubSubscription;
 import java.time.Duration;
 import java.util.Collections;
@@ -40,7 +42,9 @@ import org.slf4j.LoggerFactory;
 /** Utils for working with AWS SNS and SQS across services */
 public class PubSubUtils {
   private static final Logger log = LoggerFactory.getLogger(PubSubUtils.class);
-  private static final RetrySupport retrySupport = new RetrySupport();
+  // Static callers have no registry bean, so report retries to the global registry
+  private static final RetrySupport retrySupport =
+      new RetrySupport(new SpectatorRetryListener(Spectator.globalRegistry()));
   private static final int MAX_RETRIES = 5;
   private static final Duration RETRY_BACKOFF = Duration.ofSeconds(1);
   private static final boolean EXPONENTIAL = true;
@@ -22,6 +22,7 @@ import com.amazonaws.services.sns.model.PublishResult;
 import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.kork.aws.ARN;
+import com.netflix.spinnaker.kork.core.RetryBudget;
 import com.netflix.spinnaker.kork.core.RetrySupport;
 import com.netflix.spinnaker.kork.pubsub.aws.config.AmazonPubsubConfig;
 import com.netflix.spinnaker.kork.pubsub.aws.config.AmazonPubsubProperties;
@@ -97,7 +98,11 @@ public class SNSPublisher implements PubsubPublisher {
       PublishRequest publishRequest = new PublishRequest(topicARN.getArn(), message);
       PublishResult publishResponse =
           retrySupport.retry(
-              () -> amazonSNS.publish(publishRequest), 5, Duration.ofMillis(200), false);
+              () -> amazonSNS.publish(publishRequest),
+              5,
+              Duration.ofMillis(200),
+              false,
+              RetryBudget.forDependency("sns"));
 
       log.debug(
           "Published message {} with id {} to topic {}",
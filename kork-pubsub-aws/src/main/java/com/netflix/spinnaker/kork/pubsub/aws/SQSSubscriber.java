@@ -22,7 +22,9 @@ import com.amazonaws.services.sqs.model.Message;
 import com.amazonaws.services.sqs.model.QueueDoesNotExistException;
 import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
 import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Gauge;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.kork.annotations.VisibleForTesting;
 import com.netflix.spinnaker.kork.aws.ARN;
@@ -31,6 +33,17 @@ import com.netflix.spinnaker.kork.pubsub.aws.api.AmazonPubsubMessageHandler;
 import com.netflix.spinnaker.kork.pubsub.aws.config.AmazonPubsubConfig;
 import com.netflix.spinnaker.kork.pubsub.aws.config.AmazonPubsubProperties;
 import com.netflix.spinnaker.kork.pubsub.model.PubsubSubscriber;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,9 +51,20 @@ import org.slf4j.LoggerFactory;
 /**
  * One subscriber for each subscription. The subscriber makes sure the SQS queue is created,
  * subscribes to the SNS topic, polls the queue for messages, and removes them once processed.
+ *
+ * <p>When the subscription's concurrency is greater than 1, received messages are handed off to a
+ * pool of handler threads. The polling thread only receives as many messages as there are free
+ * handler threads and prefetch slots, and successfully handled messages are deleted in batches.
+ * When enabled, visibility timeouts of messages are extended on a separate thread, so slow deletes
+ * cannot delay them. These threads are stopped by {@link #close()}.
  */
-public class SQSSubscriber implements Runnable, PubsubSubscriber {
+public class SQSSubscriber implements Runnable, PubsubSubscriber, Closeable {
   private static final Logger log = LoggerFactory.getLogger(SQSSubscriber.class);
+  private static final int MAX_ACK_BATCH_SIZE = 10;
+  private static final long ACK_FLUSH_INTERVAL_MILLIS = 1000;
+  private static final long CAPACITY_WAIT_MILLIS = 1000;
+  private static final long DISABLED_RECHECK_MILLIS = 5000;
+  private static final long CLOSE_TIMEOUT_MILLIS = 10000;
 
   private final AmazonSNS amazonSNS;
   private final AmazonSQS amazonSQS;
@@ -54,6 +78,17 @@ public class SQSSubscriber implements Runnable, PubsubSubscriber {
   private final ARN topicARN;
   private AmazonSubscriptionInformation subscriptionInfo;
 
+  private final ExecutorService handlerExecutor;
+  private final ScheduledExecutorService ackScheduler;
+  private final ScheduledExecutorService visibilityScheduler;
+  private final Semaphore capacity;
+  private final Object ackLock = new Object();
+  private List<Message> pendingAcks = new ArrayList<>(MAX_ACK_BATCH_SIZE); // guarded by ackLock
+
+  private final Object enabledMonitor = new Object();
+  private volatile boolean closed;
+  private final Gauge enabledGauge;
+
   public SQSSubscriber(
       AmazonPubsubProperties.AmazonPubsubSubscription subscription,
       AmazonPubsubMessageHandler messageHandler,
@@ -72,6 +107,41 @@ public class SQSSubscriber implements Runnable, PubsubSubscriber {
 
     this.queueARN = new ARN(subscription.getQueueARN());
     this.topicARN = new ARN(subscription.getTopicARN());
+    this.enabledGauge =
+        registry.gauge(
+            registry.createId(
+                "pubsub.amazon.subscriber.enabled", "subscription", subscription.getName()));
+
+    if (subscription.getConcurrency() > 1) {
+      this.handlerExecutor =
+          Executors.newFixedThreadPool(
+              subscription.getConcurrency(), threadFactory("sqs-handler-%d"));
+      this.ackScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("sqs-acks-%d"));
+      this.capacity =
+          new Semaphore(
+              subscription.getConcurrency() + Math.max(0, subscription.getPrefetchSize()));
+      this.ackScheduler.scheduleWithFixedDelay(
+          this::flushAcks,
+          ACK_FLUSH_INTERVAL_MILLIS,
+          ACK_FLUSH_INTERVAL_MILLIS,
+          TimeUnit.MILLISECONDS);
+    } else {
+      this.handlerExecutor = null;
+      this.ackScheduler = null;
+      this.capacity = null;
+    }
+
+    this.visibilityScheduler =
+        subscription.isExtendVisibilityTimeout()
+            ? Executors.newSingleThreadScheduledExecutor(threadFactory("sqs-visibility-%d"))
+            : null;
+  }
+
+  private ThreadFactory threadFactory(String nameFormat) {
+    return new ThreadFactoryBuilder()
+        .setNameFormat(subscription.getName() + "-" + nameFormat)
+        .setDaemon(true)
+        .build();
   }
 
   public String getWorkerName() {
@@ -103,21 +173,58 @@ public class SQSSubscriber implements Runnable, PubsubSubscriber {
       throw e;
     }
 
-    while (true) {
+    while (!closed && !Thread.currentThread().isInterrupted()) {
       try {
+        awaitEnabled();
         listenForMessages();
       } catch (QueueDoesNotExistException e) {
         log.warn("Queue {} does not exist, recreating", queueARN, e);
         initializeQueue();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
       } catch (Exception e) {
         log.error("Unexpected error running {}, restarting worker", getWorkerName(), e);
         try {
           Thread.sleep(500);
         } catch (InterruptedException e1) {
           log.error("Thread {} interrupted while sleeping", getWorkerName(), e1);
+          Thread.currentThread().interrupt();
         }
       }
     }
+    log.info("Stopped {}", getWorkerName());
+  }
+
+  /**
+   * Blocks while the subscription is disabled. The enabled state is re-evaluated whenever {@link
+   * #wakeUp()} is called (e.g., on discovery status changes) and at least every {@link
+   * #DISABLED_RECHECK_MILLIS} to pick up dynamic configuration changes.
+   */
+  private void awaitEnabled() throws InterruptedException {
+    if (isEnabled.get()) {
+      enabledGauge.set(1);
+      return;
+    }
+
+    enabledGauge.set(0);
+    log.info("{} is disabled, pausing", getWorkerName());
+    synchronized (enabledMonitor) {
+      while (!closed && !isEnabled.get()) {
+        enabledMonitor.wait(DISABLED_RECHECK_MILLIS);
+      }
+    }
+    if (closed) {
+      return;
+    }
+    enabledGauge.set(1);
+    log.info("{} is enabled, resuming", getWorkerName());
+  }
+
+  /** Makes a paused subscriber re-evaluate whether it is enabled. */
+  public void wakeUp() {
+    synchronized (enabledMonitor) {
+      enabledMonitor.notifyAll();
+    }
   }
 
   @VisibleForTesting
@@ -138,40 +245,238 @@ public class SQSSubscriber implements Runnable, PubsubSubscriber {
 
   @VisibleForTesting
   void listenForMessages() {
-    while (isEnabled.get()) {
+    if (handlerExecutor != null) {
+      listenForMessagesConcurrently();
+      return;
+    }
+
+    while (!closed && isEnabled.get() && !Thread.currentThread().isInterrupted()) {
       ReceiveMessageResult receiveMessageResult =
-          amazonSQS.receiveMessage(
-              new ReceiveMessageRequest(this.subscriptionInfo.queueUrl)
-                  .withMaxNumberOfMessages(subscription.getMaxNumberOfMessages())
-                  .withVisibilityTimeout(subscription.getVisibilityTimeout())
-                  .withWaitTimeSeconds(subscription.getWaitTimeSeconds())
-                  .withMessageAttributeNames("All"));
+          receiveMessages(subscription.getMaxNumberOfMessages());
 
       if (receiveMessageResult.getMessages().isEmpty()) {
         log.debug("Received no messages for queue {}", queueARN);
         continue;
       }
 
-      receiveMessageResult.getMessages().forEach(this::handleMessage);
+      // the visibility of received messages is extended while they wait to be handled, too
+      List<Message> messages = receiveMessageResult.getMessages();
+      List<ScheduledFuture<?>> visibilityExtensions = new ArrayList<>(messages.size());
+      messages.forEach(message -> visibilityExtensions.add(scheduleVisibilityExtension(message)));
+      for (int i = 0; i < messages.size(); i++) {
+        try {
+          handleMessage(messages.get(i));
+        } finally {
+          cancel(visibilityExtensions.get(i));
+        }
+      }
+    }
+  }
+
+  private void listenForMessagesConcurrently() {
+    while (!closed && isEnabled.get() && !Thread.currentThread().isInterrupted()) {
+      int permits = acquireCapacity();
+      if (permits == 0) {
+        log.debug("All handlers busy for queue {}", queueARN);
+        continue;
+      }
+
+      List<Message> messages;
+      try {
+        messages = receiveMessages(permits).getMessages();
+      } catch (RuntimeException e) {
+        capacity.release(permits);
+        throw e;
+      }
+      capacity.release(permits - messages.size());
+
+      if (messages.isEmpty()) {
+        log.debug("Received no messages for queue {}", queueARN);
+        continue;
+      }
+
+      for (Message message : messages) {
+        // the visibility of prefetched messages is extended while they wait for a handler, too
+        ScheduledFuture<?> visibilityExtension = scheduleVisibilityExtension(message);
+        Runnable handle =
+            () -> {
+              try {
+                if (process(message)) {
+                  acknowledge(message);
+                }
+              } finally {
+                cancel(visibilityExtension);
+                capacity.release();
+              }
+            };
+        try {
+          handlerExecutor.execute(handle);
+        } catch (RejectedExecutionException e) {
+          cancel(visibilityExtension);
+          capacity.release();
+          throw e;
+        }
+      }
+    }
+    flushAcks();
+  }
+
+  /**
+   * Waits for at least one free handler or prefetch slot and reserves as many as can be filled by a
+   * single receive call. Returns 0 when no capacity became available in time.
+   */
+  private int acquireCapacity() {
+    try {
+      if (!capacity.tryAcquire(CAPACITY_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+        return 0;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return 0;
+    }
+
+    int permits = 1;
+    while (permits < subscription.getMaxNumberOfMessages() && capacity.tryAcquire()) {
+      permits++;
+    }
+    return permits;
+  }
+
+  private ReceiveMessageResult receiveMessages(int maxNumberOfMessages) {
+    return amazonSQS.receiveMessage(
+        new ReceiveMessageRequest(this.subscriptionInfo.queueUrl)
+            .withMaxNumberOfMessages(maxNumberOfMessages)
+            .withVisibilityTimeout(subscription.getVisibilityTimeout())
+            .withWaitTimeSeconds(subscription.getWaitTimeSeconds())
+            .withMessageAttributeNames("All"));
+  }
+
+  /**
+   * Periodically extends the visibility timeout of a message until it has been handled so that it
+   * is not redelivered to another consumer, when enabled for the subscription.
+   */
+  private ScheduledFuture<?> scheduleVisibilityExtension(Message message) {
+    if (visibilityScheduler == null) {
+      return null;
+    }
+    long period = Math.max(1, subscription.getVisibilityTimeout() / 2);
+    return visibilityScheduler.scheduleAtFixedRate(
+        () -> {
+          try {
+            amazonSQS.changeMessageVisibility(
+                subscriptionInfo.queueUrl,
+                message.getReceiptHandle(),
+                subscription.getVisibilityTimeout());
+            registry
+                .counter("pubsub.amazon.visibilityExtended", "subscription", getSubscriptionName())
+                .increment();
+          } catch (RuntimeException e) {
+            log.warn("Failed to extend visibility timeout of message {}", message, e);
+          }
+        },
+        period,
+        period,
+        TimeUnit.SECONDS);
+  }
+
+  private static void cancel(ScheduledFuture<?> visibilityExtension) {
+    if (visibilityExtension != null) {
+      visibilityExtension.cancel(false);
+    }
+  }
+
+  /** Queues a successfully handled message for deletion, sending a batch once one is full. */
+  private void acknowledge(Message message) {
+    List<Message> batch = null;
+    synchronized (ackLock) {
+      pendingAcks.add(message);
+      if (pendingAcks.size() >= MAX_ACK_BATCH_SIZE) {
+        batch = takePendingAcks();
+      }
+    }
+    if (batch != null) {
+      sendAcks(batch);
+    }
+  }
+
+  /** Deletes all successfully handled messages in batches. */
+  private void flushAcks() {
+    List<Message> acks;
+    synchronized (ackLock) {
+      acks = takePendingAcks();
+    }
+    sendAcks(acks);
+  }
+
+  private List<Message> takePendingAcks() {
+    List<Message> acks = pendingAcks;
+    pendingAcks = new ArrayList<>(MAX_ACK_BATCH_SIZE);
+    return acks;
+  }
+
+  private void sendAcks(List<Message> acks) {
+    for (int from = 0; from < acks.size(); from += MAX_ACK_BATCH_SIZE) {
+      List<Message> batch = acks.subList(from, Math.min(from + MAX_ACK_BATCH_SIZE, acks.size()));
+      try {
+        messageAcknowledger.ackAll(subscriptionInfo, batch);
+      } catch (RuntimeException e) {
+        log.error("Failed to acknowledge {} messages for {}", batch.size(), getWorkerName(), e);
+      }
     }
   }
 
   private void handleMessage(Message message) {
-    Exception caught = null;
+    if (process(message)) {
+      messageAcknowledger.ack(subscriptionInfo, message);
+    }
+  }
+
+  /**
+   * Hands a message to the message handler, returning whether it was handled successfully. Failed
+   * messages are nacked.
+   */
+  private boolean process(Message message) {
     try {
       messageHandler.handleMessage(message);
       getSuccessCounter().increment();
+      return true;
     } catch (Exception e) {
       log.error("failed to process message {}", message, e);
       getErrorCounter(e).increment();
-      caught = e;
+      messageAcknowledger.nack(subscriptionInfo, message);
+      return false;
     }
+  }
 
-    if (caught == null) {
-      messageAcknowledger.ack(subscriptionInfo, message);
-    } else {
-      messageAcknowledger.nack(subscriptionInfo, message);
+  /**
+   * Stops polling and the handler threads, waiting up to {@link #CLOSE_TIMEOUT_MILLIS} for messages
+   * being handled, and deletes the messages handled so far.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    wakeUp();
+    if (handlerExecutor == null) {
+      if (visibilityScheduler != null) {
+        visibilityScheduler.shutdownNow();
+      }
+      return;
+    }
+    handlerExecutor.shutdown();
+    try {
+      if (!handlerExecutor.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        log.warn("Timed out waiting for message handlers of {} to finish", getWorkerName());
+        handlerExecutor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      handlerExecutor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+    ackScheduler.shutdownNow();
+    if (visibilityScheduler != null) {
+      visibilityScheduler.shutdownNow();
     }
+    flushAcks();
   }
 
   private Counter getSuccessCounter() {
@@ -24,6 +24,7 @@ import com.google.common.base.Preconditions;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.kork.aws.ARN;
 import com.netflix.spinnaker.kork.discovery.DiscoveryStatusListener;
+import com.netflix.spinnaker.kork.discovery.RemoteStatusChangedEvent;
 import com.netflix.spinnaker.kork.dynamicconfig.DynamicConfigService;
 import com.netflix.spinnaker.kork.pubsub.PubsubSubscribers;
 import com.netflix.spinnaker.kork.pubsub.aws.api.AmazonMessageAcknowledger;
@@ -36,10 +37,12 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 /** Starts the individual SQS workers (one for each subscription) */
@@ -56,6 +59,8 @@ public class SQSSubscriberProvider {
   private final DiscoveryStatusListener discoveryStatus;
   private final DynamicConfigService dynamicConfig;
   private final AmazonMessageAcknowledger messageAcknowledger;
+  private final List<SQSSubscriber> workers = new ArrayList<>();
+  private ExecutorService executorService;
 
   @Autowired
   public SQSSubscriberProvider(
@@ -82,8 +87,7 @@ public class SQSSubscriberProvider {
     Preconditions.checkNotNull(
         properties, "Can't initialize SQSSubscriberProvider with null properties");
 
-    ExecutorService executorService =
-        Executors.newFixedThreadPool(properties.getSubscriptions().size());
+    executorService = Executors.newFixedThreadPool(properties.getSubscriptions().size());
 
     List<PubsubSubscriber> subscribers = new ArrayList<>();
 
@@ -115,6 +119,7 @@ public class SQSSubscriberProvider {
               try {
                 executorService.submit(worker);
                 subscribers.add(worker);
+                workers.add(worker);
                 log.debug(
                     "Created worker {} for subscription: {}",
                     worker.getWorkerName(),
@@ -126,4 +131,19 @@ public class SQSSubscriberProvider {
 
     pubsubSubscribers.putAll(subscribers);
   }
+
+  /** Stops the workers and their message handler threads. */
+  @PreDestroy
+  public void stop() {
+    workers.forEach(SQSSubscriber::close);
+    if (executorService != null) {
+      executorService.shutdownNow();
+    }
+  }
+
+  /** Resumes paused workers as soon as the instance's discovery status changes. */
+  @EventListener
+  public void onRemoteStatusChanged(RemoteStatusChangedEvent event) {
+    workers.forEach(SQSSubscriber::wakeUp);
+  }
 }
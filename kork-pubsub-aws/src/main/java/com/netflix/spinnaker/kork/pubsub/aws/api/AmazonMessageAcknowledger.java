@@ -19,6 +19,13 @@ package com.netflix.spinnaker.kork.pubsub.aws.api;
 import com.amazonaws.services.sqs.model.Message;
 import com.netflix.spinnaker.kork.pubsub.aws.AmazonSubscriptionInformation;
 import com.netflix.spinnaker.kork.pubsub.model.MessageAcknowledger;
+import java.util.List;
 
 public interface AmazonMessageAcknowledger
-    extends MessageAcknowledger<AmazonSubscriptionInformation, Message> {}
+    extends MessageAcknowledger<AmazonSubscriptionInformation, Message> {
+
+  /** acknowledges that several messages have been successfully processed */
+  default void ackAll(AmazonSubscriptionInformation subscription, List<Message> messages) {
+    messages.forEach(message -> ack(subscription, message));
+  }
+}
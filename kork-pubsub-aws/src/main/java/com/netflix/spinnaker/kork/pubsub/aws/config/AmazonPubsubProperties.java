@@ -42,5 +42,17 @@ public class AmazonPubsubProperties {
     int sqsMessageRetentionPeriodSeconds = 120;
     int waitTimeSeconds = 5;
     int maxNumberOfMessages = 1;
+
+    /** Number of threads handling messages, 1 handles messages on the polling thread itself */
+    int concurrency = 1;
+
+    /** Number of received messages that may wait for a handler thread when concurrency > 1 */
+    int prefetchSize = 10;
+
+    /**
+     * Whether to keep extending the visibility timeout of received messages until they have been
+     * handled, for any concurrency
+     */
+    boolean extendVisibilityTimeout = false;
   }
 }
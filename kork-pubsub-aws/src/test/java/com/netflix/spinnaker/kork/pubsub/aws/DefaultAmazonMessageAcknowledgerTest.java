@@ -0,0 +1,84 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.kork.pubsub.aws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResultEntry;
+import com.amazonaws.services.sqs.model.Message;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.kork.pubsub.aws.config.AmazonPubsubProperties;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DefaultAmazonMessageAcknowledgerTest {
+
+  @Test
+  @DisplayName("ackAll deletes messages in batches of at most 10")
+  void testAckAllDeletesInBatches() {
+    // given
+    Registry registry = new DefaultRegistry();
+    AmazonSQS amazonSQS = mock(AmazonSQS.class);
+    doReturn(
+            new DeleteMessageBatchResult()
+                .withSuccessful(new DeleteMessageBatchResultEntry().withId("0"))
+                .withFailed(new BatchResultErrorEntry().withId("1").withCode("Invalid")))
+        .when(amazonSQS)
+        .deleteMessageBatch(any(DeleteMessageBatchRequest.class));
+    AmazonPubsubProperties.AmazonPubsubSubscription properties =
+        new AmazonPubsubProperties.AmazonPubsubSubscription();
+    properties.setName("name");
+    AmazonSubscriptionInformation subscription =
+        AmazonSubscriptionInformation.builder()
+            .amazonSQS(amazonSQS)
+            .properties(properties)
+            .queueUrl("https://queueUrl")
+            .build();
+    List<Message> messages =
+        IntStream.range(0, 15)
+            .mapToObj(i -> new Message().withMessageId("id-" + i).withReceiptHandle("handle-" + i))
+            .collect(Collectors.toList());
+
+    // when
+    new DefaultAmazonMessageAcknowledger(registry).ackAll(subscription, messages);
+
+    // then
+    verify(amazonSQS, times(2)).deleteMessageBatch(any(DeleteMessageBatchRequest.class));
+    verify(amazonSQS, never()).deleteMessage(anyString(), anyString());
+    assertEquals(2, registry.counter("pubsub.amazon.acked", "subscription", "name").count());
+    assertEquals(
+        2,
+        registry
+            .counter("pubsub.amazon.ackFailed", "subscription", "name", "errorCode", "Invalid")
+            .count());
+  }
+}
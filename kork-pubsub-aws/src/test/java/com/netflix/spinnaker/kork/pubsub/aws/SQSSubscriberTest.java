@@ -16,13 +16,18 @@
 
 package com.netflix.spinnaker.kork.pubsub.aws;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -38,6 +43,8 @@ import com.netflix.spinnaker.kork.pubsub.aws.api.AmazonMessageAcknowledger;
 import com.netflix.spinnaker.kork.pubsub.aws.api.AmazonPubsubMessageHandler;
 import com.netflix.spinnaker.kork.pubsub.aws.config.AmazonPubsubProperties;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -121,6 +128,148 @@ public class SQSSubscriberTest {
     verify(amazonSQS, never()).receiveMessage(any(ReceiveMessageRequest.class));
   }
 
+  @Test
+  @DisplayName("concurrent handlers acknowledge messages in batches")
+  void testConcurrentHandlersAckInBatches() {
+    // given
+    messageAcknowledger = mock(AmazonMessageAcknowledger.class);
+    AmazonPubsubMessageHandler handler = mock(AmazonPubsubMessageHandler.class);
+    AmazonPubsubProperties.AmazonPubsubSubscription subscription = subscription();
+    subscription.setConcurrency(2);
+    subscription.setMaxNumberOfMessages(10);
+    subscriber =
+        new SQSSubscriber(
+            subscription,
+            handler,
+            messageAcknowledger,
+            amazonSNS(),
+            amazonSQS(),
+            enableOnce(),
+            new DefaultRegistry());
+
+    // when
+    subscriber.initializeQueue();
+    subscriber.listenForMessages();
+
+    // then
+    verify(handler, timeout(5000)).handleMessage(any());
+    verify(messageAcknowledger, timeout(5000)).ackAll(any(), any());
+    verify(messageAcknowledger, never()).ack(any(), any());
+    verify(messageAcknowledger, never()).nack(any(), any());
+  }
+
+  @Test
+  @DisplayName("closing waits for concurrent handlers and acknowledges their messages")
+  void testCloseAcksHandledMessages() {
+    // given
+    messageAcknowledger = mock(AmazonMessageAcknowledger.class);
+    AmazonPubsubMessageHandler handler = mock(AmazonPubsubMessageHandler.class);
+    AmazonPubsubProperties.AmazonPubsubSubscription subscription = subscription();
+    subscription.setConcurrency(2);
+    subscriber =
+        new SQSSubscriber(
+            subscription,
+            handler,
+            messageAcknowledger,
+            amazonSNS(),
+            amazonSQS(),
+            enableOnce(),
+            new DefaultRegistry());
+    subscriber.initializeQueue();
+    subscriber.listenForMessages();
+
+    // when
+    subscriber.close();
+
+    // then
+    verify(handler).handleMessage(any());
+    verify(messageAcknowledger).ackAll(any(), any());
+  }
+
+  @Test
+  @DisplayName("visibility timeouts are extended while handling messages sequentially")
+  void testExtendsVisibilityTimeoutWithoutConcurrency() {
+    // given
+    AmazonSQS amazonSQS = amazonSQS();
+    AmazonPubsubMessageHandler slowHandler = spy(AmazonPubsubMessageHandler.class);
+    doAnswer(
+            invocation -> {
+              Thread.sleep(1500);
+              return null;
+            })
+        .when(slowHandler)
+        .handleMessage(any());
+    AmazonPubsubProperties.AmazonPubsubSubscription subscription = subscription();
+    subscription.setVisibilityTimeout(1);
+    subscription.setExtendVisibilityTimeout(true);
+    subscriber =
+        new SQSSubscriber(
+            subscription,
+            slowHandler,
+            mock(AmazonMessageAcknowledger.class),
+            amazonSNS(),
+            amazonSQS,
+            enableOnce(),
+            new DefaultRegistry());
+
+    // when
+    subscriber.initializeQueue();
+    subscriber.listenForMessages();
+    subscriber.close();
+
+    // then
+    verify(amazonSQS, atLeastOnce()).changeMessageVisibility(any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("the subscriber pauses instead of spinning while disabled")
+  void testSubscriberPausesWhileDisabled() throws InterruptedException {
+    // given
+    AmazonSQS amazonSQS = amazonSQS();
+    AtomicBoolean enabled = new AtomicBoolean(false);
+    AtomicInteger enabledChecks = new AtomicInteger();
+    Supplier<Boolean> isEnabled =
+        () -> {
+          enabledChecks.incrementAndGet();
+          return enabled.get();
+        };
+    DefaultRegistry registry = new DefaultRegistry();
+    subscriber =
+        new SQSSubscriber(
+            subscription(),
+            mock(AmazonPubsubMessageHandler.class),
+            mock(AmazonMessageAcknowledger.class),
+            amazonSNS(),
+            amazonSQS,
+            isEnabled,
+            registry);
+    Thread worker = new Thread(subscriber);
+
+    try {
+      // when
+      worker.start();
+      Thread.sleep(500);
+
+      // then
+      assertTrue(enabledChecks.get() < 5, "disabled subscriber should not busy-spin");
+      verify(amazonSQS, never()).receiveMessage(any(ReceiveMessageRequest.class));
+      assertEquals(
+          0.0, registry.gauge("pubsub.amazon.subscriber.enabled", "subscription", "name").value());
+
+      // when
+      enabled.set(true);
+      subscriber.wakeUp();
+
+      // then
+      verify(amazonSQS, timeout(1000).atLeastOnce())
+          .receiveMessage(any(ReceiveMessageRequest.class));
+    } finally {
+      enabled.set(false);
+      worker.interrupt();
+      worker.join(5000);
+    }
+  }
+
   AmazonPubsubProperties.AmazonPubsubSubscription subscription() {
     AmazonPubsubProperties.AmazonPubsubSubscription subscription =
         new AmazonPubsubProperties.AmazonPubsubSubscription();
@@ -38,11 +38,15 @@ import com.netflix.spinnaker.kork.secrets.user.UserSecretSerde;
 import com.netflix.spinnaker.kork.secrets.user.UserSecretSerdeFactory;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.NonNull;
@@ -67,7 +71,7 @@ public class SecretsManagerSecretEngine implements SecretEngine {
 
   private static final String IDENTIFIER = "secrets-manager";
 
-  private final Map<String, Map<String, String>> cache = new HashMap<>();
+  private final Map<String, Map<String, String>> cache = new ConcurrentHashMap<>();
   private final ObjectMapper mapper;
   private final UserSecretSerdeFactory userSecretSerdeFactory;
   private final SecretsManagerClientProvider clientProvider;
@@ -88,15 +92,49 @@ public class SecretsManagerSecretEngine implements SecretEngine {
 
   @Override
   public byte[] decrypt(EncryptedSecret encryptedSecret) {
+    return decrypt(encryptedSecret, () -> getSecretValue(encryptedSecret.getParams()));
+  }
+
+  /**
+   * Decrypts the given secrets, fetching each referenced secret only once regardless of how many of
+   * its keys are requested.
+   */
+  @Override
+  public Map<EncryptedSecret, byte[]> decryptAll(Collection<EncryptedSecret> encryptedSecrets) {
+    Map<EncryptedSecret, byte[]> decrypted = new LinkedHashMap<>();
+    Map<List<String>, List<EncryptedSecret>> secretsByName =
+        encryptedSecrets.stream()
+            .collect(
+                Collectors.groupingBy(
+                    secret ->
+                        List.of(
+                            secret.getParams().get(SECRET_NAME),
+                            secret.getParams().get(SECRET_REGION))));
+    for (List<EncryptedSecret> secrets : secretsByName.values()) {
+      Map<String, String> parameters = secrets.get(0).getParams();
+      AtomicReference<GetSecretValueResult> secretValue = new AtomicReference<>();
+      Supplier<GetSecretValueResult> secretValueSupplier =
+          () ->
+              secretValue.updateAndGet(
+                  value -> value != null ? value : getSecretValue(parameters));
+      for (EncryptedSecret secret : secrets) {
+        decrypted.put(secret, decrypt(secret, secretValueSupplier));
+      }
+    }
+    return decrypted;
+  }
+
+  private byte[] decrypt(
+      EncryptedSecret encryptedSecret, Supplier<GetSecretValueResult> secretValueSupplier) {
     if (encryptedSecret.isEncryptedFile()) {
-      GetSecretValueResult secretFileValue = getSecretValue(encryptedSecret.getParams());
+      GetSecretValueResult secretFileValue = secretValueSupplier.get();
       if (secretFileValue.getSecretBinary() != null) {
         return toByteArray(secretFileValue.getSecretBinary());
       } else {
         return secretFileValue.getSecretString().getBytes(StandardCharsets.UTF_8);
       }
     } else {
-      return getSecretString(encryptedSecret.getParams());
+      return getSecretString(encryptedSecret.getParams(), secretValueSupplier);
     }
   }
 
@@ -200,10 +238,11 @@ public class SecretsManagerSecretEngine implements SecretEngine {
     }
   }
 
-  private byte[] getSecretString(Map<String, String> parameters) {
+  private byte[] getSecretString(
+      Map<String, String> parameters, Supplier<GetSecretValueResult> secretValueSupplier) {
     String secretKey = parameters.get(SECRET_KEY);
     if (secretKey == null) {
-      return getSecretValue(parameters).getSecretString().getBytes(StandardCharsets.UTF_8);
+      return secretValueSupplier.get().getSecretString().getBytes(StandardCharsets.UTF_8);
     }
     return Optional.ofNullable(
             cache
@@ -213,7 +252,7 @@ public class SecretsManagerSecretEngine implements SecretEngine {
                       try {
                         return mapper
                             .readerForMapOf(String.class)
-                            .readValue(getSecretValue(parameters).getSecretString());
+                            .readValue(secretValueSupplier.get().getSecretString());
                       } catch (JsonProcessingException | IllegalArgumentException e) {
                         throw new SecretException(
                             String.format(
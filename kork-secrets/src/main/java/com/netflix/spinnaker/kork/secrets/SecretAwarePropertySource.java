@@ -17,31 +17,76 @@
 package com.netflix.spinnaker.kork.secrets;
 
 import com.netflix.spinnaker.kork.annotations.NonnullByDefault;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
 import org.springframework.core.env.EnumerablePropertySource;
 
 /**
  * Wraps an enumerable property source with support for decrypting {@link EncryptedSecret} URIs
- * found in property values.
+ * found in property values. Decrypted values are cached per property name for the configured
+ * time-to-live and are decrypted again whenever the underlying property value changes.
  *
  * @param <T> underlying source of properties being wrapped
  */
 @NonnullByDefault
 public class SecretAwarePropertySource<T> extends EnumerablePropertySource<T> {
+  /** Default amount of time a decrypted property value is reused before decrypting it again. */
+  public static final Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(10);
+
   private final EnumerablePropertySource<T> delegate;
   private final SecretPropertyProcessor secretPropertyProcessor;
+  private final long cacheTtlNanos;
+  private final Map<String, DecryptedProperty> decryptedProperties = new ConcurrentHashMap<>();
 
   SecretAwarePropertySource(
       EnumerablePropertySource<T> source, SecretPropertyProcessor secretPropertyProcessor) {
+    this(source, secretPropertyProcessor, DEFAULT_CACHE_TTL);
+  }
+
+  /**
+   * Creates a secret-aware wrapper around the given source.
+   *
+   * @param cacheTtl how long to reuse decrypted values; zero or negative disables caching
+   */
+  SecretAwarePropertySource(
+      EnumerablePropertySource<T> source,
+      SecretPropertyProcessor secretPropertyProcessor,
+      Duration cacheTtl) {
     super(source.getName(), source.getSource());
     this.delegate = source;
     this.secretPropertyProcessor = secretPropertyProcessor;
+    this.cacheTtlNanos = cacheTtl.toNanos();
   }
 
   @Override
   @Nullable
   public Object getProperty(String name) {
-    return secretPropertyProcessor.processPropertyValue(name, delegate.getProperty(name));
+    Object value = delegate.getProperty(name);
+    if (cacheTtlNanos <= 0
+        || !(value instanceof String)
+        || !EncryptedSecret.isEncryptedSecret((String) value)) {
+      return secretPropertyProcessor.processPropertyValue(name, value);
+    }
+
+    long now = System.nanoTime();
+    DecryptedProperty cached = decryptedProperties.get(name);
+    if (cached != null && cached.isValidFor(value, now)) {
+      return cached.decryptedValue;
+    }
+
+    Object decryptedValue = secretPropertyProcessor.processPropertyValue(name, value);
+    decryptedProperties.put(
+        name, new DecryptedProperty(value, decryptedValue, now + cacheTtlNanos));
+    return decryptedValue;
+  }
+
+  /** Discards all cached decrypted values so that they are decrypted again on next access. */
+  public void clearCache() {
+    decryptedProperties.clear();
   }
 
   @Override
@@ -57,4 +102,15 @@ public class SecretAwarePropertySource<T> extends EnumerablePropertySource<T> {
   public EnumerablePropertySource<T> getDelegate() {
     return delegate;
   }
+
+  @RequiredArgsConstructor
+  private static class DecryptedProperty {
+    private final Object encryptedValue;
+    @Nullable private final Object decryptedValue;
+    private final long expiresAtNanos;
+
+    boolean isValidFor(Object value, long now) {
+      return now - expiresAtNanos < 0 && Objects.equals(encryptedValue, value);
+    }
+  }
 }
@@ -16,6 +16,10 @@
 
 package com.netflix.spinnaker.kork.secrets;
 
+import java.time.Duration;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -40,6 +44,15 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class SecretAwarePropertySourceRegistrar
     implements EnvironmentAware, BeanFactoryAware, InitializingBean, Ordered, BeanPostProcessor {
+  /** Property controlling how long decrypted property values are cached by each property source. */
+  public static final String CACHE_TTL_PROPERTY = "secrets.property-cache.ttl";
+
+  /** Property controlling whether encrypted property values are fetched eagerly at startup. */
+  public static final String PREFETCH_ENABLED_PROPERTY = "secrets.prefetch.enabled";
+
+  /** Property controlling how many secret files or secrets are prefetched concurrently. */
+  public static final String PREFETCH_PARALLELISM_PROPERTY = "secrets.prefetch.parallelism";
+
   private ConfigurableEnvironment environment;
   @Setter private BeanFactory beanFactory;
 
@@ -52,13 +65,37 @@ public class SecretAwarePropertySourceRegistrar
   public void afterPropertiesSet() throws Exception {
     MutablePropertySources propertySources = environment.getPropertySources();
     SecretPropertyProcessor processor = beanFactory.getBean(SecretPropertyProcessor.class);
+    Duration cacheTtl =
+        environment.getProperty(
+            CACHE_TTL_PROPERTY, Duration.class, SecretAwarePropertySource.DEFAULT_CACHE_TTL);
     propertySources.stream()
         .filter(EnumerablePropertySource.class::isInstance)
         .map(source -> (EnumerablePropertySource<?>) source)
         .forEach(
             source ->
                 propertySources.replace(
-                    source.getName(), new SecretAwarePropertySource<>(source, processor)));
+                    source.getName(),
+                    new SecretAwarePropertySource<>(source, processor, cacheTtl)));
+
+    SecretManager secretManager = beanFactory.getBeanProvider(SecretManager.class).getIfAvailable();
+    if (secretManager != null
+        && environment.getProperty(PREFETCH_ENABLED_PROPERTY, Boolean.class, true)) {
+      secretManager.prefetch(
+          findEncryptedValues(propertySources),
+          environment.getProperty(PREFETCH_PARALLELISM_PROPERTY, Integer.class, 8));
+    }
+  }
+
+  /** Scans the wrapped property sources for values containing {@link EncryptedSecret} URIs. */
+  private static Set<String> findEncryptedValues(MutablePropertySources propertySources) {
+    return propertySources.stream()
+        .filter(SecretAwarePropertySource.class::isInstance)
+        .map(source -> ((SecretAwarePropertySource<?>) source).getDelegate())
+        .flatMap(source -> Stream.of(source.getPropertyNames()).map(source::getProperty))
+        .filter(String.class::isInstance)
+        .map(String.class::cast)
+        .filter(EncryptedSecret::isEncryptedSecret)
+        .collect(Collectors.toSet());
   }
 
   @Override
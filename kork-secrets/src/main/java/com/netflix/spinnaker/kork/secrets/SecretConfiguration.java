@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
@@ -36,6 +37,7 @@ import org.springframework.core.io.ResourceLoader;
 
 @Configuration
 @ComponentScan
+@EnableConfigurationProperties(SecretEngineCacheProperties.class)
 public class SecretConfiguration {
 
   @Bean
@@ -18,6 +18,9 @@ package com.netflix.spinnaker.kork.secrets;
 
 import com.netflix.spinnaker.kork.secrets.user.UserSecret;
 import com.netflix.spinnaker.kork.secrets.user.UserSecretReference;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.annotation.Nonnull;
 
 /**
@@ -30,6 +33,21 @@ public interface SecretEngine {
 
   byte[] decrypt(EncryptedSecret encryptedSecret);
 
+  /**
+   * Decrypts a batch of already validated encrypted secrets. Secret engines that store several
+   * secrets in the same remote object should override this to fetch each object only once.
+   *
+   * @param encryptedSecrets the secrets to decrypt
+   * @return the decrypted secrets keyed by their encrypted secret
+   */
+  default Map<EncryptedSecret, byte[]> decryptAll(Collection<EncryptedSecret> encryptedSecrets) {
+    Map<EncryptedSecret, byte[]> decrypted = new LinkedHashMap<>();
+    for (EncryptedSecret encryptedSecret : encryptedSecrets) {
+      decrypted.put(encryptedSecret, decrypt(encryptedSecret));
+    }
+    return decrypted;
+  }
+
   @Nonnull
   default UserSecret decrypt(@Nonnull UserSecretReference reference) {
     throw new UnsupportedOperationException("This operation is not supported");
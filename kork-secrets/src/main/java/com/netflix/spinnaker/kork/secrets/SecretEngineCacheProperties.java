@@ -0,0 +1,47 @@
+/*
+ * Copyright 2024 Apple Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.kork.secrets;
+
+import com.netflix.spinnaker.kork.secrets.engines.CachingSecretEngine;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Configures the {@link CachingSecretEngine} wrapped around each registered secret engine. */
+@Getter
+@Setter
+@ConfigurationProperties("secrets.cache")
+public class SecretEngineCacheProperties {
+  /** Whether decrypted secrets should be cached by the secret engine registry. */
+  private boolean enabled = true;
+
+  /** How long a decrypted secret is kept before it must be fetched again. */
+  private Duration expireAfterWrite = Duration.ofMinutes(30);
+
+  /**
+   * How long after being fetched a secret is asynchronously refreshed on its next access. Refreshes
+   * keep serving the previous value until the new one is available.
+   */
+  private Duration refreshAfterWrite = Duration.ofMinutes(10);
+
+  /** Maximum total size in bytes of decrypted secrets cached per secret engine. */
+  private long maximumWeight = 16 * 1024 * 1024;
+
+  /** Maximum number of user secrets (including their metadata) cached per secret engine. */
+  private long maximumUserSecrets = 1000;
+}
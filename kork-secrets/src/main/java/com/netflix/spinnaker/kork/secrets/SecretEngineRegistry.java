@@ -16,20 +16,46 @@
 
 package com.netflix.spinnaker.kork.secrets;
 
+import com.netflix.spectator.api.NoopRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.kork.secrets.engines.CachingSecretEngine;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
-import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+/**
+ * Provides access to the registered {@link SecretEngine} beans. When caching is enabled through
+ * {@link SecretEngineCacheProperties}, each engine is returned wrapped in a {@link
+ * CachingSecretEngine}.
+ */
 @Component
-@RequiredArgsConstructor
 public class SecretEngineRegistry {
   private final ObjectProvider<SecretEngine> secretEngines;
+  @Nullable private final SecretEngineCacheProperties cacheProperties;
+  @Nullable private final ObjectProvider<Registry> registryProvider;
+  private final Map<SecretEngine, SecretEngine> cachingEngines = new ConcurrentHashMap<>();
+
+  public SecretEngineRegistry(ObjectProvider<SecretEngine> secretEngines) {
+    this(secretEngines, null, null);
+  }
+
+  @Autowired
+  public SecretEngineRegistry(
+      ObjectProvider<SecretEngine> secretEngines,
+      @Nullable SecretEngineCacheProperties cacheProperties,
+      @Nullable ObjectProvider<Registry> registryProvider) {
+    this.secretEngines = secretEngines;
+    this.cacheProperties = cacheProperties;
+    this.registryProvider = registryProvider;
+  }
 
   public List<SecretEngine> getSecretEngineList() {
-    return secretEngines.orderedStream().collect(Collectors.toList());
+    return secretEngines.orderedStream().map(this::withCache).collect(Collectors.toList());
   }
 
   @Nullable
@@ -38,6 +64,23 @@ public class SecretEngineRegistry {
         .orderedStream()
         .filter(secretEngine -> secretEngine.identifier().equals(key))
         .findFirst()
+        .map(this::withCache)
         .orElse(null);
   }
+
+  private SecretEngine withCache(SecretEngine engine) {
+    if (cacheProperties == null
+        || !cacheProperties.isEnabled()
+        || engine instanceof CachingSecretEngine) {
+      return engine;
+    }
+    return cachingEngines.computeIfAbsent(
+        engine, delegate -> new CachingSecretEngine(delegate, cacheProperties, getRegistry()));
+  }
+
+  private Registry getRegistry() {
+    return registryProvider == null
+        ? new NoopRegistry()
+        : registryProvider.getIfAvailable(NoopRegistry::new);
+  }
 }
@@ -16,22 +16,60 @@
 
 package com.netflix.spinnaker.kork.secrets;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.spectator.api.NoopRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.kork.secrets.engines.CachingSecretEngine;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
+@Log4j2
 public class SecretManager {
+  private static final Registry NOOP_REGISTRY = new NoopRegistry();
 
   @Getter private final SecretEngineRegistry secretEngineRegistry;
 
+  /**
+   * The registry is looked up lazily as this bean is needed while property sources are being
+   * wrapped, which may happen before the registry itself can be created.
+   */
+  @Setter(onMethod_ = {@Autowired})
+  private ObjectProvider<Registry> registryProvider;
+
+  /** Decryptions currently in progress, keyed by their encrypted secret URI. */
+  private final Map<String, CompletableFuture<byte[]>> inFlightDecryptions =
+      new ConcurrentHashMap<>();
+
+  /** Temporary files written by {@link #decryptAsFile(String)}, keyed by encrypted secret URI. */
+  private final Map<String, Path> decryptedFiles = new ConcurrentHashMap<>();
+
   /**
    * Decrypt will deserialize the configValue into an EncryptedSecret object and decrypted based on
    * the secretEngine referenced in the configValue.
@@ -55,7 +93,9 @@ public class SecretManager {
    * decrypted contents of a file stored externally OR (if a key is present in the EncryptedSecret's
    * parameters) - The value of the key in the external file
    *
-   * <p>Note: The temporary file that is created is deleted upon exiting the application.
+   * <p>Note: The temporary file that is created is deleted upon exiting the application. The same
+   * file is reused for subsequent calls with the same encrypted secret and is only rewritten when
+   * the decrypted contents change.
    *
    * @param filePathOrEncrypted A filepath or encrypted key
    * @return path to temporary file that contains decrypted contents or null if param not encrypted
@@ -64,11 +104,126 @@ public class SecretManager {
     if (!EncryptedSecret.isEncryptedSecret(filePathOrEncrypted)) {
       return Paths.get(filePathOrEncrypted);
     } else {
-      return createTempFile("tmp", decryptAsBytes(filePathOrEncrypted));
+      byte[] decryptedContents = decryptAsBytes(filePathOrEncrypted);
+      return decryptedFiles.compute(
+          filePathOrEncrypted, (uri, existing) -> writeTempFile(existing, decryptedContents));
     }
   }
 
+  /**
+   * Decrypts the given encrypted secret URI using its referenced secret engine. Concurrent calls
+   * for the same URI share a single call to the secret engine.
+   */
   public byte[] decryptAsBytes(String encryptedString) {
+    CompletableFuture<byte[]> decryption = new CompletableFuture<>();
+    CompletableFuture<byte[]> existing =
+        inFlightDecryptions.putIfAbsent(encryptedString, decryption);
+    if (existing != null) {
+      getRegistry().counter("secrets.decrypt.deduplicated").increment();
+      try {
+        return existing.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new SecretDecryptionException(e.getCause());
+      }
+    }
+
+    try {
+      byte[] decrypted = doDecryptAsBytes(encryptedString);
+      decryption.complete(decrypted);
+      return decrypted;
+    } catch (RuntimeException e) {
+      decryption.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlightDecryptions.remove(encryptedString, decryption);
+    }
+  }
+
+  /**
+   * Fetches the given encrypted secret URIs ahead of their use so that they can be served from the
+   * secret engine caches. Secrets are grouped by secret engine and by the remote file or secret
+   * backing them (i.e., their parameters other than the {@linkplain StandardSecretParameter#KEY
+   * key}), and each group is fetched in parallel through {@link SecretEngine#decryptAll}. Failures
+   * are logged and otherwise ignored as the secrets will be decrypted again when used.
+   *
+   * <p>Only secrets whose engine is {@linkplain CachingSecretEngine cached} are prefetched; nothing
+   * is fetched when {@link SecretEngineCacheProperties caching} is disabled.
+   *
+   * @param encryptedStrings the encrypted secret URIs to prefetch
+   * @param parallelism the maximum number of groups to fetch concurrently; values below 1 are
+   *     treated as 1
+   */
+  public void prefetch(Collection<String> encryptedStrings, int parallelism) {
+    Map<List<Object>, List<EncryptedSecret>> groups = new HashMap<>();
+    Map<List<Object>, SecretEngine> groupEngines = new HashMap<>();
+    for (String encryptedString : encryptedStrings) {
+      EncryptedSecret encryptedSecret = EncryptedSecret.tryParse(encryptedString).orElse(null);
+      if (encryptedSecret == null) {
+        continue;
+      }
+      SecretEngine secretEngine =
+          secretEngineRegistry.getEngine(encryptedSecret.getEngineIdentifier());
+      if (!(secretEngine instanceof CachingSecretEngine)) {
+        // Without a cache in front of the engine the prefetched secrets would be discarded.
+        continue;
+      }
+      try {
+        secretEngine.validate(encryptedSecret);
+      } catch (InvalidSecretFormatException e) {
+        log.warn("Skipping prefetch of invalid encrypted secret '{}'", encryptedString, e);
+        continue;
+      }
+      Map<String, String> backingParams = new HashMap<>(encryptedSecret.getParams());
+      backingParams.remove(StandardSecretParameter.KEY.getParameterName());
+      List<Object> groupKey = List.of(encryptedSecret.getEngineIdentifier(), backingParams);
+      groups.computeIfAbsent(groupKey, key -> new ArrayList<>()).add(encryptedSecret);
+      groupEngines.putIfAbsent(groupKey, secretEngine);
+    }
+    if (groups.isEmpty()) {
+      return;
+    }
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, Math.min(parallelism, groups.size())),
+            new ThreadFactoryBuilder()
+                .setNameFormat("secrets-prefetch-%d")
+                .setDaemon(true)
+                .build());
+    try {
+      List<CompletableFuture<Void>> fetches =
+          groups.entrySet().stream()
+              .map(
+                  group ->
+                      CompletableFuture.runAsync(
+                          () -> prefetchGroup(groupEngines.get(group.getKey()), group.getValue()),
+                          executor))
+              .collect(Collectors.toList());
+      CompletableFuture.allOf(fetches.toArray(CompletableFuture[]::new)).join();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void prefetchGroup(SecretEngine secretEngine, List<EncryptedSecret> encryptedSecrets) {
+    try {
+      getRegistry()
+          .counter("secrets.prefetch.groups", "engine", secretEngine.identifier())
+          .increment();
+      secretEngine.decryptAll(encryptedSecrets);
+    } catch (RuntimeException e) {
+      log.warn(
+          "Unable to prefetch {} secrets from secret engine {}",
+          encryptedSecrets.size(),
+          secretEngine.identifier(),
+          e);
+    }
+  }
+
+  private byte[] doDecryptAsBytes(String encryptedString) {
     EncryptedSecret encryptedSecret = EncryptedSecret.parse(encryptedString);
     if (encryptedSecret == null) {
       return encryptedString.getBytes();
@@ -83,9 +238,48 @@ public class SecretManager {
 
     secretEngine.validate(encryptedSecret);
 
+    getRegistry()
+        .counter("secrets.engine.decrypt", "engine", encryptedSecret.getEngineIdentifier())
+        .increment();
     return secretEngine.decrypt(encryptedSecret);
   }
 
+  private Path writeTempFile(Path existing, byte[] decryptedContents) {
+    if (existing != null && Files.isRegularFile(existing)) {
+      try {
+        if (!Arrays.equals(Files.readAllBytes(existing), decryptedContents)) {
+          replaceContents(existing, decryptedContents);
+        }
+        return existing;
+      } catch (IOException e) {
+        throw new SecretDecryptionException(e.getMessage());
+      }
+    }
+    return createTempFile("tmp", decryptedContents);
+  }
+
+  /**
+   * Replaces the contents of the given file by moving a fully written sibling over it, so that
+   * concurrent readers of the path never observe a partially written file.
+   */
+  private static void replaceContents(Path file, byte[] contents) throws IOException {
+    Path replacement = Files.createTempFile(file.getParent(), "tmp", ".secret");
+    try {
+      Files.write(replacement, contents);
+      Files.move(
+          replacement, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(replacement);
+    }
+  }
+
+  private Registry getRegistry() {
+    if (registryProvider == null) {
+      return NOOP_REGISTRY;
+    }
+    return registryProvider.getIfAvailable(() -> NOOP_REGISTRY);
+  }
+
   protected Path createTempFile(String prefix, byte[] decryptedContents) {
     try {
       File tempFile = File.createTempFile(prefix, ".secret");
@@ -21,10 +21,13 @@ import com.netflix.spinnaker.kork.secrets.EncryptedSecret;
 import com.netflix.spinnaker.kork.secrets.InvalidSecretFormatException;
 import com.netflix.spinnaker.kork.secrets.SecretDecryptionException;
 import com.netflix.spinnaker.kork.secrets.SecretEngine;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import org.yaml.snakeyaml.Yaml;
 
 public abstract class AbstractStorageSecretEngine implements SecretEngine {
@@ -33,7 +36,7 @@ public abstract class AbstractStorageSecretEngine implements SecretEngine {
   protected static final String STORAGE_FILE_URI = "f";
   protected static final String STORAGE_PROP_KEY = "k";
 
-  protected Map<String, Map<String, Object>> cache = new HashMap<>();
+  protected Map<String, Map<String, Object>> cache = new ConcurrentHashMap<>();
 
   public byte[] decrypt(EncryptedSecret encryptedSecret) {
     String fileUri = encryptedSecret.getParams().get(STORAGE_FILE_URI);
@@ -70,6 +73,44 @@ public abstract class AbstractStorageSecretEngine implements SecretEngine {
     }
   }
 
+  /** Decrypts the given secrets, downloading each referenced storage file only once. */
+  @Override
+  public Map<EncryptedSecret, byte[]> decryptAll(Collection<EncryptedSecret> encryptedSecrets) {
+    Map<EncryptedSecret, byte[]> decrypted = new LinkedHashMap<>();
+    Map<List<String>, List<EncryptedSecret>> secretsByFile =
+        encryptedSecrets.stream()
+            .collect(
+                Collectors.groupingBy(
+                    secret ->
+                        Arrays.asList(
+                            secret.getParams().get(STORAGE_BUCKET),
+                            secret.getParams().get(STORAGE_REGION),
+                            secret.getParams().get(STORAGE_FILE_URI))));
+
+    for (List<EncryptedSecret> secrets : secretsByFile.values()) {
+      byte[] contents = null;
+      for (EncryptedSecret secret : secrets) {
+        String fileUri = secret.getParams().get(STORAGE_FILE_URI);
+        String key = secret.getParams().get(STORAGE_PROP_KEY);
+        if (key == null) {
+          if (contents == null) {
+            contents = downloadContents(secret);
+          }
+          decrypted.put(secret, contents);
+          continue;
+        }
+        if (!cache.containsKey(fileUri)) {
+          if (contents == null) {
+            contents = downloadContents(secret);
+          }
+          parseAsYaml(fileUri, new ByteArrayInputStream(contents));
+        }
+        decrypted.put(secret, getParsedValue(fileUri, key));
+      }
+    }
+    return decrypted;
+  }
+
   public void validate(EncryptedSecret encryptedSecret) throws InvalidSecretFormatException {
     Set<String> paramNames = encryptedSecret.getParams().keySet();
     if (!paramNames.contains(STORAGE_BUCKET)) {
@@ -93,6 +134,14 @@ public abstract class AbstractStorageSecretEngine implements SecretEngine {
   protected abstract InputStream downloadRemoteFile(EncryptedSecret encryptedSecret)
       throws IOException;
 
+  private byte[] downloadContents(EncryptedSecret encryptedSecret) {
+    try (InputStream is = downloadRemoteFile(encryptedSecret)) {
+      return readAll(is);
+    } catch (IOException e) {
+      throw new SecretDecryptionException(e);
+    }
+  }
+
   protected byte[] readAll(InputStream inputStream) throws IOException {
     try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
       byte[] buf = new byte[4096];
@@ -109,7 +158,7 @@ public abstract class AbstractStorageSecretEngine implements SecretEngine {
 
   protected void parseAsYaml(String fileURI, InputStream inputStream) {
     Map<String, Object> parsed = new Yaml().load(inputStream);
-    cache.put(fileURI, parsed);
+    cache.put(fileURI, parsed != null ? parsed : Collections.emptyMap());
   }
 
   protected byte[] getParsedValue(String fileURI, String yamlPath)
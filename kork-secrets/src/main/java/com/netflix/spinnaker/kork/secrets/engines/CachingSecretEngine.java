@@ -0,0 +1,150 @@
+/*
+ * Copyright 2024 Apple Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.kork.secrets.engines;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.kork.secrets.EncryptedSecret;
+import com.netflix.spinnaker.kork.secrets.SecretEngine;
+import com.netflix.spinnaker.kork.secrets.SecretEngineCacheProperties;
+import com.netflix.spinnaker.kork.secrets.user.UserSecret;
+import com.netflix.spinnaker.kork.secrets.user.UserSecretReference;
+import com.netflix.spinnaker.kork.telemetry.caffeine.CaffeineStatsCounter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import lombok.Getter;
+
+/**
+ * Decorates a {@link SecretEngine} with a thread-safe cache of decrypted secrets and user secrets.
+ * Entries expire after a configurable time-to-live and are refreshed ahead of expiry in the
+ * background. Cache hits and misses are reported as {@code secrets.<engine>.cache.*} and {@code
+ * secrets.<engine>.userSecretCache.*} metrics.
+ *
+ * @see SecretEngineCacheProperties
+ */
+public class CachingSecretEngine implements SecretEngine {
+  @Getter private final SecretEngine delegate;
+  private final LoadingCache<EncryptedSecret, byte[]> secrets;
+  private final LoadingCache<UserSecretReference, UserSecret> userSecrets;
+
+  public CachingSecretEngine(
+      SecretEngine delegate, SecretEngineCacheProperties properties, Registry registry) {
+    this.delegate = delegate;
+    String metricsPrefix = "secrets." + delegate.identifier();
+    this.secrets =
+        newCacheBuilder(properties)
+            .maximumWeight(properties.getMaximumWeight())
+            .<EncryptedSecret, byte[]>weigher((secret, bytes) -> bytes.length)
+            .recordStats(() -> new CaffeineStatsCounter(registry, metricsPrefix + ".cache"))
+            .build(new SecretLoader(delegate));
+    this.userSecrets =
+        newCacheBuilder(properties)
+            .maximumSize(properties.getMaximumUserSecrets())
+            .recordStats(
+                () -> new CaffeineStatsCounter(registry, metricsPrefix + ".userSecretCache"))
+            .build(delegate::decrypt);
+  }
+
+  private static Caffeine<Object, Object> newCacheBuilder(SecretEngineCacheProperties properties) {
+    Caffeine<Object, Object> builder =
+        Caffeine.newBuilder().expireAfterWrite(properties.getExpireAfterWrite());
+    Duration refreshAfterWrite = properties.getRefreshAfterWrite();
+    if (refreshAfterWrite != null
+        && !refreshAfterWrite.isZero()
+        && refreshAfterWrite.compareTo(properties.getExpireAfterWrite()) < 0) {
+      builder.refreshAfterWrite(refreshAfterWrite);
+    }
+    return builder;
+  }
+
+  @Override
+  public String identifier() {
+    return delegate.identifier();
+  }
+
+  @Override
+  public byte[] decrypt(EncryptedSecret encryptedSecret) {
+    byte[] decrypted = secrets.get(encryptedSecret);
+    // callers receive their own copy so that cached contents cannot be modified
+    return decrypted != null ? decrypted.clone() : null;
+  }
+
+  /** Decrypts the given secrets, loading all cache misses through a single delegate batch. */
+  @Override
+  public Map<EncryptedSecret, byte[]> decryptAll(Collection<EncryptedSecret> encryptedSecrets) {
+    Map<EncryptedSecret, byte[]> decrypted = new LinkedHashMap<>();
+    secrets
+        .getAll(encryptedSecrets)
+        .forEach((secret, bytes) -> decrypted.put(secret, bytes.clone()));
+    return decrypted;
+  }
+
+  @Nonnull
+  @Override
+  public UserSecret decrypt(@Nonnull UserSecretReference reference) {
+    return userSecrets.get(reference);
+  }
+
+  @Override
+  public void validate(EncryptedSecret encryptedSecret) {
+    delegate.validate(encryptedSecret);
+  }
+
+  @Override
+  public void validate(@Nonnull UserSecretReference reference) {
+    delegate.validate(reference);
+  }
+
+  @Override
+  public EncryptedSecret encrypt(String secretToEncrypt) {
+    return delegate.encrypt(secretToEncrypt);
+  }
+
+  @Override
+  public void clearCache() {
+    secrets.invalidateAll();
+    userSecrets.invalidateAll();
+    delegate.clearCache();
+  }
+
+  private static class SecretLoader implements CacheLoader<EncryptedSecret, byte[]> {
+    private final SecretEngine delegate;
+
+    SecretLoader(SecretEngine delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] load(EncryptedSecret key) {
+      return delegate.decrypt(key);
+    }
+
+    @Override
+    public Map<EncryptedSecret, byte[]> loadAll(Iterable<? extends EncryptedSecret> keys) {
+      List<EncryptedSecret> encryptedSecrets = new ArrayList<>();
+      keys.forEach(encryptedSecrets::add);
+      return delegate.decryptAll(encryptedSecrets);
+    }
+  }
+}
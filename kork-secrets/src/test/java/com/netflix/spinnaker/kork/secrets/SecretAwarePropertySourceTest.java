@@ -6,6 +6,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
@@ -88,4 +89,37 @@ public class SecretAwarePropertySourceTest {
     verify(secretManager, never()).decrypt(any());
     verify(secretManager, never()).decryptAsFile(any());
   }
+
+  @Test
+  public void decryptedPropertyShouldBeCached() {
+    assertEquals("decryptedString", secretAwarePropertySource.getProperty("testSecretString"));
+    assertEquals("decryptedString", secretAwarePropertySource.getProperty("testSecretString"));
+    verify(secretManager, times(1)).decrypt(any());
+  }
+
+  @Test
+  public void changedPropertyValueShouldGetDecryptedAgain() {
+    secretAwarePropertySource.getProperty("testSecretString");
+    testValues.put("testSecretString", "encrypted:noop!k:otherValue");
+    secretAwarePropertySource.getProperty("testSecretString");
+    verify(secretManager, times(1)).decrypt("encrypted:noop!k:testValue");
+    verify(secretManager, times(1)).decrypt("encrypted:noop!k:otherValue");
+  }
+
+  @Test
+  public void clearedCacheShouldDecryptAgain() {
+    secretAwarePropertySource.getProperty("testSecretFile");
+    secretAwarePropertySource.clearCache();
+    secretAwarePropertySource.getProperty("testSecretFile");
+    verify(secretManager, times(2)).decryptAsFile(any());
+  }
+
+  @Test
+  public void zeroCacheTtlShouldDisableCaching() {
+    var uncachedSource =
+        new SecretAwarePropertySource<>(propertySource, secretPropertyProcessor, Duration.ZERO);
+    uncachedSource.getProperty("testSecretString");
+    uncachedSource.getProperty("testSecretString");
+    verify(secretManager, times(2)).decrypt(any());
+  }
 }
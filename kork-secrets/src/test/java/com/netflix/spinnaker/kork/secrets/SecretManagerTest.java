@@ -26,7 +26,9 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -89,6 +91,60 @@ public class SecretManagerTest {
     reader.close();
   }
 
+  @Test
+  public void decryptFileShouldReuseTempFile() throws IOException {
+    String secretConfig = "encrypted:s3!paramName:paramValue";
+    when(secretEngineProvider.orderedStream()).thenAnswer(invocation -> Stream.of(secretEngine));
+    when(secretEngine.decrypt(any(EncryptedSecret.class)))
+        .thenReturn("test".getBytes())
+        .thenReturn("test".getBytes())
+        .thenReturn("rotated".getBytes());
+    Path first = secretManager.decryptAsFile(secretConfig);
+    Path second = secretManager.decryptAsFile(secretConfig);
+    assertEquals(first, second);
+    verify(secretManager, times(1)).createTempFile(any(), any());
+
+    Path third = secretManager.decryptAsFile(secretConfig);
+    assertEquals(first, third);
+    assertEquals("rotated", Files.readString(third));
+  }
+
+  @Test
+  public void prefetchGroupsSecretsByBackingFile() {
+    when(secretEngineProvider.orderedStream()).thenAnswer(invocation -> Stream.of(secretEngine));
+    SecretManager secretManager =
+        new SecretManager(
+            new SecretEngineRegistry(
+                secretEngineProvider, new SecretEngineCacheProperties(), null));
+    secretManager.prefetch(
+        List.of(
+            "encrypted:s3!f:file1!k:a",
+            "encrypted:s3!f:file1!k:b",
+            "encrypted:s3!f:file2!k:a",
+            "not-encrypted"),
+        4);
+    verify(secretEngine, times(2)).decryptAll(any());
+    verify(secretEngine, never()).decrypt(any(EncryptedSecret.class));
+  }
+
+  @Test
+  public void prefetchTreatsNonPositiveParallelismAsOne() {
+    when(secretEngineProvider.orderedStream()).thenAnswer(invocation -> Stream.of(secretEngine));
+    SecretManager secretManager =
+        new SecretManager(
+            new SecretEngineRegistry(
+                secretEngineProvider, new SecretEngineCacheProperties(), null));
+    secretManager.prefetch(List.of("encrypted:s3!f:file1!k:a"), 0);
+    verify(secretEngine).decryptAll(any());
+  }
+
+  @Test
+  public void prefetchSkipsUncachedSecretEngines() {
+    when(secretEngineProvider.orderedStream()).thenAnswer(invocation -> Stream.of(secretEngine));
+    secretManager.prefetch(List.of("encrypted:s3!f:file1!k:a"), 4);
+    verify(secretEngine, never()).decryptAll(any());
+  }
+
   @Test
   public void decryptFileSecretEngineNotFound() throws SecretDecryptionException {
     String secretConfig = "encrypted:does-not-exist!paramName:paramValue";
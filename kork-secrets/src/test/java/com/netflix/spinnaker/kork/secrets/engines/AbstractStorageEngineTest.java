@@ -16,6 +16,8 @@
 
 package com.netflix.spinnaker.kork.secrets.engines;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.netflix.spinnaker.kork.secrets.EncryptedSecret;
@@ -23,11 +25,15 @@ import com.netflix.spinnaker.kork.secrets.SecretDecryptionException;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 public class AbstractStorageEngineTest {
   AbstractStorageSecretEngine engine;
+  AtomicInteger downloads = new AtomicInteger();
 
   @BeforeEach
   public void init() {
@@ -35,7 +41,8 @@ public class AbstractStorageEngineTest {
         new AbstractStorageSecretEngine() {
           @Override
           protected InputStream downloadRemoteFile(EncryptedSecret encryptedSecret) {
-            return null;
+            downloads.incrementAndGet();
+            return readStream("test: value\nother: othervalue");
           }
 
           @Override
@@ -56,4 +63,17 @@ public class AbstractStorageEngineTest {
     assertTrue(Arrays.equals("value".getBytes(), engine.getParsedValue("a/b", "test")));
     assertTrue(Arrays.equals("othervalue".getBytes(), engine.getParsedValue("a/b", "a.b")));
   }
+
+  @Test
+  public void decryptAllDownloadsEachFileOnce() {
+    EncryptedSecret first = EncryptedSecret.parse("encrypted:test!b:bucket!r:region!f:a/b!k:test");
+    EncryptedSecret second =
+        EncryptedSecret.parse("encrypted:test!b:bucket!r:region!f:a/b!k:other");
+    EncryptedSecret file = EncryptedSecret.parse("encrypted:test!b:bucket!r:region!f:a/b");
+    Map<EncryptedSecret, byte[]> decrypted = engine.decryptAll(List.of(first, second, file));
+    assertEquals(1, downloads.get());
+    assertArrayEquals("value".getBytes(), decrypted.get(first));
+    assertArrayEquals("othervalue".getBytes(), decrypted.get(second));
+    assertArrayEquals("test: value\nother: othervalue".getBytes(), decrypted.get(file));
+  }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 Apple Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.kork.secrets.engines;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.kork.secrets.EncryptedSecret;
+import com.netflix.spinnaker.kork.secrets.SecretEngine;
+import com.netflix.spinnaker.kork.secrets.SecretEngineCacheProperties;
+import com.netflix.spinnaker.kork.secrets.user.UserSecretReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CachingSecretEngineTest {
+  private final Registry registry = new DefaultRegistry();
+  private SecretEngine delegate;
+  private CachingSecretEngine engine;
+
+  @BeforeEach
+  public void setup() {
+    delegate = spy(new NoopSecretEngine());
+    engine = new CachingSecretEngine(delegate, new SecretEngineCacheProperties(), registry);
+  }
+
+  @Test
+  public void decryptedSecretsAreCached() {
+    EncryptedSecret secret = EncryptedSecret.parse("encrypted:noop!v:test");
+    assertArrayEquals("test".getBytes(), engine.decrypt(secret));
+    assertArrayEquals(
+        "test".getBytes(), engine.decrypt(EncryptedSecret.parse("encrypted:noop!v:test")));
+    verify(delegate, times(1)).decrypt(any(EncryptedSecret.class));
+    assertEquals(1, registry.counter("secrets.noop.cache.hits").count());
+    assertEquals(1, registry.counter("secrets.noop.cache.misses").count());
+  }
+
+  @Test
+  public void userSecretsAreCached() {
+    UserSecretReference reference = UserSecretReference.parse("secret://noop?v=test");
+    engine.decrypt(reference);
+    engine.decrypt(UserSecretReference.parse("secret://noop?v=test"));
+    verify(delegate, times(1)).decrypt(any(UserSecretReference.class));
+  }
+
+  @Test
+  public void clearCacheInvalidatesCachedSecrets() {
+    EncryptedSecret secret = EncryptedSecret.parse("encrypted:noop!v:test");
+    engine.decrypt(secret);
+    engine.clearCache();
+    engine.decrypt(secret);
+    verify(delegate, times(2)).decrypt(any(EncryptedSecret.class));
+    verify(delegate, times(1)).clearCache();
+  }
+
+  @Test
+  public void validationIsDelegated() {
+    SecretEngine mockEngine = mock(SecretEngine.class);
+    CachingSecretEngine cachingEngine =
+        new CachingSecretEngine(mockEngine, new SecretEngineCacheProperties(), registry);
+    EncryptedSecret secret = EncryptedSecret.parse("encrypted:noop!v:test");
+    cachingEngine.validate(secret);
+    verify(mockEngine).validate(secret);
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.security;
+
+import com.netflix.spinnaker.kork.common.Header;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.MDC;
+
+/**
+ * Compares running a task wrapped by {@link AuthenticatedRequestDecorator} with the original
+ * decorator, which copied the context on every run and cleared and bulk-repopulated it around the
+ * task. The original used log4j's {@code ThreadContext.clearMap} and {@code putAll}; the baseline
+ * here uses their MDC equivalents, {@link MDC#clear} and {@link MDC#setContextMap}, so both run
+ * against the same logback MDC.
+ *
+ * <p>{@code submitter} runs the task on a thread holding the propagated context, {@code
+ * emptyWorker} on a thread with an empty context, and {@code empty} propagates an empty context to
+ * an empty thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AuthenticatedRequestDecoratorBenchmark {
+
+  @Param({"submitter", "emptyWorker", "empty"})
+  public String scenario;
+
+  private Runnable decorated;
+  private Runnable baselineTask;
+  private volatile String user;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    AuthenticatedRequest.clear();
+    if (!scenario.equals("empty")) {
+      AuthenticatedRequest.setUser("user@example.com");
+      AuthenticatedRequest.setAccounts("account1,account2,account3");
+      AuthenticatedRequest.setRequestId("7c2f5a1e-6b1d-4a43-9d1e-3f1c2b7a9e55");
+      AuthenticatedRequest.setExecutionId("01HBX3Y9Q7Z2K8M4N6P0R5T1V3");
+      AuthenticatedRequest.setApplication("application");
+      AuthenticatedRequest.set(Header.USER_ORIGIN, "api");
+    }
+
+    Runnable task = () -> user = MDC.get(Header.USER.getHeader());
+    decorated = AuthenticatedRequestDecorator.wrap(task);
+    baselineTask = baselineWrap(task);
+
+    if (scenario.equals("emptyWorker")) {
+      AuthenticatedRequest.clear();
+    }
+  }
+
+  @Benchmark
+  public void decorator() {
+    decorated.run();
+  }
+
+  @Benchmark
+  public void baseline() {
+    baselineTask.run();
+  }
+
+  private static Runnable baselineWrap(Runnable runnable) {
+    Map<String, String> context = MDC.getCopyOfContextMap();
+    if (context == null) {
+      return runnable;
+    }
+    return () -> {
+      Map<String, String> originalContext = MDC.getCopyOfContextMap();
+      MDC.clear();
+      MDC.setContextMap(context);
+      try {
+        runnable.run();
+      } finally {
+        MDC.clear();
+        if (originalContext != null) {
+          MDC.setContextMap(originalContext);
+        }
+      }
+    };
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(AuthenticatedRequestDecoratorBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
@@ -16,8 +16,10 @@
 
 package com.netflix.spinnaker.security;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import org.springframework.security.core.GrantedAuthority;
@@ -28,15 +30,10 @@ public class AllowedAccountsAuthorities {
   public static final String PREFIX = "ALLOWED_ACCOUNT_";
 
   public static Collection<GrantedAuthority> getAllowedAccountAuthorities(UserDetails userDetails) {
-    if (userDetails == null
-        || userDetails.getAuthorities() == null
-        || userDetails.getAuthorities().isEmpty()) {
+    if (userDetails == null) {
       return Collections.emptySet();
     }
-
-    return userDetails.getAuthorities().stream()
-        .filter(a -> a.getAuthority().startsWith(PREFIX))
-        .collect(Collectors.toSet());
+    return new HashSet<>(index(userDetails).getAllowedAccountAuthorities());
   }
 
   @SuppressWarnings("deprecation")
@@ -44,10 +41,10 @@ public class AllowedAccountsAuthorities {
     if (userDetails instanceof User) {
       return ((User) userDetails).getAllowedAccounts();
     }
-    return getAllowedAccountAuthorities(userDetails).stream()
-        .map(a -> a.getAuthority().substring(PREFIX.length()))
-        .sorted()
-        .collect(Collectors.toList());
+    if (userDetails == null) {
+      return Collections.emptyList();
+    }
+    return new ArrayList<>(index(userDetails).getAllowedAccounts());
   }
 
   public static Collection<GrantedAuthority> buildAllowedAccounts(Collection<String> accounts) {
@@ -63,4 +60,12 @@ public class AllowedAccountsAuthorities {
         .map(SimpleGrantedAuthority::new)
         .collect(Collectors.toSet());
   }
+
+  @SuppressWarnings("deprecation")
+  private static AuthorityIndex index(UserDetails userDetails) {
+    if (userDetails instanceof User) {
+      return ((User) userDetails).authorityIndex();
+    }
+    return AuthorityIndex.of(userDetails.getAuthorities());
+  }
 }
@@ -20,6 +20,7 @@ import static java.lang.String.format;
 
 import com.google.common.base.Preconditions;
 import com.netflix.spinnaker.kork.common.Header;
+import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -43,6 +44,9 @@ public class AuthenticatedRequest {
 
   private static final Logger log = LoggerFactory.getLogger(AuthenticatedRequest.class);
 
+  /** log4j 1.x's MDC.clear(), if log4j 1.x is on the classpath; looked up once. */
+  private static final Method LEGACY_LOG4J_MDC_CLEAR = findLegacyLog4jMdcClear();
+
   /**
    * Determines the current user principal and how to interpret that principal to extract user
    * identity and allowed accounts.
@@ -259,7 +263,7 @@ public class AuthenticatedRequest {
 
     return () -> {
       // Deal with (set/reset) known X-SPINNAKER headers, all others will just stick around
-      Map<String, String> originalMdc = MDC.getCopyOfContextMap();
+      Map<String, String> originalMdc = restoreOriginalContext ? MDC.getCopyOfContextMap() : null;
 
       try {
         setOrRemoveMdc(Header.USER.getHeader(), spinnakerUser);
@@ -409,11 +413,20 @@ public class AuthenticatedRequest {
   public static void clear() {
     MDC.clear();
 
+    if (LEGACY_LOG4J_MDC_CLEAR != null) {
+      try {
+        // force clear to avoid the potential for a memory leak if log4j is being used
+        LEGACY_LOG4J_MDC_CLEAR.invoke(null);
+      } catch (Exception ignored) {
+      }
+    }
+  }
+
+  private static Method findLegacyLog4jMdcClear() {
     try {
-      // force clear to avoid the potential for a memory leak if log4j is being used
-      Class log4jMDC = Class.forName("org.apache.log4j.MDC");
-      log4jMDC.getDeclaredMethod("clear").invoke(null);
-    } catch (Exception ignored) {
+      return Class.forName("org.apache.log4j.MDC").getDeclaredMethod("clear");
+    } catch (Exception | LinkageError e) {
+      return null;
     }
   }
 
@@ -422,6 +435,10 @@ public class AuthenticatedRequest {
   }
 
   private static void setOrRemoveMdc(String key, String value) {
+    if (Objects.equals(MDC.get(key), value)) {
+      // copy-on-write MDC implementations copy the whole map on every change
+      return;
+    }
     if (value != null) {
       MDC.put(key, value);
     } else {
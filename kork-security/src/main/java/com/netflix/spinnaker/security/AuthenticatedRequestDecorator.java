@@ -17,57 +17,121 @@
 package com.netflix.spinnaker.security;
 
 import com.netflix.spinnaker.kork.annotations.NonnullByDefault;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Callable;
-import org.apache.logging.log4j.ThreadContext;
+import javax.annotation.Nullable;
+import org.slf4j.MDC;
+import org.slf4j.spi.MDCAdapter;
 
 /**
  * Provides decorators for {@link Runnable} and {@link Callable} for propagating the current {@link
- * ThreadContext}/{@link org.slf4j.MDC}.
+ * MDC}/{@code ThreadContext}.
+ *
+ * <p>The context is captured once when a task is wrapped and shared by every run of the task.
+ * Running the task installs it with a single {@link MDC#setContextMap}, and restores the original
+ * context afterwards the same way.
+ *
+ * <p>With logback, whose MDC replaces a thread's context map once it has been read and then
+ * changed, the captured context is logback's own map rather than a copy. Whether the thread already
+ * holds the task's context, and whether the task changed it, is then an identity check, so a task
+ * that runs on its submitting thread, or propagates an empty context to an idle worker, neither
+ * installs nor restores anything. Other MDC implementations copy the context and compare it with
+ * equals.
  */
 @NonnullByDefault
 public class AuthenticatedRequestDecorator {
+  /** Returns the thread's context map without copying it, or null if the MDC is not logback's. */
+  @Nullable private static final MethodHandle CONTEXT_MAP = findContextMap();
+
   public static Runnable wrap(Runnable runnable) {
-    Map<String, String> context = ThreadContext.getContext();
-    // this should not be null, but sometimes it is; see:
-    // https://github.com/apache/logging-log4j2/issues/1426
-    if (context == null) {
-      return runnable;
-    }
+    Map<String, String> context = capture();
     return () -> {
-      Map<String, String> originalContext = ThreadContext.getContext();
-      ThreadContext.clearMap();
-      ThreadContext.putAll(context);
+      Map<String, String> originalContext = install(context);
       try {
         runnable.run();
       } finally {
-        ThreadContext.clearMap();
-        if (originalContext != null) {
-          ThreadContext.putAll(originalContext);
-        }
+        restore(originalContext);
       }
     };
   }
 
   public static <V> Callable<V> wrap(Callable<V> callable) {
-    Map<String, String> context = ThreadContext.getContext();
-    // this should not be null, but sometimes it is; see:
-    // https://github.com/apache/logging-log4j2/issues/1426
-    if (context == null) {
-      return callable;
-    }
+    Map<String, String> context = capture();
     return () -> {
-      Map<String, String> originalContext = ThreadContext.getContext();
-      ThreadContext.clearMap();
-      ThreadContext.putAll(context);
+      Map<String, String> originalContext = install(context);
       try {
         return callable.call();
       } finally {
-        ThreadContext.clearMap();
-        if (originalContext != null) {
-          ThreadContext.putAll(originalContext);
-        }
+        restore(originalContext);
       }
     };
   }
+
+  /** @return the current context, or null if it is empty */
+  @Nullable
+  private static Map<String, String> capture() {
+    if (CONTEXT_MAP != null) {
+      return contextMap();
+    }
+    Map<String, String> context = MDC.getCopyOfContextMap();
+    return context == null || context.isEmpty() ? null : Collections.unmodifiableMap(context);
+  }
+
+  /** @return the context to restore once the task completes */
+  @Nullable
+  private static Map<String, String> install(@Nullable Map<String, String> context) {
+    Map<String, String> originalContext = capture();
+    boolean unchanged =
+        CONTEXT_MAP != null ? originalContext == context : Objects.equals(originalContext, context);
+    if (!unchanged) {
+      replace(context);
+    }
+    return originalContext;
+  }
+
+  private static void restore(@Nullable Map<String, String> originalContext) {
+    // logback replaces its map when the context changes, so an identical map is unchanged
+    if (CONTEXT_MAP == null || contextMap() != originalContext) {
+      replace(originalContext);
+    }
+  }
+
+  private static void replace(@Nullable Map<String, String> context) {
+    if (context == null) {
+      MDC.clear();
+    } else {
+      MDC.setContextMap(context);
+    }
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private static Map<String, String> contextMap() {
+    try {
+      return (Map<String, String>) CONTEXT_MAP.invokeExact();
+    } catch (Throwable t) {
+      throw new IllegalStateException("Unable to read the MDC context map", t);
+    }
+  }
+
+  @Nullable
+  private static MethodHandle findContextMap() {
+    MDCAdapter adapter = MDC.getMDCAdapter();
+    if (adapter == null
+        || !adapter.getClass().getName().equals("ch.qos.logback.classic.util.LogbackMDCAdapter")) {
+      return null;
+    }
+    try {
+      return MethodHandles.publicLookup()
+          .findVirtual(adapter.getClass(), "getPropertyMap", MethodType.methodType(Map.class))
+          .bindTo(adapter);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * The roles and allowed accounts of a collection of granted authorities, extracted in a single
+ * pass.
+ *
+ * <p>Only immutable {@link User}s cache their index, since their authorities cannot change. Other
+ * authority collections may be mutable, and are often rebuilt on every call, so their index is only
+ * valid for the collection it was built from at that moment and is built again on each call.
+ */
+final class AuthorityIndex {
+  private static final AuthorityIndex EMPTY = new AuthorityIndex(List.of());
+
+  private final List<String> roles;
+  private final Set<GrantedAuthority> allowedAccountAuthorities;
+  private final List<String> allowedAccounts;
+
+  private AuthorityIndex(Collection<? extends GrantedAuthority> authorities) {
+    Set<String> roles = new LinkedHashSet<>();
+    Set<GrantedAuthority> allowedAccountAuthorities = new HashSet<>();
+    List<String> allowedAccounts = new ArrayList<>();
+    for (GrantedAuthority authority : authorities) {
+      String name = authority.getAuthority();
+      if (name == null) {
+        continue;
+      }
+      if (name.startsWith(SpinnakerAuthorities.ROLE_PREFIX)) {
+        roles.add(name.substring(SpinnakerAuthorities.ROLE_PREFIX.length()));
+      } else if (name.startsWith(AllowedAccountsAuthorities.PREFIX)
+          && allowedAccountAuthorities.add(authority)) {
+        allowedAccounts.add(name.substring(AllowedAccountsAuthorities.PREFIX.length()));
+      }
+    }
+    Collections.sort(allowedAccounts);
+
+    this.roles = List.copyOf(roles);
+    this.allowedAccountAuthorities = Collections.unmodifiableSet(allowedAccountAuthorities);
+    this.allowedAccounts = Collections.unmodifiableList(allowedAccounts);
+  }
+
+  @Nonnull
+  static AuthorityIndex of(@Nullable Collection<? extends GrantedAuthority> authorities) {
+    if (authorities == null || authorities.isEmpty()) {
+      return EMPTY;
+    }
+    return new AuthorityIndex(authorities);
+  }
+
+  /** @return the distinct roles, in the order they were granted */
+  List<String> getRoles() {
+    return roles;
+  }
+
+  Set<GrantedAuthority> getAllowedAccountAuthorities() {
+    return allowedAccountAuthorities;
+  }
+
+  /** @return the allowed accounts, sorted */
+  List<String> getAllowedAccounts() {
+    return allowedAccounts;
+  }
+}
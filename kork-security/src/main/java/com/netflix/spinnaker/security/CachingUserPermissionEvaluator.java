@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Caches the decisions of a {@link UserPermissionEvaluator} by user, resource, resource type and
+ * authorization, for a short time.
+ *
+ * <p>Cached decisions are discarded on {@link UserRolesSyncedEvent}s when this is registered as a
+ * bean. Checks against an {@link Authentication} are not cached, as they depend on more than the
+ * user's name.
+ */
+public class CachingUserPermissionEvaluator
+    implements UserPermissionEvaluator, ApplicationListener<UserRolesSyncedEvent> {
+  public static final Duration DEFAULT_TTL = Duration.ofSeconds(10);
+  public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+  private final UserPermissionEvaluator delegate;
+  private final Cache<Decision, Boolean> decisions;
+
+  public CachingUserPermissionEvaluator(UserPermissionEvaluator delegate) {
+    this(delegate, DEFAULT_TTL, DEFAULT_MAXIMUM_SIZE);
+  }
+
+  public CachingUserPermissionEvaluator(
+      UserPermissionEvaluator delegate, Duration ttl, long maximumSize) {
+    this(delegate, ttl, maximumSize, Ticker.systemTicker());
+  }
+
+  CachingUserPermissionEvaluator(
+      UserPermissionEvaluator delegate, Duration ttl, long maximumSize, Ticker ticker) {
+    this.delegate = Objects.requireNonNull(delegate);
+    this.decisions =
+        Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maximumSize)
+            .ticker(ticker)
+            .build();
+  }
+
+  @Override
+  public boolean hasPermission(
+      String username, Serializable resourceName, String resourceType, Object authorization) {
+    return decisions.get(
+        new Decision(username, resourceName, resourceType, authorization),
+        decision -> delegate.hasPermission(username, resourceName, resourceType, authorization));
+  }
+
+  /** Only resources without a cached decision are passed on, in a single call to the delegate. */
+  @Override
+  public <T extends Serializable> Map<T, Boolean> hasPermissions(
+      String username, Collection<T> resourceNames, String resourceType, Object authorization) {
+    Map<T, Boolean> permissions = new LinkedHashMap<>();
+    List<T> uncached = new ArrayList<>();
+    for (T resourceName : resourceNames) {
+      Boolean cached =
+          decisions.getIfPresent(new Decision(username, resourceName, resourceType, authorization));
+      if (cached == null) {
+        uncached.add(resourceName);
+      }
+      // keeps the iteration order while uncached resources are looked up
+      permissions.put(resourceName, cached);
+    }
+
+    if (!uncached.isEmpty()) {
+      delegate
+          .hasPermissions(username, uncached, resourceType, authorization)
+          .forEach(
+              (resourceName, permitted) -> {
+                decisions.put(
+                    new Decision(username, resourceName, resourceType, authorization), permitted);
+                permissions.put(resourceName, permitted);
+              });
+      // a delegate that omits a resource has not granted the authorization on it
+      permissions.replaceAll((resourceName, permitted) -> Boolean.TRUE.equals(permitted));
+    }
+    return permissions;
+  }
+
+  @Override
+  public boolean hasPermission(
+      Authentication authentication, Object targetDomainObject, Object permission) {
+    return delegate.hasPermission(authentication, targetDomainObject, permission);
+  }
+
+  @Override
+  public boolean hasPermission(
+      Authentication authentication, Serializable targetId, String targetType, Object permission) {
+    return delegate.hasPermission(authentication, targetId, targetType, permission);
+  }
+
+  @Override
+  public void onApplicationEvent(UserRolesSyncedEvent event) {
+    if (event.isAllUsers()) {
+      decisions.invalidateAll();
+    } else {
+      decisions
+          .asMap()
+          .keySet()
+          .removeIf(decision -> event.getUsernames().contains(decision.getUsername()));
+    }
+  }
+
+  @Value
+  private static class Decision {
+    String username;
+    Serializable resourceName;
+    String resourceType;
+    Object authorization;
+  }
+}
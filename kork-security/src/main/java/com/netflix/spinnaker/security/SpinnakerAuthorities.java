@@ -16,10 +16,9 @@
 
 package com.netflix.spinnaker.security;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.springframework.security.core.Authentication;
@@ -32,7 +31,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
  * {@code SPINNAKER_} prefix.
  */
 public class SpinnakerAuthorities {
-  private static final String ROLE_PREFIX = "ROLE_";
+  static final String ROLE_PREFIX = "ROLE_";
 
   public static final String ADMIN = "SPINNAKER_ADMIN";
   /** Granted authority for Spinnaker administrators. */
@@ -55,13 +54,36 @@ public class SpinnakerAuthorities {
 
   /** Checks if the given user has the provided role. */
   public static boolean hasRole(@Nullable Authentication authentication, @Nonnull String role) {
-    return authentication != null && streamRoles(authentication).anyMatch(role::equals);
+    if (authentication == null) {
+      return false;
+    }
+    for (GrantedAuthority authority : authentication.getAuthorities()) {
+      String name = authority.getAuthority();
+      if (name != null
+          && name.length() == ROLE_PREFIX.length() + role.length()
+          && name.startsWith(ROLE_PREFIX)
+          && name.endsWith(role)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /** Checks if the given user has any of the provided roles. */
   public static boolean hasAnyRole(
       @Nullable Authentication authentication, @Nonnull Collection<String> roles) {
-    return authentication != null && streamRoles(authentication).anyMatch(roles::contains);
+    if (authentication == null || roles.isEmpty()) {
+      return false;
+    }
+    for (GrantedAuthority authority : authentication.getAuthorities()) {
+      String name = authority.getAuthority();
+      if (name != null
+          && name.startsWith(ROLE_PREFIX)
+          && roles.contains(name.substring(ROLE_PREFIX.length()))) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /** Gets the list of roles assigned to the given user. */
@@ -70,21 +92,6 @@ public class SpinnakerAuthorities {
     if (authentication == null) {
       return List.of();
     }
-    return streamRoles(authentication).distinct().collect(Collectors.toList());
-  }
-
-  @Nonnull
-  private static Stream<String> streamRoles(@Nonnull Authentication authentication) {
-    return authentication.getAuthorities().stream()
-        .filter(SpinnakerAuthorities::isRole)
-        .map(SpinnakerAuthorities::getRole);
-  }
-
-  private static boolean isRole(@Nonnull GrantedAuthority authority) {
-    return authority.getAuthority().startsWith(ROLE_PREFIX);
-  }
-
-  private static String getRole(@Nonnull GrantedAuthority authority) {
-    return authority.getAuthority().substring(ROLE_PREFIX.length());
+    return new ArrayList<>(AuthorityIndex.of(authentication.getAuthorities()).getRoles());
   }
 }
@@ -123,6 +123,11 @@ public class User implements UserDetails {
     return new ImmutableUser();
   }
 
+  /** Indexes the authorities, built again on each call since the roles may still change. */
+  AuthorityIndex authorityIndex() {
+    return AuthorityIndex.of(getAuthorities());
+  }
+
   @Override
   public boolean isAccountNonExpired() {
     return true;
@@ -144,6 +149,9 @@ public class User implements UserDetails {
   }
 
   private final class ImmutableUser extends User {
+    // Built on first use from roles that cannot change
+    private transient volatile AuthorityIndex authorityIndex;
+
     ImmutableUser() {
       this.email = User.this.email;
       this.username = User.this.username;
@@ -187,5 +195,15 @@ public class User implements UserDetails {
     public User asImmutable() {
       return this;
     }
+
+    @Override
+    AuthorityIndex authorityIndex() {
+      AuthorityIndex index = authorityIndex;
+      if (index == null) {
+        index = AuthorityIndex.of(getAuthorities());
+        authorityIndex = index;
+      }
+      return index;
+    }
   }
 }
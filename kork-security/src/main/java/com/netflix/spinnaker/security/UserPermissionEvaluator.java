@@ -17,6 +17,9 @@
 package com.netflix.spinnaker.security;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.springframework.security.access.PermissionEvaluator;
 
 /**
@@ -27,4 +30,21 @@ public interface UserPermissionEvaluator extends PermissionEvaluator {
 
   boolean hasPermission(
       String username, Serializable resourceName, String resourceType, Object authorization);
+
+  /**
+   * Evaluates the same authorization for several resources of one type, e.g. to filter a list of
+   * applications or accounts. Implementations that look permissions up remotely should override
+   * this to check all resources at once; by default each resource is checked in turn.
+   *
+   * @return whether the user has the authorization, by resource name, in iteration order
+   */
+  default <T extends Serializable> Map<T, Boolean> hasPermissions(
+      String username, Collection<T> resourceNames, String resourceType, Object authorization) {
+    Map<T, Boolean> permissions = new LinkedHashMap<>();
+    for (T resourceName : resourceNames) {
+      permissions.computeIfAbsent(
+          resourceName, name -> hasPermission(username, name, resourceType, authorization));
+    }
+    return permissions;
+  }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.security;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when user roles have been synchronized and permissions may have changed, so that
+ * cached permission decisions can be discarded.
+ */
+public class UserRolesSyncedEvent extends ApplicationEvent {
+  private final Set<String> usernames;
+
+  /** Roles of all users may have changed. */
+  public UserRolesSyncedEvent(Object source) {
+    this(source, Collections.emptySet());
+  }
+
+  /** Roles of {@code usernames} may have changed; if empty, roles of all users may have. */
+  public UserRolesSyncedEvent(Object source, Collection<String> usernames) {
+    super(source);
+    this.usernames = Set.copyOf(usernames);
+  }
+
+  /** @return the users whose roles were synchronized, or an empty set for all users */
+  public Set<String> getUsernames() {
+    return usernames;
+  }
+
+  public boolean isAllUsers() {
+    return usernames.isEmpty();
+  }
+}
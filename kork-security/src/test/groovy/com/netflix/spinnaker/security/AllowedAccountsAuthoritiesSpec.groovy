@@ -35,6 +35,29 @@ class AllowedAccountsAuthoritiesSpec extends Specification {
     u("foo", ["a", "c", "b"]) || ["a", "b", "c"]
   }
 
+  def "ignores roles when extracting allowed accounts"() {
+    given:
+    def userDetails = new org.springframework.security.core.userdetails.User(
+      "foo", "", [a("ROLE_dev"), a(PREFIX + "b"), a(PREFIX + "a")])
+
+    expect:
+    AllowedAccountsAuthorities.getAllowedAccounts(userDetails) == ["a", "b"]
+    AllowedAccountsAuthorities.getAllowedAccountAuthorities(userDetails) == [a(PREFIX + "a"), a(PREFIX + "b")] as Set
+  }
+
+  def "returns allowed accounts the caller may change"() {
+    given:
+    def userDetails = new org.springframework.security.core.userdetails.User("foo", "", [a(PREFIX + "a")])
+
+    when:
+    def accounts = AllowedAccountsAuthorities.getAllowedAccounts(userDetails)
+    accounts.add("b")
+
+    then:
+    accounts == ["a", "b"]
+    AllowedAccountsAuthorities.getAllowedAccounts(userDetails) == ["a"]
+  }
+
   def "builds normalized granted authorities"() {
     expect:
     Matchers.containsInAnyOrder(expected.toArray()).matches(AllowedAccountsAuthorities.buildAllowedAccounts(accounts))
@@ -17,6 +17,7 @@
 package com.netflix.spinnaker.security
 
 import com.netflix.spinnaker.kork.common.Header
+import java.util.concurrent.Callable
 import org.slf4j.MDC
 import spock.lang.Specification
 
@@ -136,4 +137,51 @@ class AuthenticatedRequestSpec extends Specification {
     then:
     closure.run()
   }
+
+  void "should restore context changed by a decorated task running on the submitting thread"() {
+    given:
+    AuthenticatedRequest.clear()
+    AuthenticatedRequest.user = 'fry'
+    def closure = AuthenticatedRequestDecorator.wrap {
+      assert AuthenticatedRequest.spinnakerUser.get() == 'fry'
+      AuthenticatedRequest.user = 'bender'
+      MDC.put('unrelated', 'value')
+    }
+
+    when:
+    closure.run()
+
+    then:
+    AuthenticatedRequest.spinnakerUser.get() == 'fry'
+    MDC.get('unrelated') == null
+  }
+
+  void "should propagate an empty context"() {
+    given:
+    AuthenticatedRequest.clear()
+    def closure = AuthenticatedRequestDecorator.wrap({ MDC.getCopyOfContextMap() ?: [:] } as Callable)
+
+    when:
+    AuthenticatedRequest.user = 'amy'
+    def context = closure.call()
+
+    then:
+    context.isEmpty()
+    AuthenticatedRequest.spinnakerUser.get() == 'amy'
+  }
+
+  void "should leave an empty context when not restoring the original"() {
+    given:
+    AuthenticatedRequest.clear()
+    AuthenticatedRequest.user = 'fry'
+    AuthenticatedRequest.requestId = '2000'
+    def closure = AuthenticatedRequest.propagate({ AuthenticatedRequest.spinnakerUser.get() } as Callable, false)
+
+    when:
+    def user = closure.call()
+
+    then:
+    user == 'fry'
+    MDC.getCopyOfContextMap() == null
+  }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.security
+
+import com.github.benmanes.caffeine.cache.Ticker
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import org.springframework.security.core.Authentication
+import spock.lang.Specification
+
+class CachingUserPermissionEvaluatorSpec extends Specification {
+  def delegate = Mock(UserPermissionEvaluator)
+  def time = new AtomicLong()
+  def evaluator = new CachingUserPermissionEvaluator(
+    delegate, Duration.ofSeconds(10), 100, { time.get() } as Ticker)
+
+  void "default hasPermissions checks each resource"() {
+    given:
+    def evaluator = new ApplicationsEvaluator(permitted: ['app1', 'app3'])
+
+    expect:
+    evaluator.hasPermissions('user', ['app1', 'app2', 'app3', 'app1'], 'application', 'READ') ==
+      [app1: true, app2: false, app3: true]
+    evaluator.checks == ['app1', 'app2', 'app3']
+  }
+
+  void "caches decisions until they expire"() {
+    when:
+    def first = evaluator.hasPermission('user', 'app', 'application', 'READ')
+    def second = evaluator.hasPermission('user', 'app', 'application', 'READ')
+
+    then:
+    1 * delegate.hasPermission('user', 'app', 'application', 'READ') >> true
+    first
+    second
+
+    when:
+    time.addAndGet(TimeUnit.SECONDS.toNanos(11))
+    def expired = evaluator.hasPermission('user', 'app', 'application', 'READ')
+
+    then:
+    1 * delegate.hasPermission('user', 'app', 'application', 'READ') >> false
+    !expired
+  }
+
+  void "caches decisions separately by user, resource, type and authorization"() {
+    when:
+    evaluator.hasPermission('user', 'app', 'application', 'READ')
+    evaluator.hasPermission('other', 'app', 'application', 'READ')
+    evaluator.hasPermission('user', 'other', 'application', 'READ')
+    evaluator.hasPermission('user', 'app', 'account', 'READ')
+    evaluator.hasPermission('user', 'app', 'application', 'WRITE')
+
+    then:
+    5 * delegate.hasPermission(_, _, _, _) >> true
+  }
+
+  void "only looks up uncached resources, in a single call"() {
+    given:
+    delegate.hasPermission('user', 'app2', 'application', 'READ') >> true
+    evaluator.hasPermission('user', 'app2', 'application', 'READ')
+
+    when:
+    def permissions = evaluator.hasPermissions('user', ['app1', 'app2', 'app3'], 'application', 'READ')
+
+    then:
+    0 * delegate.hasPermission(_, _, _, _)
+    1 * delegate.hasPermissions('user', ['app1', 'app3'], 'application', 'READ') >> [app1: true, app3: false]
+    permissions == [app1: true, app2: true, app3: false]
+    permissions.keySet() as List == ['app1', 'app2', 'app3']
+
+    when:
+    def cached = evaluator.hasPermissions('user', ['app3', 'app1'], 'application', 'READ')
+
+    then:
+    0 * delegate.hasPermissions(_, _, _, _)
+    cached == [app3: false, app1: true]
+  }
+
+  void "denies resources the delegate does not return"() {
+    when:
+    def permissions = evaluator.hasPermissions('user', ['app1', 'app2'], 'application', 'READ')
+
+    then:
+    1 * delegate.hasPermissions('user', ['app1', 'app2'], 'application', 'READ') >> [app1: true]
+    permissions == [app1: true, app2: false]
+  }
+
+  void "discards decisions when roles are synced"() {
+    given:
+    evaluator.hasPermission('user', 'app', 'application', 'READ')
+    evaluator.hasPermission('other', 'app', 'application', 'READ')
+
+    when:
+    evaluator.onApplicationEvent(new UserRolesSyncedEvent(this, ['user']))
+    evaluator.hasPermission('user', 'app', 'application', 'READ')
+    evaluator.hasPermission('other', 'app', 'application', 'READ')
+
+    then:
+    1 * delegate.hasPermission('user', 'app', 'application', 'READ') >> true
+    0 * delegate.hasPermission('other', _, _, _)
+
+    when:
+    evaluator.onApplicationEvent(new UserRolesSyncedEvent(this))
+    evaluator.hasPermission('user', 'app', 'application', 'READ')
+    evaluator.hasPermission('other', 'app', 'application', 'READ')
+
+    then:
+    2 * delegate.hasPermission(_, 'app', 'application', 'READ') >> true
+  }
+
+  void "does not cache checks against an authentication"() {
+    given:
+    def authentication = Mock(Authentication)
+
+    when:
+    evaluator.hasPermission(authentication, 'app', 'application', 'READ')
+    evaluator.hasPermission(authentication, 'app', 'application', 'READ')
+
+    then:
+    2 * delegate.hasPermission(authentication, 'app', 'application', 'READ') >> true
+  }
+
+  static class ApplicationsEvaluator extends AbstractPermissionEvaluator implements UserPermissionEvaluator {
+    List<String> permitted
+    List<String> checks = []
+
+    @Override
+    boolean hasPermission(String username, Serializable resourceName, String resourceType, Object authorization) {
+      checks << resourceName
+      return permitted.contains(resourceName)
+    }
+  }
+}
@@ -19,6 +19,7 @@ package com.netflix.spinnaker.security
 import org.springframework.security.authentication.TestingAuthenticationToken
 import org.springframework.security.core.Authentication
 import org.springframework.security.core.GrantedAuthority
+import org.springframework.security.core.authority.SimpleGrantedAuthority
 import spock.lang.Specification
 
 class SpinnakerAuthoritiesSpec extends Specification {
@@ -53,6 +54,40 @@ class SpinnakerAuthoritiesSpec extends Specification {
     u(SpinnakerAuthorities.forRoleName('c')) || ['c']
   }
 
+  void "hasAnyRole returns expected value"() {
+    expect:
+    SpinnakerAuthorities.hasAnyRole(authentication, roles) == hasAnyRole
+    where:
+    authentication                     | roles          || hasAnyRole
+    null                               | ['dev']        || false
+    u('ROLE_dev', 'ROLE_ops')          | ['qa', 'ops']  || true
+    u('ROLE_dev', 'SPINNAKER_ADMIN')   | ['qa', 'prod'] || false
+    u('ROLE_dev')                      | []             || false
+  }
+
+  void "sees changes to a mutable collection of authorities"() {
+    given:
+    def authorities = [new SimpleGrantedAuthority('ROLE_dev')]
+    def authentication = new TestingAuthenticationToken(null, null, List.of()) {
+      @Override
+      Collection<GrantedAuthority> getAuthorities() {
+        return authorities
+      }
+    }
+
+    expect:
+    SpinnakerAuthorities.hasRole(authentication, 'dev')
+    SpinnakerAuthorities.getRoles(authentication) == ['dev']
+
+    when: 'a role is swapped for another, keeping the number of authorities'
+    authorities[0] = new SimpleGrantedAuthority('ROLE_ops')
+
+    then:
+    !SpinnakerAuthorities.hasRole(authentication, 'dev')
+    SpinnakerAuthorities.hasAnyRole(authentication, ['ops'])
+    SpinnakerAuthorities.getRoles(authentication) == ['ops']
+  }
+
   private static Authentication u(String... authorities) {
     new TestingAuthenticationToken(null, null, authorities)
   }
@@ -66,6 +66,23 @@ class UserSpec extends Specification {
       user.username == "username"
   }
 
+  def "should only cache the authority index of an immutable user"() {
+    setup:
+      def mutableUser = new User(roles: ["dev"])
+      def immutableUser = mutableUser.asImmutable()
+
+    expect:
+      immutableUser.authorityIndex().is(immutableUser.authorityIndex())
+      immutableUser.authorityIndex().getRoles() == ["dev"]
+
+    when:
+      mutableUser.roles = ["ops"]
+
+    then:
+      mutableUser.authorityIndex().getRoles() == ["ops"]
+      immutableUser.authorityIndex().getRoles() == ["dev"]
+  }
+
   def "should filter out empty roles"() {
     expect:
       new User(roles: [""]).getAuthorities().isEmpty()
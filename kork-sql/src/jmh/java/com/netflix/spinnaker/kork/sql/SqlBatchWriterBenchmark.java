@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.kork.sql;
+
+import com.netflix.spectator.api.NoopRegistry;
+import com.netflix.spinnaker.kork.sql.config.SqlRetryProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares writing rows one statement at a time with writing them through a {@link
+ * SqlBatchWriter}, against an embedded H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SqlBatchWriterBenchmark {
+
+  private static final Table<Record> TABLE = DSL.table(DSL.name("batch_benchmark"));
+  private static final Field<Integer> ID = DSL.field(DSL.name("id"), Integer.class);
+  private static final Field<String> NAME = DSL.field(DSL.name("name"), String.class);
+  private static final List<Field<?>> FIELDS = List.of(ID, NAME);
+
+  @Param({"1000"})
+  public int rows;
+
+  private HikariDataSource dataSource;
+  private DSLContext jooq;
+  private SqlBatchWriter writer;
+  private List<Record> records;
+
+  @Setup
+  public void setup() {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl("jdbc:h2:mem:batch_benchmark;MODE=MYSQL;DB_CLOSE_DELAY=-1");
+    dataSource = new HikariDataSource(config);
+    jooq = DSL.using(dataSource, SQLDialect.H2);
+    writer = new SqlBatchWriter(jooq, new SqlRetryProperties(), new NoopRegistry());
+
+    jooq.createTableIfNotExists(TABLE)
+        .column(ID, SQLDataType.INTEGER.nullable(false))
+        .column(NAME, SQLDataType.VARCHAR(64))
+        .constraints(DSL.primaryKey(ID))
+        .execute();
+
+    records = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      records.add(jooq.newRecord(ID, NAME).values(i, "name-" + i));
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void truncate() {
+    jooq.truncate(TABLE).execute();
+  }
+
+  @TearDown
+  public void tearDown() {
+    dataSource.close();
+  }
+
+  @Benchmark
+  public int singleRowInserts() {
+    int inserted = 0;
+    for (Record record : records) {
+      inserted +=
+          jooq.insertInto(TABLE).set(ID, record.get(ID)).set(NAME, record.get(NAME)).execute();
+    }
+    return inserted;
+  }
+
+  @Benchmark
+  public int batchWriterInserts() {
+    return writer.insert(TABLE, records, FIELDS);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(SqlBatchWriterBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.kork.sql
+
+import java.io.Closeable
+import java.util.Spliterator
+import java.util.Spliterators
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.Executor
+import java.util.stream.Stream
+import java.util.stream.StreamSupport
+
+/**
+ * A [PagedIterator] that fetches the next page in the background while the current page is consumed.
+ *
+ * As soon as a full page is returned, the page following it is requested on [executor] using the cursor of its
+ * last element, so consumers only wait on a round trip when they outpace the database. At most one page is
+ * fetched ahead. [close] cancels any outstanding fetch; [asStream] closes the iterator when the stream is closed.
+ *
+ * Pages are fetched on [executor]'s threads rather than the consumer's, so they do not take part in a transaction
+ * or connection bound to the consumer's thread (e.g. by Spring's transaction management). Page fetches block on
+ * the database, so [executor] should be a dedicated, bounded pool rather than a shared one such as
+ * [java.util.concurrent.ForkJoinPool.commonPool].
+ */
+class PrefetchingPagedIterator<T, C>(
+  private val pageSize: Int,
+  private val toCursor: (T) -> C,
+  private val nextPage: (Int, C?) -> Iterable<T>,
+  private val executor: Executor
+) : Iterator<T>, Closeable {
+
+  private var currentPage: Iterator<T> = emptyList<T>().iterator()
+  private var pendingPage: CompletableFuture<List<T>>? = null
+  private var started: Boolean = false
+
+  @Volatile
+  private var closed: Boolean = false
+
+  override fun hasNext(): Boolean {
+    while (!currentPage.hasNext()) {
+      if (closed) {
+        return false
+      }
+      val pending = pendingPage ?: if (started) return false else fetch(null)
+      started = true
+
+      val page = await(pending)
+      pendingPage = if (page.size < pageSize) null else fetch(toCursor(page.last()))
+      currentPage = page.iterator()
+    }
+    return true
+  }
+
+  override fun next(): T {
+    if (!hasNext()) {
+      throw NoSuchElementException()
+    }
+    return currentPage.next()
+  }
+
+  override fun close() {
+    closed = true
+    pendingPage?.cancel(true)
+    pendingPage = null
+    currentPage = emptyList<T>().iterator()
+  }
+
+  private fun fetch(cursor: C?): CompletableFuture<List<T>> =
+    CompletableFuture.supplyAsync({ nextPage(pageSize, cursor).toList() }, executor)
+
+  private fun await(page: CompletableFuture<List<T>>): List<T> =
+    try {
+      page.join()
+    } catch (e: CompletionException) {
+      throw e.cause ?: e
+    }
+}
+
+/**
+ * Adapts an iterator to a sequential [Stream]. If the iterator is [Closeable], closing the stream closes it,
+ * cancelling any work it has outstanding.
+ */
+fun <T> Iterator<T>.asStream(): Stream<T> {
+  val iterator = this
+  return StreamSupport
+    .stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+    .onClose { (iterator as? Closeable)?.close() }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.kork.sql
+
+import com.netflix.spectator.api.NoopRegistry
+import com.netflix.spectator.api.Registry
+import com.netflix.spinnaker.kork.sql.config.RetryProperties
+import com.netflix.spinnaker.kork.sql.config.SqlRetryProperties
+import java.sql.SQLException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.TimeUnit
+import org.jooq.DSLContext
+import org.jooq.Field
+import org.jooq.Query
+import org.jooq.Record
+import org.jooq.SQLDialect
+import org.jooq.Table
+import org.jooq.impl.DSL
+import org.slf4j.LoggerFactory
+import org.springframework.dao.PessimisticLockingFailureException
+import org.springframework.transaction.support.TransactionSynchronizationManager
+
+/**
+ * Writes rows in multi-row INSERT or upsert statements rather than one statement per row.
+ *
+ * Rows are grouped into batches whose size adapts to observed latency, separately for each table: batches that
+ * complete within half of [targetBatchLatencyMs] grow, and batches that exceed it shrink, between [minBatchSize]
+ * and [maxBatchSize].
+ * Batches are also split so that their estimated size stays under [maxStatementBytes], which should not exceed
+ * the server's packet limit (e.g. MySQL's `max_allowed_packet`).
+ *
+ * Upserts use `ON DUPLICATE KEY UPDATE` on MySQL and `ON CONFLICT ... DO UPDATE` on Postgres; other dialects fall
+ * back to a JDBC batch of jOOQ's per-row upsert emulation. Batches that fail with a deadlock or lock timeout are
+ * retried with jittered exponential backoff, per [SqlRetryProperties.transactions]. Inside an outer Spring-managed
+ * transaction the failure is rethrown instead: the database may already have rolled back the whole transaction
+ * (as MySQL does on deadlock), so retrying would only commit part of the caller's work.
+ */
+@Suppress("LongParameterList", "MagicNumber")
+class SqlBatchWriter
+@JvmOverloads
+constructor(
+  private val jooq: DSLContext,
+  retryProperties: SqlRetryProperties = SqlRetryProperties(),
+  private val registry: Registry = NoopRegistry(),
+  private val minBatchSize: Int = 10,
+  private val maxBatchSize: Int = 1_000,
+  private val targetBatchLatencyMs: Long = 250,
+  private val maxStatementBytes: Int = 4 * 1024 * 1024
+) {
+
+  private val log = LoggerFactory.getLogger(javaClass)
+
+  private val retries: RetryProperties = retryProperties.transactions
+
+  private val batchTimerId = registry.createId("sql.batchWriter.batches")
+  private val rowsId = registry.createId("sql.batchWriter.rows")
+  private val retriesId = registry.createId("sql.batchWriter.deadlockRetries")
+
+  init {
+    require(minBatchSize in 1..maxBatchSize) { "minBatchSize must be between 1 and maxBatchSize" }
+  }
+
+  private val initialBatchSize = minOf(maxBatchSize, 100).coerceAtLeast(minBatchSize)
+
+  private val batchSizes = ConcurrentHashMap<String, Int>()
+
+  /**
+   * The number of rows the next batch written to [table] will hold, before splitting for [maxStatementBytes].
+   */
+  fun batchSize(table: Table<*>): Int =
+    batchSizes[table.name] ?: initialBatchSize
+
+  /**
+   * Inserts [records] into [table], returning the number of affected rows.
+   *
+   * @param fields The columns to write; by default all fields of [table]
+   */
+  @JvmOverloads
+  fun <R : Record> insert(
+    table: Table<R>,
+    records: Collection<Record>,
+    fields: List<Field<*>> = table.fields().toList()
+  ): Int =
+    write(table, records, fields, "insert") { batch ->
+      listOf(insertQuery(jooq, table, fields, batch))
+    }
+
+  /**
+   * Inserts [records] into [table], updating the existing row when a row with the same [keys] already exists.
+   * Returns the number of affected rows, as reported by the driver.
+   *
+   * @param keys The unique key identifying existing rows; by default the primary key of [table]
+   * @param fields The columns to write; by default all fields of [table]
+   */
+  @JvmOverloads
+  fun <R : Record> upsert(
+    table: Table<R>,
+    records: Collection<Record>,
+    keys: List<Field<*>> = table.primaryKey?.fields?.toList() ?: emptyList(),
+    fields: List<Field<*>> = table.fields().toList()
+  ): Int {
+    require(keys.isNotEmpty()) { "Upserting into ${table.name} requires key fields" }
+    val updates = fields.filter { field -> keys.none { it.name == field.name } }
+    return write(table, records, fields, "upsert") { batch ->
+      upsertQueries(table, batch, keys, fields, updates)
+    }
+  }
+
+  private fun <R : Record> upsertQueries(
+    table: Table<R>,
+    batch: List<Record>,
+    keys: List<Field<*>>,
+    fields: List<Field<*>>,
+    updates: List<Field<*>>
+  ): List<Query> =
+    when (jooq.dialect().family()) {
+      SQLDialect.MYSQL, SQLDialect.MARIADB -> {
+        val insert = insertQuery(jooq, table, fields, batch)
+        listOf(
+          if (updates.isEmpty()) {
+            insert.onDuplicateKeyIgnore()
+          } else {
+            insert.onDuplicateKeyUpdate().set(updates.associateWith { excluded(it, "values({0})") })
+          }
+        )
+      }
+      SQLDialect.POSTGRES -> {
+        val insert = insertQuery(jooq, table, fields, batch).onConflict(keys)
+        listOf(
+          if (updates.isEmpty()) {
+            insert.doNothing()
+          } else {
+            insert.doUpdate().set(updates.associateWith { excluded(it, "excluded.{0}") })
+          }
+        )
+      }
+      else -> batch.map { record ->
+        val values = fields.associateWith { record.get(it) }
+        val insert = jooq.insertInto(table).set(values)
+        if (updates.isEmpty()) {
+          insert.onDuplicateKeyIgnore()
+        } else {
+          insert.onDuplicateKeyUpdate().set(values.filterKeys { it in updates })
+        }
+      }
+    }
+
+  private fun <R : Record> write(
+    table: Table<R>,
+    records: Collection<Record>,
+    fields: List<Field<*>>,
+    operation: String,
+    queries: (List<Record>) -> List<Query>
+  ): Int {
+    require(fields.isNotEmpty()) { "No fields to write to ${table.name}" }
+
+    var affected = 0
+    val remaining = records.iterator()
+    var pending: Record? = null
+    while (pending != null || remaining.hasNext()) {
+      val batchSize = batchSize(table)
+      val batch = ArrayList<Record>(batchSize)
+      var bytes = 0
+      while (batch.size < batchSize && (pending != null || remaining.hasNext())) {
+        val record = pending ?: remaining.next()
+        val recordBytes = estimateBytes(record, fields)
+        if (batch.isNotEmpty() && bytes + recordBytes > maxStatementBytes) {
+          pending = record
+          break
+        }
+        pending = null
+        batch.add(record)
+        bytes += recordBytes
+      }
+      affected += execute(table, operation, batch, queries)
+    }
+    return affected
+  }
+
+  private fun execute(
+    table: Table<*>,
+    operation: String,
+    batch: List<Record>,
+    queries: (List<Record>) -> List<Query>
+  ): Int {
+    var attempt = 0
+    while (true) {
+      val start = System.nanoTime()
+      try {
+        val affected = queries(batch).let { statements ->
+          if (statements.size == 1) {
+            statements.first().execute()
+          } else {
+            jooq.transactionResult { config -> DSL.using(config).batch(statements).execute().sum() }
+          }
+        }
+        val elapsedNanos = System.nanoTime() - start
+        record(table, operation, true, elapsedNanos)
+        registry.counter(rowsId.withTags("table", table.name, "operation", operation)).increment(batch.size.toLong())
+        adjustBatchSize(table, batch.size, TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+        return affected
+      } catch (@Suppress("TooGenericExceptionCaught") e: RuntimeException) {
+        record(table, operation, false, System.nanoTime() - start)
+        if (!isDeadlock(e) || attempt >= retries.maxRetries ||
+          TransactionSynchronizationManager.isActualTransactionActive()
+        ) {
+          throw e
+        }
+        attempt++
+        registry.counter(retriesId.withTag("table", table.name)).increment()
+        val backoffMs = jitteredBackoffMs(attempt)
+        log.warn("Deadlock writing to ${table.name}, retrying in ${backoffMs}ms ($attempt/${retries.maxRetries})")
+        Thread.sleep(backoffMs)
+      }
+    }
+  }
+
+  private fun record(table: Table<*>, operation: String, success: Boolean, elapsedNanos: Long) {
+    registry
+      .timer(batchTimerId.withTags("table", table.name, "operation", operation, "success", success.toString()))
+      .record(elapsedNanos, TimeUnit.NANOSECONDS)
+  }
+
+  /**
+   * Grows the batch size additively while batches are fast, and halves it when they are slow.
+   */
+  private fun adjustBatchSize(table: Table<*>, size: Int, elapsedMs: Long) {
+    batchSizes.compute(table.name) { _, current ->
+      val batchSize = current ?: initialBatchSize
+      if (elapsedMs > targetBatchLatencyMs) {
+        (batchSize / 2).coerceAtLeast(minBatchSize)
+      } else if (elapsedMs < targetBatchLatencyMs / 2 && size >= batchSize) {
+        (batchSize + batchSize / 4 + 1).coerceAtMost(maxBatchSize)
+      } else {
+        batchSize
+      }
+    }
+  }
+
+  private fun jitteredBackoffMs(attempt: Int): Long {
+    val ceiling = retries.backoffMs * (1L shl (attempt - 1).coerceAtMost(10))
+    return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1)
+  }
+
+  private fun isDeadlock(e: Throwable): Boolean =
+    generateSequence(e) { it.cause }.take(10).any {
+      it is PessimisticLockingFailureException ||
+        (it is SQLException && (it.sqlState in DEADLOCK_SQL_STATES || it.errorCode in MYSQL_LOCK_ERROR_CODES))
+    }
+
+  companion object {
+    /** Serialization failure (MySQL deadlocks) and Postgres' deadlock_detected. */
+    private val DEADLOCK_SQL_STATES = setOf("40001", "40P01")
+
+    /** MySQL's ER_LOCK_DEADLOCK and ER_LOCK_WAIT_TIMEOUT. */
+    private val MYSQL_LOCK_ERROR_CODES = setOf(1213, 1205)
+
+    private fun <R : Record> insertQuery(
+      jooq: DSLContext,
+      table: Table<R>,
+      fields: List<Field<*>>,
+      batch: List<Record>
+    ) =
+      batch.fold(jooq.insertInto(table, fields)) { insert, record ->
+        insert.values(fields.map { record.get(it) })
+      }
+
+    private fun excluded(field: Field<*>, template: String): Field<*> =
+      DSL.field(template, field.dataType, DSL.name(field.name))
+
+    private fun estimateBytes(record: Record, fields: List<Field<*>>): Int =
+      fields.sumOf { field ->
+        when (val value = record.get(field)) {
+          null -> 4
+          is ByteArray -> value.size * 2 + 3
+          is String -> value.length + 3
+          else -> value.toString().length + 1
+        }
+      } + fields.size
+  }
+}
@@ -18,10 +18,12 @@ package com.netflix.spinnaker.kork.sql.config
 import com.netflix.spectator.api.Registry
 import com.netflix.spinnaker.kork.sql.JooqSqlCommentAppender
 import com.netflix.spinnaker.kork.sql.JooqToSpringExceptionTransformer
+import com.netflix.spinnaker.kork.sql.SqlBatchWriter
 import com.netflix.spinnaker.kork.sql.health.SqlHealthIndicator
 import com.netflix.spinnaker.kork.sql.health.SqlHealthProvider
 import com.netflix.spinnaker.kork.sql.migration.SpringLiquibaseProxy
 import com.netflix.spinnaker.kork.sql.routing.NamedDataSourceRouter
+import com.netflix.spinnaker.kork.sql.routing.ReadReplicaSelector
 import com.netflix.spinnaker.kork.sql.routing.StaticDataSourceLookup
 import com.netflix.spinnaker.kork.sql.telemetry.JooqSlowQueryLogger
 import java.sql.Connection
@@ -34,6 +36,7 @@ import org.jooq.impl.DefaultDSLContext
 import org.jooq.impl.DefaultExecuteListenerProvider
 import org.slf4j.LoggerFactory
 import org.springframework.beans.factory.BeanCreationException
+import org.springframework.beans.factory.DisposableBean
 import org.springframework.beans.factory.annotation.Value
 import org.springframework.boot.actuate.autoconfigure.metrics.jdbc.DataSourcePoolMetricsAutoConfiguration
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration
@@ -48,6 +51,7 @@ import org.springframework.context.annotation.Configuration
 import org.springframework.context.annotation.DependsOn
 import org.springframework.context.annotation.Import
 import org.springframework.jdbc.datasource.DataSourceTransactionManager
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
 import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy
 
 /**
@@ -81,7 +85,7 @@ class DefaultSqlConfiguration {
   @Suppress("ThrowsCount", "UndocumentedPublicFunction")
   @DependsOn("liquibase")
   @Bean
-  fun dataSource(dataSourceFactory: DataSourceFactory, properties: SqlProperties): DataSource {
+  fun dataSource(dataSourceFactory: DataSourceFactory, properties: SqlProperties, registry: Registry): DataSource {
     if (properties.connectionPools.isNotEmpty() && properties.connectionPool != null) {
       throw MisconfiguredConnectionPoolsException.BOTH_PRESENT
     }
@@ -125,14 +129,53 @@ class DefaultSqlConfiguration {
     validateDefaultTargetDataSources(targets.values)
 
     val dataSources = targets.map { it.key.toLowerCase() to it.value.dataSource }.toMap()
-    val dataSource = NamedDataSourceRouter()
+    val readReplicaSelector = readReplicaSelector(properties, targets.values, registry)
+    val dataSource = NamedDataSourceRouter(readReplicaSelector)
     dataSource.setTargetDataSources(dataSources as Map<Any, Any>)
     dataSource.setDataSourceLookup(StaticDataSourceLookup(dataSources))
     dataSource.setDefaultTargetDataSource(
       targets.values.first { it.default }.dataSource
     )
 
-    return dataSource
+    if (readReplicaSelector == null) {
+      return dataSource
+    }
+
+    // Defer fetching a connection until the first statement, once the transaction's read-only flag is known.
+    dataSource.afterPropertiesSet()
+    return ReadReplicaRoutingDataSource(dataSource)
+  }
+
+  private fun readReplicaSelector(
+    properties: SqlProperties,
+    targets: Collection<TargetDataSource>,
+    registry: Registry
+  ): ReadReplicaSelector? {
+    val readReplicas = properties.readReplicas
+    if (!readReplicas.enabled) {
+      return null
+    }
+
+    val replicas = readReplicas.pools.associate { name ->
+      val target = targets.firstOrNull { it.name.equals(name, ignoreCase = true) }
+        ?: throw BeanCreationException("Read replica '$name' is not a configured connection pool")
+      if (target.default) {
+        throw BeanCreationException("Read replica '$name' cannot be the default connection pool")
+      }
+      val replicaJooq = DefaultDSLContext(target.dataSource, properties.connectionPools.getValue(target.name).dialect)
+      val health = SqlHealthProvider(
+        replicaJooq,
+        registry,
+        readOnly = true,
+        healthCheck = ReadReplicaSelector.healthCheck(readReplicas.lagQuery, readReplicas.maxLagMs),
+        poolName = target.name,
+        checkIntervalMs = readReplicas.healthCheckIntervalMs
+      )
+      target.name.toLowerCase() to ReadReplicaSelector.Replica(target.dataSource, health)
+    }
+
+    log.info("Routing read-only work to read replicas: ${replicas.keys}")
+    return ReadReplicaSelector(replicas, readReplicas.selection, registry).apply { start() }
   }
 
   @Suppress("UndocumentedPublicFunction")
@@ -207,12 +250,30 @@ class DefaultSqlConfiguration {
 
   @Suppress("UndocumentedPublicFunction")
   @Bean
+  @ConditionalOnMissingBean(SqlBatchWriter::class)
+  fun sqlBatchWriter(jooq: DSLContext, properties: SqlProperties, registry: Registry): SqlBatchWriter =
+    SqlBatchWriter(jooq, properties.retries, registry)
+
+  @Suppress("UndocumentedPublicFunction")
+  @Bean(initMethod = "start", destroyMethod = "close")
   fun sqlHealthProvider(
     jooq: DSLContext,
     registry: Registry,
-    @Value("\${sql.read-only:false}") readOnly: Boolean
+    properties: SqlProperties,
+    @Value("\${sql.read-only:false}") readOnly: Boolean,
+    @Value("\${sql.health.check-timeout-ms:5000}") checkTimeoutMs: Long,
+    @Value("\${sql.health.degraded-latency-ms:500}") degradedLatencyMs: Long
   ): SqlHealthProvider =
-    SqlHealthProvider(jooq, registry, readOnly)
+    SqlHealthProvider(
+      jooq,
+      registry,
+      readOnly,
+      poolName = properties.connectionPools.entries
+        .firstOrNull { properties.connectionPools.size == 1 || it.value.default }
+        ?.key ?: "default",
+      checkTimeoutMs = checkTimeoutMs,
+      degradedLatencyMs = degradedLatencyMs
+    )
 
   @Suppress("UndocumentedPublicFunction")
   @Bean("dbHealthIndicator")
@@ -239,6 +300,17 @@ private fun validateDefaultTargetDataSources(targets: Collection<TargetDataSourc
   }
 }
 
+/**
+ * Fetches connections from the [router] lazily, and stops its read replica health checks when the context closes.
+ */
+private class ReadReplicaRoutingDataSource(
+  private val router: NamedDataSourceRouter
+) : LazyConnectionDataSourceProxy(router), DisposableBean {
+  override fun destroy() {
+    router.destroy()
+  }
+}
+
 private data class TargetDataSource(
   val dataSource: DataSource,
   val default: Boolean,
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.kork.sql.config
+
+/**
+ * Routes read-only work to replica connection pools.
+ *
+ * Reads are routed to a replica when they run in a `@Transactional(readOnly = true)` transaction or inside
+ * [com.netflix.spinnaker.kork.sql.routing.withReadReplica]. An explicitly selected pool always takes precedence.
+ * Replicas that fail their health check, or lag more than [maxLagMs], are skipped until they recover; reads go to
+ * the default pool when no replica is available.
+ *
+ * @param pools Names of the [SqlProperties.connectionPools] that are read replicas
+ * @param selection How to choose between healthy replicas
+ * @param lagQuery Optional query returning the replica lag in seconds, e.g. for MySQL
+ *   `SELECT MAX(TIMESTAMPDIFF(SECOND, ...))` over a heartbeat table. Without it only connectivity is checked.
+ * @param maxLagMs Replicas reporting a higher lag than this are excluded
+ * @param healthCheckIntervalMs How often replicas are checked
+ */
+@Suppress("MagicNumber")
+data class ReadReplicaProperties(
+  var pools: MutableList<String> = mutableListOf(),
+  var selection: ReplicaSelection = ReplicaSelection.ROUND_ROBIN,
+  var lagQuery: String? = null,
+  var maxLagMs: Long = 30_000,
+  var healthCheckIntervalMs: Long = 1_000
+) {
+
+  /**
+   * Whether any replica pools are configured.
+   */
+  val enabled: Boolean
+    get() = pools.isNotEmpty()
+}
+
+/**
+ * Strategies for choosing between healthy read replicas.
+ */
+enum class ReplicaSelection {
+  /** Cycle through the replicas in turn. */
+  ROUND_ROBIN,
+
+  /** Pick the replica with the fewest active connections, when the pool exposes them. */
+  LEAST_CONNECTIONS
+}
@@ -38,12 +38,16 @@ class SecondaryPoolDialectCondition : SpringBootCondition() {
       .bind(ConfigurationPropertyName.of("sql"), Bindable.of(SqlProperties::class.java))
       .orElse(SqlProperties())
 
-    if (sqlProperties.connectionPools.size <= 1 || sqlProperties.connectionPools.size > 2) {
+    // Read replicas share the dialect of the pool they replicate, so they are not secondary pools
+    val pools = sqlProperties.connectionPools
+      .filterKeys { !sqlProperties.readReplicas.pools.contains(it) }
+      .toMutableMap()
+    if (pools.size <= 1 || pools.size > 2) {
       return false
     }
 
-    val defaultPool: ConnectionPoolProperties = sqlProperties.connectionPools.first(default = true)
-    val secondaryPool: ConnectionPoolProperties = sqlProperties.connectionPools.first(default = false)
+    val defaultPool: ConnectionPoolProperties = pools.first(default = true)
+    val secondaryPool: ConnectionPoolProperties = pools.first(default = false)
 
     return defaultPool.dialect != secondaryPool.dialect
   }
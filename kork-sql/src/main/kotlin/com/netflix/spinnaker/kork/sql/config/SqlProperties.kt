@@ -37,6 +37,7 @@ import kotlin.reflect.KClass
  * @param transactionIsolation the transaction isolation level to set, required if setTransactionIsolation is true.
  *   See e.g. https://docs.oracle.com/en/java/javase/11/docs/api/constant-values.html#java.sql.Connection.TRANSACTION_NONE.
  * @param connectionPool Deprecated. Use [connectionPools] instead.
+ * @param readReplicas Which [connectionPools] are read replicas that read-only work may be routed to
  */
 @SqlProperties.SpinValidated
 @ConfigurationProperties("sql")
@@ -49,7 +50,9 @@ data class SqlProperties(
   var transactionIsolation : Int? = Connection.TRANSACTION_READ_COMMITTED,
 
   @Deprecated("use named connection pools instead")
-  var connectionPool: ConnectionPoolProperties? = null
+  var connectionPool: ConnectionPoolProperties? = null,
+
+  var readReplicas: ReadReplicaProperties = ReadReplicaProperties()
 ) {
 
   /**
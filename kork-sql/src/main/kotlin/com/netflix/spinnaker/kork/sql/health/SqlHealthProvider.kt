@@ -16,6 +16,15 @@
 package com.netflix.spinnaker.kork.sql.health
 
 import com.netflix.spectator.api.Registry
+import com.netflix.spectator.api.histogram.PercentileTimer
+import java.io.Closeable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
 import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicInteger
 import java.util.concurrent.atomic.AtomicReference
@@ -29,25 +38,52 @@ import org.springframework.scheduling.annotation.Scheduled
  *
  * The provider will poll for connectivity regularly, and requires consecutive [healthyThreshold] to become
  * healthy, and similarly consecutive [unhealthyThreshold] to become unhealthy.
+ *
+ * A custom [healthCheck] may replace the default check; it signals failure by throwing.
+ *
+ * Once [started][start], checks run every [checkIntervalMs] on the provider's own threads, so a slow database
+ * never delays other scheduled work. Providers that are never started fall back to being checked every second
+ * by Spring's scheduler, as before. A check that takes longer than [checkTimeoutMs] is abandoned and counted
+ * as a failure; the default checks also set it as their query timeout, so the database cancels a hung query and
+ * releases its connection. The provider is [degraded] after consecutive [unhealthyThreshold] checks slower than
+ * [degradedLatencyMs].
  */
+@Suppress("LongParameterList")
 class SqlHealthProvider(
   private val jooq: DSLContext,
   private val registry: Registry,
   private val readOnly: Boolean,
   private val unhealthyThreshold: Int = 2,
-  private val healthyThreshold: Int = 10
-) {
+  private val healthyThreshold: Int = 10,
+  private val healthCheck: ((DSLContext) -> Unit)? = null,
+  private val poolName: String = "default",
+  private val checkIntervalMs: Long = 1_000,
+  private val checkTimeoutMs: Long = 5_000,
+  private val degradedLatencyMs: Long = 500
+) : Closeable {
 
   private val log = LoggerFactory.getLogger(javaClass)
 
   @Suppress("VariableNaming")
   internal val _enabled = AtomicBoolean(false)
+  private val _degraded = AtomicBoolean(false)
   private val _healthException: AtomicReference<Exception> = AtomicReference()
 
   private val healthyCounter = AtomicInteger(0)
   private val unhealthyCounter = AtomicInteger(0)
+  private val slowCounter = AtomicInteger(0)
 
   private val invocationId = registry.createId("sql.healthProvider.invocations")
+  private val latencyId = registry.createId("sql.healthProvider.latency").withTag("pool", poolName)
+
+  private val worker: ExecutorService = Executors.newSingleThreadExecutor { runnable ->
+    Thread(runnable, "sql-health-check-$poolName").apply { isDaemon = true }
+  }
+  private var scheduler: ScheduledExecutorService? = null
+  private var inFlight: Future<*>? = null
+
+  @Volatile
+  private var selfScheduled = false
 
   /**
    * Returns the enabled state of the health provider.
@@ -55,27 +91,65 @@ class SqlHealthProvider(
   val enabled: Boolean
     get() = _enabled.get()
 
+  /**
+   * Returns whether recent checks have been slower than [degradedLatencyMs]. A degraded database is reachable,
+   * but should be avoided when an alternative is available.
+   */
+  val degraded: Boolean
+    get() = _degraded.get()
+
   /**
    * Returns the latest exception, if any, that was raised as part of the health provider's check.
    */
   val healthException: Exception?
     get() = _healthException.get()
 
+  /**
+   * Starts checking the database every [checkIntervalMs] on a dedicated thread.
+   */
+  @Synchronized
+  fun start() {
+    selfScheduled = true
+    if (scheduler == null) {
+      scheduler = Executors.newSingleThreadScheduledExecutor { runnable ->
+        Thread(runnable, "sql-health-$poolName").apply { isDaemon = true }
+      }.apply {
+        scheduleWithFixedDelay(::performCheck, 0, checkIntervalMs, TimeUnit.MILLISECONDS)
+      }
+    }
+  }
+
+  @Synchronized
+  override fun close() {
+    selfScheduled = true
+    scheduler?.shutdownNow()
+    scheduler = null
+    worker.shutdownNow()
+  }
+
+  /**
+   * Checks the database from Spring's scheduler for providers that were never [started][start], which would
+   * otherwise not be checked at all.
+   */
+  @Scheduled(fixedDelay = 1_000L)
+  fun scheduledCheck() {
+    if (!selfScheduled) {
+      performCheck()
+    }
+  }
+
   /**
    * Perform a single connectivity check.
    *
    * If the application is connected to a read-only replica, this check will be a SELECT. If connected to
    * a writer instance a DELETE will be performed against an empty healthcheck table.
    */
-  @Scheduled(fixedDelay = 1_000)
   fun performCheck() {
+    val start = System.nanoTime()
+    var success = false
     try {
-      // THIS IS VERY ADVANCED
-      if (readOnly) {
-        jooq.select().from(DSL.table("healthcheck")).limit(1)
-      } else {
-        jooq.delete(DSL.table("healthcheck")).execute()
-      }
+      runCheck()
+      success = true
 
       if (!_enabled.get()) {
         if (healthyCounter.incrementAndGet() >= healthyThreshold) {
@@ -96,7 +170,58 @@ class SqlHealthProvider(
         }
       }
     } finally {
+      val elapsedNanos = System.nanoTime() - start
+      PercentileTimer.get(registry, latencyId.withTag("success", success))
+        .record(elapsedNanos, TimeUnit.NANOSECONDS)
+      updateDegraded(success && TimeUnit.NANOSECONDS.toMillis(elapsedNanos) <= degradedLatencyMs)
       registry.counter(invocationId.withTag("status", if (enabled) "enabled" else "disabled")).increment()
     }
   }
+
+  /**
+   * Runs the check on the worker thread, waiting at most [checkTimeoutMs]. A check that is still running from a
+   * previous cycle is not restarted, so a hung connection cannot pile up work.
+   */
+  private fun runCheck() {
+    val check = synchronized(this) {
+      inFlight?.takeIf { !it.isDone } ?: worker.submit(Runnable { check() }).also { inFlight = it }
+    }
+    try {
+      check.get(checkTimeoutMs, TimeUnit.MILLISECONDS)
+    } catch (e: TimeoutException) {
+      throw IllegalStateException("Health check of pool '$poolName' did not complete in ${checkTimeoutMs}ms", e)
+    } catch (e: ExecutionException) {
+      throw e.cause as? Exception ?: e
+    }
+  }
+
+  private fun check() {
+    // THIS IS VERY ADVANCED
+    if (healthCheck != null) {
+      healthCheck.invoke(jooq)
+    } else if (readOnly) {
+      jooq.select().from(DSL.table("healthcheck")).limit(1).queryTimeout(queryTimeoutSeconds(checkTimeoutMs)).fetch()
+    } else {
+      jooq.delete(DSL.table("healthcheck")).queryTimeout(queryTimeoutSeconds(checkTimeoutMs)).execute()
+    }
+  }
+
+  private fun updateDegraded(fast: Boolean) {
+    if (fast) {
+      slowCounter.set(0)
+      if (_degraded.compareAndSet(true, false)) {
+        log.info("Pool '$poolName' is no longer degraded")
+      }
+    } else if (slowCounter.incrementAndGet() >= unhealthyThreshold && _degraded.compareAndSet(false, true)) {
+      log.warn("Pool '$poolName' is degraded after ${slowCounter.get()} slow or failed checks")
+    }
+  }
+
+  internal companion object {
+    /**
+     * Converts a check timeout to a JDBC query timeout, which has a resolution of whole seconds.
+     */
+    fun queryTimeoutSeconds(timeoutMs: Long): Int =
+      TimeUnit.MILLISECONDS.toSeconds(timeoutMs + 999).toInt().coerceAtLeast(1)
+  }
 }
@@ -15,12 +15,29 @@
  */
 package com.netflix.spinnaker.kork.sql.routing
 
+import org.springframework.beans.factory.DisposableBean
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource
+import org.springframework.transaction.support.TransactionSynchronizationManager
 
 /**
  * Routes queries to a specific database based on the datasource name, as stored in a ThreadLocal.
+ *
+ * When a [readReplicaSelector] is given, read-only work without an explicit datasource name is routed to one of
+ * its healthy replicas. Read-only transactions are only known once the transaction has started, so the router
+ * must be wrapped in a [org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy] for them to be routed.
+ * Destroying the router stops the replica health checks.
  */
-class NamedDataSourceRouter : AbstractRoutingDataSource() {
+class NamedDataSourceRouter(
+  private val readReplicaSelector: ReadReplicaSelector? = null
+) : AbstractRoutingDataSource(), DisposableBean {
   override fun determineCurrentLookupKey(): Any? =
     NamedDatabaseContextHolder.get()
+      ?: if (readReplicaSelector != null && isReadOnly()) readReplicaSelector.select() else null
+
+  override fun destroy() {
+    readReplicaSelector?.close()
+  }
+
+  private fun isReadOnly(): Boolean =
+    NamedDatabaseContextHolder.isReadOnly() || TransactionSynchronizationManager.isCurrentTransactionReadOnly()
 }
@@ -21,6 +21,7 @@ package com.netflix.spinnaker.kork.sql.routing
 object NamedDatabaseContextHolder {
 
   private val context: ThreadLocal<String> = ThreadLocal()
+  private val readOnly: ThreadLocal<Boolean> = ThreadLocal()
 
   fun set(name: String) {
     context.set(name.toLowerCase())
@@ -31,4 +32,17 @@ object NamedDatabaseContextHolder {
   fun clear() {
     context.remove()
   }
+
+  /**
+   * Marks work on the current thread as read-only, allowing it to be routed to a read replica.
+   */
+  fun setReadOnly(value: Boolean) {
+    if (value) {
+      readOnly.set(true)
+    } else {
+      readOnly.remove()
+    }
+  }
+
+  fun isReadOnly(): Boolean = readOnly.get() == true
 }
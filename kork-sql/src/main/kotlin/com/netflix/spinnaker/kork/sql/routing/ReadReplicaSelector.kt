@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.kork.sql.routing
+
+import com.netflix.spectator.api.Registry
+import com.netflix.spinnaker.kork.sql.config.ReplicaSelection
+import com.netflix.spinnaker.kork.sql.health.SqlHealthProvider
+import com.zaxxer.hikari.HikariDataSource
+import java.io.Closeable
+import java.util.concurrent.atomic.AtomicInteger
+import javax.sql.DataSource
+import org.jooq.DSLContext
+import org.slf4j.LoggerFactory
+
+/**
+ * Chooses a healthy read replica for read-only work.
+ *
+ * Each replica has its own [SqlHealthProvider], which checks the replica on a background thread once [start]ed,
+ * so that selection never blocks on a database round trip. Replicas that are not currently enabled by their
+ * health provider, or that it reports as degraded, are skipped.
+ *
+ * @param replicas Replica data sources and their health providers, keyed by connection pool name
+ * @param selection How to choose between healthy replicas
+ */
+class ReadReplicaSelector(
+  private val replicas: Map<String, Replica>,
+  private val selection: ReplicaSelection,
+  private val registry: Registry
+) : Closeable {
+
+  private val log = LoggerFactory.getLogger(javaClass)
+
+  private val names = replicas.keys.toList()
+  private val next = AtomicInteger()
+
+  private val selectedId = registry.createId("sql.replica.selected")
+  private val unavailableId = registry.createId("sql.replica.unavailable")
+
+  /**
+   * Returns the name of a healthy replica, or null if none is available and the default pool should be used.
+   */
+  fun select(): String? {
+    val selected = when (selection) {
+      ReplicaSelection.ROUND_ROBIN -> selectRoundRobin()
+      ReplicaSelection.LEAST_CONNECTIONS -> selectLeastConnections()
+    }
+    if (selected == null) {
+      registry.counter(unavailableId).increment()
+    } else {
+      registry.counter(selectedId.withTag("pool", selected)).increment()
+    }
+    return selected
+  }
+
+  /**
+   * Runs the health check of every replica once.
+   */
+  fun checkReplicas() {
+    replicas.values.forEach {
+      try {
+        it.health.performCheck()
+      } catch (@Suppress("TooGenericExceptionCaught") e: Exception) {
+        log.error("Failed to check read replica health", e)
+      }
+    }
+  }
+
+  /**
+   * Starts the background health checks of every replica.
+   */
+  fun start() {
+    replicas.values.forEach { it.health.start() }
+  }
+
+  override fun close() {
+    replicas.values.forEach { it.health.close() }
+  }
+
+  private fun selectRoundRobin(): String? {
+    if (names.isEmpty()) {
+      return null
+    }
+    val start = Math.floorMod(next.getAndIncrement(), names.size)
+    for (i in names.indices) {
+      val name = names[(start + i) % names.size]
+      if (replicas.getValue(name).available) {
+        return name
+      }
+    }
+    return null
+  }
+
+  private fun selectLeastConnections(): String? =
+    replicas.entries
+      .filter { it.value.available }
+      .minByOrNull { it.value.activeConnections() }
+      ?.key
+
+  /**
+   * A read replica connection pool and the provider tracking its health.
+   */
+  class Replica(
+    val dataSource: DataSource,
+    val health: SqlHealthProvider
+  ) {
+    internal val available: Boolean
+      get() = health.enabled && !health.degraded
+
+    internal fun activeConnections(): Int =
+      (dataSource as? HikariDataSource)?.hikariPoolMXBean?.activeConnections ?: 0
+  }
+
+  companion object {
+    /**
+     * Builds a replica health check that verifies connectivity and, when a [lagQuery] is given, that the
+     * replica lag it reports (in seconds) does not exceed [maxLagMs]. Its queries are cancelled by the database
+     * after [queryTimeoutMs].
+     */
+    @JvmOverloads
+    fun healthCheck(lagQuery: String?, maxLagMs: Long, queryTimeoutMs: Long = 5_000): (DSLContext) -> Unit = { jooq ->
+      val queryTimeout = SqlHealthProvider.queryTimeoutSeconds(queryTimeoutMs)
+      if (lagQuery == null) {
+        jooq.selectOne().queryTimeout(queryTimeout).fetch()
+      } else {
+        val lagSeconds = jooq.resultQuery(lagQuery).queryTimeout(queryTimeout).fetchOne(0)?.toString()?.toDoubleOrNull()
+          ?: throw IllegalStateException("Replica lag query returned no value")
+        @Suppress("MagicNumber")
+        val lagMs = (lagSeconds * 1000).toLong()
+        if (lagMs > maxLagMs) {
+          throw IllegalStateException("Replica lag of ${lagMs}ms exceeds ${maxLagMs}ms")
+        }
+      }
+    }
+  }
+}
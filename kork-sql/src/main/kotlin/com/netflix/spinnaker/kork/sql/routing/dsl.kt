@@ -36,3 +36,25 @@ inline fun <T> withPool(name: String, callback: () -> T): T {
     NamedDatabaseContextHolder.clear()
   }
 }
+
+/**
+ * Convenience method for use with jOOQ queries, marking them as read-only so they may be routed to a healthy read
+ * replica. If no read replicas are configured or available, the default connection pool will be used.
+ *
+ * ```
+ * val result = withReadReplica {
+ *   jooq.select(...).fetch()
+ * }
+ * ```
+ *
+ * @param callback The read-only code to execute
+ */
+inline fun <T> withReadReplica(callback: () -> T): T {
+  val previous = NamedDatabaseContextHolder.isReadOnly()
+  NamedDatabaseContextHolder.setReadOnly(true)
+  try {
+    return callback()
+  } finally {
+    NamedDatabaseContextHolder.setReadOnly(previous)
+  }
+}
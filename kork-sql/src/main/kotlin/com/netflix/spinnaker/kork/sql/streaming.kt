@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.kork.sql
+
+import java.util.stream.Stream
+import org.jooq.Record
+import org.jooq.ResultQuery
+import org.jooq.SQLDialect
+
+/**
+ * The number of rows fetched per round trip when streaming results from drivers that support cursor fetches.
+ */
+const val DEFAULT_STREAMING_FETCH_SIZE = 1_000
+
+/**
+ * Configures this query to stream its results from the server rather than buffering the full result in memory.
+ *
+ * MySQL only streams results when the fetch size is [Int.MIN_VALUE], one row at a time, and holds the connection
+ * until the results are fully read. Postgres uses a server-side cursor of [fetchSize] rows, which requires the
+ * query to run inside a transaction.
+ */
+fun <R : Record> ResultQuery<R>.streamingFetchSize(
+  dialect: SQLDialect,
+  fetchSize: Int = DEFAULT_STREAMING_FETCH_SIZE
+): ResultQuery<R> =
+  when (dialect.family()) {
+    SQLDialect.MYSQL, SQLDialect.MARIADB -> fetchSize(Int.MIN_VALUE)
+    else -> fetchSize(fetchSize)
+  }
+
+/**
+ * Lazily streams the results of this query using [streamingFetchSize].
+ *
+ * The returned stream holds an open cursor and connection, so it must be closed, e.g. with `use { }`.
+ */
+fun <R : Record> ResultQuery<R>.fetchStreaming(
+  dialect: SQLDialect,
+  fetchSize: Int = DEFAULT_STREAMING_FETCH_SIZE
+): Stream<R> =
+  streamingFetchSize(dialect, fetchSize).fetchStream()
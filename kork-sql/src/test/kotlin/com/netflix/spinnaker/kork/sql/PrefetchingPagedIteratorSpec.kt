@@ -0,0 +1,121 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.kork.sql
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.stream.Collectors
+import org.assertj.core.api.Assertions.assertThat
+import org.spekframework.spek2.Spek
+import org.spekframework.spek2.style.gherkin.Feature
+
+internal object PrefetchingPagedIteratorSpec : Spek({
+
+  Feature("prefetching paged data") {
+    val pageSize = 3
+    val pages = mapOf(
+      null to listOf("ONE", "TWO", "THREE"),
+      "THREE" to listOf("FOUR", "FIVE", "SIX"),
+      "SIX" to listOf("SEVEN")
+    )
+
+    Scenario("there are multiple pages of data") {
+      val requested = mutableListOf<String?>()
+      val subject = PrefetchingPagedIterator(pageSize, String::toString, { _, cursor: String? ->
+        requested.add(cursor)
+        pages[cursor] ?: emptyList()
+      }, Executor { it.run() })
+
+      Given("the first element has been read") {
+        assertThat(subject.next()).isEqualTo("ONE")
+      }
+
+      Then("the next page has already been requested") {
+        assertThat(requested).containsExactly(null, "THREE")
+      }
+
+      val results = mutableListOf<String>()
+      When("draining the iterator") {
+        subject.forEachRemaining { results.add(it) }
+      }
+
+      Then("iterates over the remaining elements") {
+        assertThat(results).containsExactly("TWO", "THREE", "FOUR", "FIVE", "SIX", "SEVEN")
+      }
+
+      Then("does not request a page after a partial one") {
+        assertThat(requested).containsExactly(null, "THREE", "SIX")
+      }
+    }
+
+    Scenario("the iterator is closed") {
+      val subject = PrefetchingPagedIterator(pageSize, String::toString, { _, cursor: String? ->
+        pages[cursor] ?: emptyList()
+      }, Executor { it.run() })
+
+      var results: List<String> = emptyList()
+      When("a stream over it is limited and closed") {
+        results = subject.asStream().use { it.limit(2).collect(Collectors.toList()) }
+      }
+
+      Then("returns the elements read") {
+        assertThat(results).containsExactly("ONE", "TWO")
+      }
+
+      Then("has no more elements") {
+        assertThat(subject.hasNext()).isFalse()
+      }
+    }
+
+    Scenario("pages are fetched on a separate thread") {
+      val executor = Executors.newSingleThreadExecutor()
+      val fetchThreads = ConcurrentHashMap.newKeySet<Thread>()
+      val subject = PrefetchingPagedIterator(pageSize, String::toString, { _, cursor: String? ->
+        fetchThreads.add(Thread.currentThread())
+        pages[cursor] ?: emptyList()
+      }, executor)
+
+      val results = mutableListOf<String>()
+      When("draining the iterator") {
+        try {
+          subject.forEachRemaining { results.add(it) }
+        } finally {
+          executor.shutdownNow()
+        }
+      }
+
+      Then("iterates over every element in order") {
+        assertThat(results).containsExactly("ONE", "TWO", "THREE", "FOUR", "FIVE", "SIX", "SEVEN")
+      }
+
+      Then("fetches every page on the executor") {
+        assertThat(fetchThreads).hasSize(1).doesNotContain(Thread.currentThread())
+      }
+    }
+
+    Scenario("fetching a page fails") {
+      val subject = PrefetchingPagedIterator<String, String>(pageSize, String::toString, { _, _ ->
+        throw IllegalStateException("oh no")
+      }, Executor { it.run() })
+
+      Then("the failure is rethrown to the consumer") {
+        assertThat(runCatching { subject.hasNext() }.exceptionOrNull())
+          .isInstanceOf(IllegalStateException::class.java)
+      }
+    }
+  }
+})
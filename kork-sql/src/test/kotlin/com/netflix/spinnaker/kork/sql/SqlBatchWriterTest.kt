@@ -0,0 +1,131 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.kork.sql
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.kork.sql.config.RetryProperties
+import com.netflix.spinnaker.kork.sql.config.SqlRetryProperties
+import java.sql.SQLException
+import org.jooq.Record
+import org.jooq.SQLDialect
+import org.jooq.impl.DSL
+import org.jooq.tools.jdbc.MockConnection
+import org.jooq.tools.jdbc.MockResult
+import org.junit.jupiter.api.Test
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import strikt.api.expectThat
+import strikt.api.expectThrows
+import strikt.assertions.all
+import strikt.assertions.contains
+import strikt.assertions.hasSize
+import strikt.assertions.isEqualTo
+import strikt.assertions.isGreaterThan
+
+internal class SqlBatchWriterTest {
+
+  private val table = DSL.table(DSL.name("batch_test"))
+  private val id = DSL.field(DSL.name("id"), Int::class.java)
+  private val name = DSL.field(DSL.name("name"), String::class.java)
+
+  private val statements = mutableListOf<String>()
+
+  private fun subject(dialect: SQLDialect, failures: Int = 0, maxBatchSize: Int = 100): SqlBatchWriter {
+    var remainingFailures = failures
+    val jooq = DSL.using(
+      MockConnection { ctx ->
+        statements.add(ctx.sql())
+        if (remainingFailures-- > 0) {
+          throw SQLException("Deadlock found when trying to get lock", "40001", 1213)
+        }
+        arrayOf(MockResult(1, null))
+      },
+      dialect
+    )
+    return SqlBatchWriter(
+      jooq,
+      SqlRetryProperties(transactions = RetryProperties(maxRetries = 2, backoffMs = 1)),
+      DefaultRegistry(),
+      minBatchSize = 10,
+      maxBatchSize = maxBatchSize
+    )
+  }
+
+  private fun records(count: Int): List<Record> =
+    (1..count).map { DSL.using(SQLDialect.DEFAULT).newRecord(id, name).values(it, "name-$it") }
+
+  @Test
+  fun `inserts rows in multi-row statements`() {
+    subject(SQLDialect.MYSQL, maxBatchSize = 10).insert(table, records(25), listOf(id, name))
+
+    expectThat(statements).hasSize(3)
+    expectThat(statements.first().split("(?").size - 1).isEqualTo(10)
+  }
+
+  @Test
+  fun `upserts with on duplicate key update on MySQL`() {
+    subject(SQLDialect.MYSQL).upsert(table, records(2), keys = listOf(id), fields = listOf(id, name))
+
+    expectThat(statements).hasSize(1)
+    expectThat(statements.first()).contains("on duplicate key update `name` = values(`name`)")
+  }
+
+  @Test
+  fun `upserts with on conflict on Postgres`() {
+    subject(SQLDialect.POSTGRES).upsert(table, records(2), keys = listOf(id), fields = listOf(id, name))
+
+    expectThat(statements).hasSize(1)
+    expectThat(statements.first()).contains("on conflict (\"id\") do update set \"name\" = excluded.\"name\"")
+  }
+
+  @Test
+  fun `retries deadlocked batches`() {
+    subject(SQLDialect.MYSQL, failures = 2).insert(table, records(3), listOf(id, name))
+
+    expectThat(statements).hasSize(3).all { contains("insert into `batch_test`") }
+  }
+
+  @Test
+  fun `gives up after the configured number of retries`() {
+    expectThrows<RuntimeException> {
+      subject(SQLDialect.MYSQL, failures = 3).insert(table, records(3), listOf(id, name))
+    }
+    expectThat(statements).hasSize(3)
+  }
+
+  @Test
+  fun `does not retry deadlocks inside an outer transaction`() {
+    TransactionSynchronizationManager.setActualTransactionActive(true)
+    try {
+      expectThrows<RuntimeException> {
+        subject(SQLDialect.MYSQL, failures = 1).insert(table, records(3), listOf(id, name))
+      }
+    } finally {
+      TransactionSynchronizationManager.setActualTransactionActive(false)
+    }
+    expectThat(statements).hasSize(1)
+  }
+
+  @Test
+  fun `adapts batch sizes per table`() {
+    val subject = subject(SQLDialect.MYSQL, maxBatchSize = 1_000)
+    val other = DSL.table(DSL.name("other_test"))
+
+    subject.insert(table, records(100), listOf(id, name))
+
+    expectThat(subject.batchSize(table)).isGreaterThan(100)
+    expectThat(subject.batchSize(other)).isEqualTo(100)
+  }
+}
@@ -84,6 +84,7 @@ internal object SqlHealthProviderSpec : Spek({
 
       When("successive write failures") {
         whenever(dslContext.delete(isA<Table<*>>())) doReturn query
+        whenever(query.queryTimeout(5)) doReturn query
 
         subject.performCheck()
         subject.performCheck()
@@ -93,5 +94,75 @@ internal object SqlHealthProviderSpec : Spek({
         expectThat(subject.enabled).isEqualTo(true)
       }
     }
+
+    Scenario("a provider that is never started") {
+      var checks = 0
+      val subject = SqlHealthProvider(dslContext, NoopRegistry(), readOnly = true, healthCheck = { checks++ })
+
+      When("Spring's scheduler triggers a check") {
+        subject.scheduledCheck()
+      }
+
+      Then("the database is checked") {
+        expectThat(checks).isEqualTo(1)
+      }
+
+      When("the provider is closed and Spring's scheduler triggers a check") {
+        subject.close()
+        subject.scheduledCheck()
+      }
+
+      Then("the database is no longer checked") {
+        expectThat(checks).isEqualTo(1)
+      }
+    }
+
+    Scenario("a slow sql connection") {
+      val subject = SqlHealthProvider(
+        dslContext,
+        NoopRegistry(),
+        readOnly = true,
+        unhealthyThreshold = 1,
+        healthCheck = { Thread.sleep(20) },
+        degradedLatencyMs = 1
+      ).apply {
+        _enabled.set(true)
+      }
+
+      When("checks exceed the degraded latency") {
+        subject.performCheck()
+      }
+
+      Then("reports itself as degraded but enabled") {
+        expectThat(subject.degraded).isEqualTo(true)
+        expectThat(subject.enabled).isEqualTo(true)
+      }
+    }
+
+    Scenario("a hung sql connection") {
+      val subject = SqlHealthProvider(
+        dslContext,
+        NoopRegistry(),
+        readOnly = true,
+        unhealthyThreshold = 1,
+        healthCheck = { Thread.sleep(5_000) },
+        checkTimeoutMs = 10
+      ).apply {
+        _enabled.set(true)
+      }
+
+      afterScenario { subject.close() }
+
+      When("checks do not complete in time") {
+        subject.performCheck()
+      }
+
+      Then("deactivates its enabled flag") {
+        expectThat(subject.enabled).isEqualTo(false)
+        expectThat(subject.healthException?.message).isEqualTo(
+          "Health check of pool 'default' did not complete in 10ms"
+        )
+      }
+    }
   }
 })
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.kork.sql.routing
+
+import com.netflix.spectator.api.NoopRegistry
+import com.netflix.spinnaker.kork.sql.config.ReplicaSelection
+import com.netflix.spinnaker.kork.sql.health.SqlHealthProvider
+import com.nhaarman.mockito_kotlin.doReturn
+import com.nhaarman.mockito_kotlin.mock
+import com.nhaarman.mockito_kotlin.whenever
+import javax.sql.DataSource
+import org.jooq.DSLContext
+import org.jooq.Record
+import org.jooq.ResultQuery
+import org.spekframework.spek2.Spek
+import org.spekframework.spek2.style.gherkin.Feature
+import strikt.api.expectThat
+import strikt.api.expectThrows
+import strikt.assertions.containsExactly
+import strikt.assertions.isEqualTo
+import strikt.assertions.isNull
+
+internal object ReadReplicaSelectorSpec : Spek({
+
+  fun replica(healthy: Boolean) =
+    ReadReplicaSelector.Replica(
+      mock<DataSource>(),
+      SqlHealthProvider(mock(), NoopRegistry(), readOnly = true, healthCheck = {}).apply {
+        _enabled.set(healthy)
+      }
+    )
+
+  fun selector(vararg replicas: Pair<String, ReadReplicaSelector.Replica>) =
+    ReadReplicaSelector(mapOf(*replicas), ReplicaSelection.ROUND_ROBIN, NoopRegistry())
+
+  Feature("selecting read replicas") {
+
+    Scenario("all replicas are healthy") {
+      val subject = selector("a" to replica(true), "b" to replica(true))
+      val selected = mutableListOf<String?>()
+
+      When("selecting repeatedly") {
+        repeat(4) { selected.add(subject.select()) }
+      }
+
+      Then("replicas are selected in turn") {
+        expectThat(selected).containsExactly("a", "b", "a", "b")
+      }
+    }
+
+    Scenario("a replica is unhealthy") {
+      val subject = selector("a" to replica(true), "b" to replica(false))
+      val selected = mutableListOf<String?>()
+
+      When("selecting repeatedly") {
+        repeat(3) { selected.add(subject.select()) }
+      }
+
+      Then("only the healthy replica is selected") {
+        expectThat(selected).containsExactly("a", "a", "a")
+      }
+    }
+
+    Scenario("no replica is healthy") {
+      val subject = selector("a" to replica(false))
+
+      Then("the default pool is used") {
+        expectThat(subject.select()).isNull()
+      }
+    }
+  }
+
+  Feature("checking replica lag") {
+
+    val jooq = mock<DSLContext>()
+    val lagQuery = mock<ResultQuery<Record>>()
+
+    Scenario("a replica lagging too far behind") {
+      val check = ReadReplicaSelector.healthCheck("select lag", maxLagMs = 1_000)
+
+      Given("a lag of two seconds") {
+        whenever(jooq.resultQuery("select lag")) doReturn lagQuery
+        whenever(lagQuery.queryTimeout(5)) doReturn lagQuery
+        whenever(lagQuery.fetchOne(0)) doReturn 2
+      }
+
+      Then("the check fails") {
+        expectThrows<IllegalStateException> { check(jooq) }
+      }
+    }
+
+    Scenario("a replica within the allowed lag") {
+      val check = ReadReplicaSelector.healthCheck("select lag", maxLagMs = 1_000)
+
+      Given("a lag of half a second") {
+        whenever(jooq.resultQuery("select lag")) doReturn lagQuery
+        whenever(lagQuery.queryTimeout(5)) doReturn lagQuery
+        whenever(lagQuery.fetchOne(0)) doReturn 0.5
+      }
+
+      Then("the check passes") {
+        expectThat(check(jooq)).isEqualTo(Unit)
+      }
+    }
+  }
+})
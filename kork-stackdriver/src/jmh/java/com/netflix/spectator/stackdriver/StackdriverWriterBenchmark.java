@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spectator.stackdriver;
+
+import com.google.api.services.monitoring.v3.Monitoring;
+import com.google.api.services.monitoring.v3.model.TimeSeries;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures converting a 100k meter registry into Stackdriver TimeSeries.
+ *
+ * <p>Compare the allocation rate with {@code -PjmhArgs="-prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StackdriverWriterBenchmark {
+  /** Distinct meter names, each of which becomes a custom descriptor type. */
+  private static final int NAMES = 100;
+
+  /** Tag values per meter name. */
+  private static final int VALUES_PER_NAME = 1000;
+
+  private Registry registry;
+  private StackdriverWriter writer;
+
+  @Setup
+  public void setup() {
+    registry = new DefaultRegistry();
+    for (int name = 0; name < NAMES; ++name) {
+      for (int value = 0; value < VALUES_PER_NAME; ++value) {
+        String meterName = "meter" + name;
+        String tag = String.valueOf(value);
+        if (name % 2 == 0) {
+          registry.counter(meterName, "tagA", tag, "tagB", "constant").increment(value);
+        } else {
+          registry.timer(meterName, "tagA", tag).record(value, TimeUnit.MILLISECONDS);
+        }
+      }
+    }
+
+    ConfigParams params =
+        new ConfigParams.Builder()
+            .setDetermineProjectName(name -> name)
+            .setStackdriverStub(Mockito.mock(Monitoring.class))
+            .setCustomTypeNamespace("benchmark")
+            .setProjectName("benchmark-project")
+            .setApplicationName("benchmark")
+            .setInstanceId("benchmark-instance")
+            .setMeasurementFilter(measurement -> true)
+            .build();
+    writer = new StackdriverWriter(params);
+  }
+
+  @Benchmark
+  public void convertRegistry(Blackhole blackhole) {
+    Iterator<TimeSeries> iterator = writer.timeSeriesIterator(registry);
+    while (iterator.hasNext()) {
+      blackhole.consume(iterator.next());
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(StackdriverWriterBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
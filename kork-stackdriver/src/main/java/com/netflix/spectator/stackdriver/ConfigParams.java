@@ -63,6 +63,15 @@ public class ConfigParams {
   /** Optional. */
   protected long counterStartTime;
 
+  /** Optional. The maximum number of concurrent create time series requests. */
+  protected int maxInFlightRequests = 4;
+
+  /** Optional. How many times a throttled or failed request is retried before giving up. */
+  protected int maxRetries = 3;
+
+  /** Optional. The initial delay before retrying a request; doubled on each attempt. */
+  protected long retryBackoffMillis = 500;
+
   /** Builds an instance of ConfigParams. */
   public static class Builder extends ConfigParams {
     private String credentialsPath;
@@ -91,6 +100,13 @@ public class ConfigParams {
       result.counterStartTime = counterStartTime;
       result.measurementFilter = measurementFilter;
 
+      if (maxInFlightRequests < 1) {
+        throw new IllegalStateException("maxInFlightRequests must be at least 1.");
+      }
+      result.maxInFlightRequests = maxInFlightRequests;
+      result.maxRetries = Math.max(0, maxRetries);
+      result.retryBackoffMillis = Math.max(0, retryBackoffMillis);
+
       result.instanceId = instanceId;
       result.monitoring = monitoring;
       result.descriptorCache = descriptorCache;
@@ -219,6 +235,29 @@ public class ConfigParams {
       return this;
     }
 
+    /**
+     * Sets the maximum number of create time series requests that may be outstanding at once.
+     *
+     * <p>Requests are sent from a dedicated pool of this size while the registry is still being
+     * converted, so this also bounds how many converted chunks are held in memory.
+     */
+    public Builder setMaxInFlightRequests(int max) {
+      maxInFlightRequests = max;
+      return this;
+    }
+
+    /** Sets how many times a request failing with 429, 5xx or an I/O error is retried. */
+    public Builder setMaxRetries(int retries) {
+      maxRetries = retries;
+      return this;
+    }
+
+    /** Sets the initial retry delay, which doubles after every failed attempt. */
+    public Builder setRetryBackoffMillis(long millis) {
+      retryBackoffMillis = millis;
+      return this;
+    }
+
     /** Helper function to encode a value into buffer when constructing a UUID. */
     private void addLong(byte[] buffer, int offset, long value) {
       for (int i = 0; i < 8; ++i) {
@@ -293,5 +332,20 @@ public class ConfigParams {
   public long getCounterStartTime() {
     return counterStartTime;
   }
+
+  /** The maximum number of concurrent create time series requests. */
+  public int getMaxInFlightRequests() {
+    return maxInFlightRequests;
+  }
+
+  /** How many times a failed create time series request is retried. */
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  /** The initial delay before retrying a failed create time series request. */
+  public long getRetryBackoffMillis() {
+    return retryBackoffMillis;
+  }
 }
 ;
@@ -16,6 +16,8 @@
 
 package com.netflix.spectator.stackdriver;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.api.services.monitoring.v3.Monitoring;
 import com.google.api.services.monitoring.v3.model.LabelDescriptor;
 import com.google.api.services.monitoring.v3.model.MetricDescriptor;
@@ -26,7 +28,9 @@ import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.Tag;
 import com.netflix.spectator.api.Timer;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +47,25 @@ public class MetricDescriptorCache {
   /** Stackdriver Label identifying the replica instance reporting the values. */
   public static final String INSTANCE_LABEL = "InstanceSrc";
 
+  /**
+   * Upper bound on the entries remembered per Spectator Id or descriptor type.
+   *
+   * <p>Ids come and go as tag values churn, so the per-Id memoization below is bounded and
+   * forgets entries that have not been used for a while rather than growing forever.
+   */
+  static final long MAX_CACHED_IDS = 250000;
+
+  /** How long an unused per-Id entry is remembered. */
+  static final Duration CACHED_ID_EXPIRY = Duration.ofMinutes(15);
+
+  /** Creates a bounded cache for memoizing per-Id or per-type values. */
+  static <K, V> Cache<K, V> newIdCache() {
+    return Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_IDS)
+        .expireAfterAccess(CACHED_ID_EXPIRY)
+        .build();
+  }
+
   /** The client-side stub talking to Stackdriver. */
   private final Monitoring service;
 
@@ -92,9 +115,12 @@ public class MetricDescriptorCache {
     return baseStackdriverMetricTypeName + id.name();
   }
 
-  /** Returns a reference to extra labels to include with TimeSeries data. */
+  /**
+   * Returns a read-only view of the extra labels to include with TimeSeries data. Use {@link
+   * #addExtraTimeSeriesLabel} to add labels.
+   */
   public Map<String, String> getExtraTimeSeriesLabels() {
-    return extraTimeSeriesLabels;
+    return Collections.unmodifiableMap(extraTimeSeriesLabels);
   }
 
   /**
@@ -109,6 +135,7 @@ public class MetricDescriptorCache {
    */
   public void addExtraTimeSeriesLabel(String key, String value) {
     extraTimeSeriesLabels.put(key, value);
+    idToLabels.invalidateAll();
   }
 
   /** Convert a Spectator Meter type into a Stackdriver Metric kind. */
@@ -145,6 +172,22 @@ public class MetricDescriptorCache {
     return labels;
   }
 
+  /**
+   * Get the labels to use for a given metric instance, sharing the result between calls.
+   *
+   * <p>The returned map is immutable and is shared by every TimeSeries written for the id, which
+   * avoids copying the extra labels and tags for each measurement on every flush.
+   *
+   * @param descriptorType The Stackdriver custom descriptor type name for the labels.
+   * @param id The Spectator Measurement id for the data.
+   * @return The same bindings as tagsToTimeSeriesLabels would for the id's tags.
+   */
+  public Map<String, String> idToTimeSeriesLabels(String descriptorType, Id id) {
+    return idToLabels.get(
+        id,
+        k -> Collections.unmodifiableMap(tagsToTimeSeriesLabels(descriptorType, k.tags())));
+  }
+
   /** Helper function providing a hook to fix or omit bad labels. */
   private void addSanitizedLabel(
       MetricDescriptor descriptor, Tag tag, Map<String, String> labels) {}
@@ -153,19 +196,26 @@ public class MetricDescriptorCache {
    * Remember the analysis of meters to determine if they are timers or not. This is because
    * meterIsTimer is called continuously, not just on creation of a new descriptor.
    */
-  private Map<Id, Boolean> idToTimer = new HashMap<Id, Boolean>();
+  private final Cache<Id, Boolean> idToTimer = newIdCache();
 
   /**
    * The Stackdriver metric Kind to use for a given Custom Descriptor type. The kind is derived from
    * the underlying Spectator Metric.
    */
-  private Map<String, String> typeToKind = new HashMap<String, String>();
+  private final Cache<String, String> typeToKind = newIdCache();
+
+  /** The interned TimeSeries labels for each Spectator Id. */
+  private final Cache<Id, Map<String, String>> idToLabels = newIdCache();
 
   /** Determine if meter is a Timer or not. */
   public boolean meterIsTimer(Registry registry, Meter meter) {
-    return idToTimer.computeIfAbsent(
+    return idToTimer.get(
         meter.id(),
         k -> {
+          if (meter instanceof Timer) {
+            // Avoid scanning every timer in the registry for the common case.
+            return true;
+          }
           try {
             return registry.timers().anyMatch(m -> m.id().equals(meter.id()));
           } catch (ArrayIndexOutOfBoundsException aoex) {
@@ -179,7 +229,7 @@ public class MetricDescriptorCache {
 
   /** Determine the Stackdriver Custom Metric Desctiptor Kind to use. */
   public String descriptorTypeToKind(String descriptorType, Registry registry, Meter meter) {
-    return typeToKind.computeIfAbsent(
+    return typeToKind.get(
         descriptorType,
         k -> {
           return meterToKind(registry, meter);
@@ -16,6 +16,7 @@
 
 package com.netflix.spectator.stackdriver;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.google.api.client.http.HttpResponseException;
 import com.google.api.services.monitoring.v3.Monitoring;
 import com.google.api.services.monitoring.v3.model.CreateTimeSeriesRequest;
@@ -25,7 +26,7 @@ import com.google.api.services.monitoring.v3.model.Point;
 import com.google.api.services.monitoring.v3.model.TimeInterval;
 import com.google.api.services.monitoring.v3.model.TimeSeries;
 import com.google.api.services.monitoring.v3.model.TypedValue;
-import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.spectator.api.Clock;
 import com.netflix.spectator.api.DefaultRegistry;
 import com.netflix.spectator.api.Id;
@@ -36,12 +37,22 @@ import com.netflix.spectator.api.Tag;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -54,7 +65,9 @@ import org.slf4j.LoggerFactory;
  * <p>This class is not thread safe, but is assumed to be called from a single thread.
  *
  * <p>Places that are not thread safe include the management of the custom descriptor cache and the
- * use of java.text.DataFormat, which is stated to not be thread-safe.
+ * use of java.text.DataFormat, which is stated to not be thread-safe. Both are only touched from
+ * the calling thread; the create time series requests themselves are sent from an internal pool
+ * while the calling thread keeps converting the rest of the registry.
  */
 public class StackdriverWriter {
   // Capture groups are time series index and actual label name.
@@ -65,9 +78,27 @@ public class StackdriverWriter {
   /** This is the Spectator Id used for the timer measuring writeRegistry calls. */
   public static final String WRITE_TIMER_NAME = "stackdriver.writeRegistry";
 
+  /** The Spectator Id used for the timer measuring each create time series request. */
+  public static final String CHUNK_TIMER_NAME = "stackdriver.writeChunk";
+
+  /** The Spectator Id counting create time series requests that were retried. */
+  public static final String RETRY_COUNTER_NAME = "stackdriver.writeRetries";
+
+  /** The Spectator Id counting time series values that could not be written. */
+  public static final String FAILURE_COUNTER_NAME = "stackdriver.writeFailures";
+
   /** Stackdriver limits TimeSeries create requests to 200 values. */
   private static final int MAX_TS_PER_REQUEST = 200;
 
+  /** Upper bound on the distinct end times remembered within a flush. */
+  private static final int MAX_CACHED_INTERVALS = 1024;
+
+  /** Upper bound on the delay between retries of a single request. */
+  private static final long MAX_RETRY_BACKOFF_MILLIS = 10000;
+
+  /** How long {@link #close} waits for outstanding requests before cancelling them. */
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
   /**
    * Spectator doesnt have a public concrete Id class so we'll use the default registry as a
    * factory.
@@ -112,6 +143,18 @@ public class StackdriverWriter {
   /** The Stackdriver TimeInterval Start time for CUMULATIVE (counter) types. */
   private String counterStartTimeRfc3339;
 
+  /**
+   * The TimeIntervals for the current flush, keyed by end time.
+   *
+   * <p>Measurements in a flush share only a handful of timestamps, so each distinct interval is
+   * formatted once and then shared by every TimeSeries that ends at the same time. This is reset
+   * at the start of every flush.
+   */
+  private final Map<Long, TimeInterval> gaugeIntervals = new HashMap<Long, TimeInterval>();
+
+  /** As gaugeIntervals but starting at counterStartTimeRfc3339 for CUMULATIVE types. */
+  private final Map<Long, TimeInterval> cumulativeIntervals = new HashMap<Long, TimeInterval>();
+
   /** Kork needs this to add the hints. */
   public MetricDescriptorCache getDescriptorCache() {
     return cache;
@@ -120,6 +163,18 @@ public class StackdriverWriter {
   /** Filters the measurements we want to push to Stackdriver. */
   private Predicate<Measurement> measurementFilter;
 
+  /** The maximum number of create time series requests outstanding at once. */
+  private final int maxInFlightRequests;
+
+  /** How many times a failed request is retried. */
+  private final int maxRetries;
+
+  /** The delay before the first retry of a failed request. */
+  private final long retryBackoffMillis;
+
+  /** Sends the create time series requests so conversion and I/O overlap. */
+  private final ExecutorService senderPool;
+
   /**
    * Constructs a writer instance.
    *
@@ -133,6 +188,16 @@ public class StackdriverWriter {
     applicationName = configParams.getApplicationName();
     instanceId = configParams.getInstanceId();
     measurementFilter = configParams.getMeasurementFilter();
+    maxInFlightRequests = configParams.getMaxInFlightRequests();
+    maxRetries = configParams.getMaxRetries();
+    retryBackoffMillis = configParams.getRetryBackoffMillis();
+    senderPool =
+        Executors.newFixedThreadPool(
+            maxInFlightRequests,
+            new ThreadFactoryBuilder()
+                .setNameFormat("stackdriver-writer-%d")
+                .setDaemon(true)
+                .build());
 
     rfc3339 = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'000000Z'");
     rfc3339.setTimeZone(TimeZone.getTimeZone("GMT"));
@@ -144,6 +209,26 @@ public class StackdriverWriter {
         "Constructing StackdriverWriter {}={}", MetricDescriptorCache.INSTANCE_LABEL, instanceId);
   }
 
+  /**
+   * Stops the sender pool, giving requests already handed to it a bounded time to finish.
+   *
+   * <p>The writer cannot be used once it has been closed.
+   */
+  public void close() {
+    senderPool.shutdown();
+    try {
+      if (!senderPool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        log.warn(
+            "Create time series requests still running after {}s, cancelling them",
+            SHUTDOWN_TIMEOUT_SECONDS);
+        senderPool.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      senderPool.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
   /**
    * Helper function for logging time series errors in more detail.
    *
@@ -151,7 +236,8 @@ public class StackdriverWriter {
    */
   private void handleTimeSeriesResponseException(
       HttpResponseException rex, String msg, List<TimeSeries> nextN) {
-    Matcher matcher = INVALID_LABEL_REGEX.matcher(rex.getContent());
+    String content = rex.getContent() == null ? "" : rex.getContent();
+    Matcher matcher = INVALID_LABEL_REGEX.matcher(content);
     TimeSeries ts = null;
     String label = null;
     if (matcher.find()) {
@@ -182,20 +268,13 @@ public class StackdriverWriter {
    */
   public TimeSeries measurementToTimeSeries(
       String descriptorType, Registry registry, Meter meter, Measurement measurement) {
-    Map<String, String> labels =
-        cache.tagsToTimeSeriesLabels(descriptorType, measurement.id().tags());
+    Map<String, String> labels = cache.idToTimeSeriesLabels(descriptorType, measurement.id());
 
     long millis = measurement.timestamp();
     double value = measurement.value();
 
-    TimeInterval timeInterval = new TimeInterval();
-    Date date = new Date(millis);
-    timeInterval.setEndTime(rfc3339.format(date));
-
     String descriptorKind = cache.descriptorTypeToKind(descriptorType, registry, meter);
-    if (descriptorKind == "CUMULATIVE") {
-      timeInterval.setStartTime(counterStartTimeRfc3339);
-    }
+    TimeInterval timeInterval = timeInterval(millis, descriptorKind == "CUMULATIVE");
 
     TypedValue typedValue = new TypedValue();
     typedValue.setDoubleValue(value);
@@ -213,11 +292,29 @@ public class StackdriverWriter {
     ts.setMetric(metric);
     ts.setMetricKind(descriptorKind);
     ts.setValueType("DOUBLE");
-    ts.setPoints(Lists.<Point>newArrayList(point));
+    ts.setPoints(Collections.singletonList(point));
 
     return ts;
   }
 
+  /** Get the shared TimeInterval ending at the given time for the current flush. */
+  private TimeInterval timeInterval(long endMillis, boolean cumulative) {
+    Map<Long, TimeInterval> intervals = cumulative ? cumulativeIntervals : gaugeIntervals;
+    TimeInterval interval = intervals.get(endMillis);
+    if (interval == null) {
+      if (intervals.size() >= MAX_CACHED_INTERVALS) {
+        intervals.clear();
+      }
+      interval = new TimeInterval();
+      interval.setEndTime(rfc3339.format(new Date(endMillis)));
+      if (cumulative) {
+        interval.setStartTime(counterStartTimeRfc3339);
+      }
+      intervals.put(endMillis, interval);
+    }
+    return interval;
+  }
+
   /**
    * Generate an Id for the derived timer measurements.
    *
@@ -250,7 +347,7 @@ public class StackdriverWriter {
   }
 
   /** Remember the derived Ids that we use for timer transformations. */
-  private Map<Id, Id> timerBaseIds = new HashMap<Id, Id>();
+  private final Cache<Id, Id> timerBaseIds = MetricDescriptorCache.newIdCache();
 
   /**
    * Transform timer measurements from a composite with count/totalTime tags to a pair of
@@ -271,7 +368,7 @@ public class StackdriverWriter {
       if (!measurementFilter.test(measurement)) {
         continue;
       }
-      Id id = timerBaseIds.computeIfAbsent(measurement.id(), k -> deriveBaseTimerId(k));
+      Id id = timerBaseIds.get(measurement.id(), k -> deriveBaseTimerId(k));
       result.add(new Measurement(id, measurement.timestamp(), measurement.value()));
     }
     return result;
@@ -300,14 +397,49 @@ public class StackdriverWriter {
   public List<TimeSeries> registryToTimeSeries(Registry registry) {
     log.debug("Collecting metrics...");
     ArrayList<TimeSeries> tsList = new ArrayList<TimeSeries>();
-    Iterator<Meter> iterator = registry.iterator();
+    Iterator<TimeSeries> iterator = timeSeriesIterator(registry);
 
     while (iterator.hasNext()) {
-      addMeterToTimeSeries(registry, iterator.next(), tsList);
+      tsList.add(iterator.next());
     }
     return tsList;
   }
 
+  /**
+   * Lazily produce a TimeSeries for each appropriate measurement in the registry.
+   *
+   * <p>Meters are only converted as the iterator advances, so at most one meter's worth of
+   * TimeSeries is buffered at a time.
+   */
+  Iterator<TimeSeries> timeSeriesIterator(Registry registry) {
+    Iterator<Meter> meters = registry.iterator();
+    return new Iterator<TimeSeries>() {
+      private final List<TimeSeries> buffered = new ArrayList<TimeSeries>();
+      private int index = 0;
+
+      @Override
+      public boolean hasNext() {
+        while (index >= buffered.size()) {
+          if (!meters.hasNext()) {
+            return false;
+          }
+          buffered.clear();
+          index = 0;
+          addMeterToTimeSeries(registry, meters.next(), buffered);
+        }
+        return true;
+      }
+
+      @Override
+      public TimeSeries next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return buffered.get(index++);
+      }
+    };
+  }
+
   /** Update Stackdriver with the current Spectator metric registry values. */
   public void writeRegistry(Registry registry) {
     // The timer will appear in our response, but be off by one invocation
@@ -347,6 +479,90 @@ public class StackdriverWriter {
     return monitoredResource;
   }
 
+  /** A chunk Stackdriver rejected, kept so the response can be inspected on the writer thread. */
+  private static class RejectedChunk {
+    final HttpResponseException exception;
+    final List<TimeSeries> timeSeries;
+
+    RejectedChunk(HttpResponseException exception, List<TimeSeries> timeSeries) {
+      this.exception = exception;
+      this.timeSeries = timeSeries;
+    }
+  }
+
+  /** Whether a failed request is worth retrying. */
+  private static boolean isRetryable(int statusCode) {
+    return statusCode == 429 || statusCode >= 500;
+  }
+
+  /**
+   * Wait before the given retry attempt.
+   *
+   * @return false if the thread was interrupted and the request should be abandoned.
+   */
+  private boolean backoff(int attempt) {
+    long delay = Math.min(retryBackoffMillis << Math.min(attempt, 20), MAX_RETRY_BACKOFF_MILLIS);
+    try {
+      Thread.sleep(delay);
+      return true;
+    } catch (InterruptedException iex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Send a single create time series request, retrying on throttling and server errors.
+   *
+   * <p>This runs on the sender pool so must not touch the descriptor cache. Rejected requests are
+   * queued for handleTimeSeriesResponseException once all requests have completed.
+   */
+  private void sendChunk(
+      Registry registry,
+      List<TimeSeries> chunk,
+      Queue<RejectedChunk> rejected,
+      AtomicInteger failed) {
+    CreateTimeSeriesRequest tsRequest = new CreateTimeSeriesRequest();
+    tsRequest.setTimeSeries(chunk);
+    long start = registry.clock().monotonicTime();
+    boolean success = false;
+    try {
+      for (int attempt = 0; ; ++attempt) {
+        String retryReason;
+        try {
+          service.projects().timeSeries().create(projectResourceName, tsRequest).execute();
+          success = true;
+          return;
+        } catch (HttpResponseException rex) {
+          if (attempt >= maxRetries || !isRetryable(rex.getStatusCode())) {
+            rejected.add(new RejectedChunk(rex, chunk));
+            return;
+          }
+          retryReason = String.valueOf(rex.getStatusCode());
+        } catch (IOException ioex) {
+          if (attempt >= maxRetries) {
+            log.error("Caught Exception creating time series " + ioex);
+            return;
+          }
+          retryReason = "IOException";
+        }
+        registry.counter(RETRY_COUNTER_NAME, "reason", retryReason).increment();
+        if (!backoff(attempt)) {
+          log.warn("Interrupted while retrying create time series request.");
+          return;
+        }
+      }
+    } finally {
+      if (!success) {
+        failed.addAndGet(chunk.size());
+        registry.counter(FAILURE_COUNTER_NAME).increment(chunk.size());
+      }
+      registry
+          .timer(CHUNK_TIMER_NAME, "success", String.valueOf(success))
+          .record(registry.clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
   /** Implementation of writeRegistry wrapped for timing. */
   private void writeRegistryHelper(Registry registry) {
     MonitoredResource resource = determineMonitoredResource();
@@ -354,37 +570,55 @@ public class StackdriverWriter {
       log.warn("Cannot determine the managed resource - not flushing metrics.");
       return;
     }
-    List<TimeSeries> tsList = registryToTimeSeries(registry);
-    if (tsList.isEmpty()) {
+    gaugeIntervals.clear();
+    cumulativeIntervals.clear();
+
+    Iterator<TimeSeries> iterator = timeSeriesIterator(registry);
+    if (!iterator.hasNext()) {
       log.debug("No metric data points.");
       return;
     }
 
-    CreateTimeSeriesRequest tsRequest = new CreateTimeSeriesRequest();
-    int offset = 0;
-    int failed = 0;
-    List<TimeSeries> nextN;
+    // Each chunk is handed to the sender pool as soon as it is full. Waiting for a permit before
+    // converting the next chunk bounds both the outstanding requests and the converted values
+    // held in memory.
+    Semaphore inFlight = new Semaphore(maxInFlightRequests);
+    Queue<RejectedChunk> rejected = new ConcurrentLinkedQueue<RejectedChunk>();
+    AtomicInteger failed = new AtomicInteger();
+    int total = 0;
 
     log.debug("Writing metrics...");
-    while (offset < tsList.size()) {
-      if (offset + MAX_TS_PER_REQUEST < tsList.size()) {
-        nextN = tsList.subList(offset, offset + MAX_TS_PER_REQUEST);
-        offset += MAX_TS_PER_REQUEST;
-      } else {
-        nextN = tsList.subList(offset, tsList.size());
-        offset = tsList.size();
+    while (iterator.hasNext()) {
+      List<TimeSeries> nextN = new ArrayList<TimeSeries>(MAX_TS_PER_REQUEST);
+      while (nextN.size() < MAX_TS_PER_REQUEST && iterator.hasNext()) {
+        nextN.add(iterator.next());
       }
-      tsRequest.setTimeSeries(nextN);
+      total += nextN.size();
+
+      inFlight.acquireUninterruptibly();
       try {
-        service.projects().timeSeries().create(projectResourceName, tsRequest).execute();
-      } catch (HttpResponseException rex) {
-        handleTimeSeriesResponseException(rex, "creating time series", nextN);
-        failed += nextN.size();
-      } catch (IOException ioex) {
-        log.error("Caught Exception creating time series " + ioex);
-        failed += nextN.size();
+        senderPool.execute(
+            () -> {
+              try {
+                sendChunk(registry, nextN, rejected, failed);
+              } finally {
+                inFlight.release();
+              }
+            });
+      } catch (RejectedExecutionException rex) {
+        inFlight.release();
+        log.error("Unable to schedule create time series request", rex);
+        failed.addAndGet(nextN.size());
       }
     }
-    log.debug("Wrote {} values", tsList.size() - failed);
+
+    // Wait for the outstanding requests before touching the descriptor cache again.
+    inFlight.acquireUninterruptibly(maxInFlightRequests);
+    inFlight.release(maxInFlightRequests);
+
+    for (RejectedChunk chunk : rejected) {
+      handleTimeSeriesResponseException(chunk.exception, "creating time series", chunk.timeSeries);
+    }
+    log.debug("Wrote {} values", total - failed.get());
   }
 }
@@ -57,6 +57,8 @@ public class StackdriverConfig {
       private String credentialsPath = "";
       private String projectName = "";
       private int period = 60;
+      private int maxInFlightRequests = 4;
+      private int maxRetries = 3;
 
       public String getCredentialsPath() {
         return credentialsPath;
@@ -81,6 +83,22 @@ public class StackdriverConfig {
       public void setPeriod(int period) {
         this.period = period;
       }
+
+      public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+      }
+
+      public void setMaxInFlightRequests(int maxInFlightRequests) {
+        this.maxInFlightRequests = maxInFlightRequests;
+      }
+
+      public int getMaxRetries() {
+        return maxRetries;
+      }
+
+      public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+      }
     }
 
     public static class WebEndpointProperties {
@@ -151,7 +169,7 @@ public class StackdriverConfig {
    *
    * <p>This configures our StackdriverWriter as well.
    */
-  @Bean
+  @Bean(destroyMethod = "close")
   public StackdriverWriter defaultStackdriverWriter(
       Environment environment,
       Registry registry,
@@ -194,6 +212,8 @@ public class StackdriverConfig {
     String host = hostaddr.getCanonicalHostName();
     String hostPort = host + ":" + serverProperties.getPort();
 
+    SpectatorStackdriverConfigurationProperties.StackdriverProperties stackdriverProperties =
+        spectatorStackdriverConfigurationProperties.getStackdriver();
     ConfigParams params =
         new ConfigParams.Builder()
             .setCounterStartTime(new Date().getTime())
@@ -207,6 +227,8 @@ public class StackdriverConfig {
                 spectatorStackdriverConfigurationProperties.getStackdriver().getCredentialsPath())
             .setMeasurementFilter(measurementFilter)
             .setInstanceId(hostPort)
+            .setMaxInFlightRequests(stackdriverProperties.getMaxInFlightRequests())
+            .setMaxRetries(stackdriverProperties.getMaxRetries())
             .build();
 
     stackdriver = new StackdriverWriter(params);
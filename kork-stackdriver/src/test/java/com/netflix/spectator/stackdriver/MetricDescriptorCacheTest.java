@@ -17,7 +17,9 @@
 package com.netflix.spectator.stackdriver;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.times;
@@ -36,6 +38,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 import org.junit.jupiter.api.BeforeEach;
@@ -168,6 +171,22 @@ public class MetricDescriptorCacheTest {
         cache.idToDescriptorType(idA));
   }
 
+  @Test
+  public void testIdToTimeSeriesLabelsIsShared() {
+    String type = cache.idToDescriptorType(idAXY);
+    Map<String, String> labels = cache.idToTimeSeriesLabels(type, idAXY);
+
+    assertEquals(cache.tagsToTimeSeriesLabels(type, idAXY.tags()), labels);
+    assertSame(labels, cache.idToTimeSeriesLabels(type, idAXY));
+    assertEquals("Y", cache.idToTimeSeriesLabels(type, idAYX).get("tagA"));
+
+    // Changing the extra labels must not hand out stale bindings.
+    cache.addExtraTimeSeriesLabel(MetricDescriptorCache.INSTANCE_LABEL, "TestUID");
+    Map<String, String> updated = cache.idToTimeSeriesLabels(type, idAXY);
+    assertNotSame(labels, updated);
+    assertEquals("TestUID", updated.get(MetricDescriptorCache.INSTANCE_LABEL));
+  }
+
   @Test
   public void testAddLabel() throws IOException {
     List<String> origTags = Arrays.asList("tagA", "tagB");
@@ -27,6 +27,8 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
 import com.google.api.services.monitoring.v3.Monitoring;
 import com.google.api.services.monitoring.v3.model.*;
 import com.netflix.spectator.api.Clock;
@@ -46,6 +48,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -314,6 +317,8 @@ public class StackdriverWriterTest {
 
   @Test
   public void writeRegistryWithLargeRegistry() throws IOException {
+    // A single request in flight keeps the MatchN counters below single threaded.
+    writerConfig.setMaxInFlightRequests(1);
     TestableStackdriverWriter spy = spy(new TestableStackdriverWriter(writerConfig.build()));
     Monitoring.Projects.TimeSeries.Create mockCreateMethod =
         Mockito.mock(Monitoring.Projects.TimeSeries.Create.class);
@@ -330,7 +335,7 @@ public class StackdriverWriterTest {
     }
     tsList.add(new TimeSeries()); // make last one different to test chunking
 
-    doReturn(tsList).when(spy).registryToTimeSeries(registry);
+    doReturn(tsList.iterator()).when(spy).timeSeriesIterator(registry);
 
     // The Mockito ArgumentCaptor to verify the calls wont work here
     // because each call is referencing the same instance but with
@@ -374,6 +379,68 @@ public class StackdriverWriterTest {
     assertEquals(1, match1.found);
   }
 
+  @Test
+  public void writeRegistryRetriesThrottledRequests() throws IOException {
+    writerConfig.setRetryBackoffMillis(1);
+    TestableStackdriverWriter spy = spy(new TestableStackdriverWriter(writerConfig.build()));
+    Monitoring.Projects.TimeSeries.Create mockCreateMethod =
+        Mockito.mock(Monitoring.Projects.TimeSeries.Create.class);
+
+    DefaultRegistry registry = new DefaultRegistry(clock);
+    registry.counter(idAXY).increment();
+
+    when(timeseriesApi.create(eq("projects/test-project"), any(CreateTimeSeriesRequest.class)))
+        .thenReturn(mockCreateMethod);
+    when(mockCreateMethod.execute())
+        .thenThrow(
+            new HttpResponseException.Builder(429, "Too Many Requests", new HttpHeaders()).build())
+        .thenReturn(null);
+
+    spy.writeRegistry(registry);
+
+    verify(mockCreateMethod, times(2)).execute();
+    assertEquals(
+        1, registry.counter(StackdriverWriter.RETRY_COUNTER_NAME, "reason", "429").count());
+    assertEquals(0, registry.counter(StackdriverWriter.FAILURE_COUNTER_NAME).count());
+  }
+
+  @Test
+  public void writeRegistryBoundsInFlightRequests() throws IOException {
+    writerConfig.setMaxInFlightRequests(2);
+    TestableStackdriverWriter spy = spy(new TestableStackdriverWriter(writerConfig.build()));
+    Monitoring.Projects.TimeSeries.Create mockCreateMethod =
+        Mockito.mock(Monitoring.Projects.TimeSeries.Create.class);
+
+    DefaultRegistry registry = new DefaultRegistry(clock);
+    List<TimeSeries> tsList = new ArrayList<TimeSeries>();
+    for (int i = 0; i < 1001; ++i) {
+      tsList.add(new TimeSeries());
+    }
+    doReturn(tsList.iterator()).when(spy).timeSeriesIterator(registry);
+
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    when(timeseriesApi.create(eq("projects/test-project"), any(CreateTimeSeriesRequest.class)))
+        .thenReturn(mockCreateMethod);
+    when(mockCreateMethod.execute())
+        .thenAnswer(
+            invocation -> {
+              maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              Thread.sleep(20);
+              inFlight.decrementAndGet();
+              return null;
+            });
+
+    spy.writeRegistry(registry);
+
+    // 1001 values need five full requests and one with the remainder.
+    verify(mockCreateMethod, times(6)).execute();
+    assertTrue(maxInFlight.get() <= 2);
+    assertEquals(0, inFlight.get());
+    assertEquals(
+        6, registry.timer(StackdriverWriter.CHUNK_TIMER_NAME, "success", "true").count());
+  }
+
   @Test
   public void writeRegistryWithTimer() throws IOException {
     DefaultRegistry testRegistry = new DefaultRegistry(clock);
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.kork.telemetry;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the overhead of calling through an {@link InstrumentedProxy} with calling the target
+ * directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InstrumentedProxyBenchmark {
+
+  public interface Adder {
+    long add(long a, long b);
+
+    long increment(long a);
+  }
+
+  public static class AdderImpl implements Adder {
+    @Override
+    public long add(long a, long b) {
+      return a + b;
+    }
+
+    @Override
+    public long increment(long a) {
+      return a + 1;
+    }
+  }
+
+  private Adder direct;
+  private Adder proxied;
+  private long value;
+
+  @Setup
+  public void setup() {
+    direct = new AdderImpl();
+    proxied = InstrumentedProxy.proxy(new DefaultRegistry(), new AdderImpl(), "benchmark");
+  }
+
+  @Benchmark
+  public long direct() {
+    return direct.add(direct.increment(value), 2);
+  }
+
+  @Benchmark
+  public long proxied() {
+    return proxied.add(proxied.increment(value), 2);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(InstrumentedProxyBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
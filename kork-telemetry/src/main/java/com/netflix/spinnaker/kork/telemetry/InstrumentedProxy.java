@@ -20,15 +20,17 @@ import static com.netflix.spinnaker.kork.telemetry.MetricTags.ResultValue.FAILUR
 import static com.netflix.spinnaker.kork.telemetry.MetricTags.ResultValue.SUCCESS;
 
 import com.google.common.base.Strings;
+import com.netflix.spectator.api.Counter;
 import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spectator.api.histogram.PercentileTimer;
 import com.netflix.spinnaker.kork.annotations.Metered;
 import com.netflix.spinnaker.kork.telemetry.MetricTags.ResultValue;
-import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -79,8 +81,8 @@ public class InstrumentedProxy implements InvocationHandler {
   private final String metricNamespace;
   private final Map<String, String> tags;
 
-  private final Map<Method, MethodMetrics> instrumentedMethods = new ConcurrentHashMap<>();
-  private final List<Method> seenMethods = new ArrayList<>();
+  /** Resolved once at creation time; methods without an entry are invoked reflectively. */
+  private final Map<Method, InstrumentedMethod> instrumentedMethods;
 
   public InstrumentedProxy(Registry registry, Object target, String metricNamespace) {
     this(registry, target, metricNamespace, new HashMap<>());
@@ -92,34 +94,36 @@ public class InstrumentedProxy implements InvocationHandler {
     this.target = target;
     this.metricNamespace = metricNamespace;
     this.tags = tags;
+    this.instrumentedMethods = resolveMethods();
   }
 
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-    MethodMetrics methodMetrics = getMethodMetrics(method);
-    ResultValue resultValue = FAILURE;
-    final long start = System.currentTimeMillis();
+    InstrumentedMethod instrumented = instrumentedMethods.get(method);
+    if (instrumented == null) {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+
+    MethodMetrics metrics = instrumented.metrics;
+    if (metrics == null) {
+      return instrumented.invoke(args);
+    }
+
+    boolean success = false;
+    final long start = System.nanoTime();
     try {
-      Object result = method.invoke(target, args);
-      resultValue = SUCCESS;
+      Object result = instrumented.invoke(args);
+      success = true;
       return result;
-    } catch (InvocationTargetException e) {
-      throw e.getCause();
     } finally {
-      if (methodMetrics != null) {
-        registry
-            .counter(methodMetrics.invocationsId.withTag(RESULT_KEY, resultValue.toString()))
-            .increment();
-        recordTiming(methodMetrics.timingId.withTag(RESULT_KEY, resultValue.toString()), start);
-      }
+      metrics.record(success, System.nanoTime() - start);
     }
   }
 
-  private void recordTiming(Id id, long startTimeMs) {
-    PercentileTimer.get(registry, id)
-        .record(System.currentTimeMillis() - startTimeMs, TimeUnit.MILLISECONDS);
-  }
-
   private Id invocationId(Method method, Map<String, String> tags) {
     return registry.createId(
         MethodInstrumentation.toMetricId(metricNamespace, method, INVOCATIONS), tags);
@@ -140,56 +144,68 @@ public class InstrumentedProxy implements InvocationHandler {
         MethodInstrumentation.toMetricId(methodOverride, metricNamespace, TIMING), tags);
   }
 
-  private MethodMetrics getMethodMetrics(Method method) {
-    if (!instrumentedMethods.containsKey(method) && !seenMethods.contains(method)) {
-      seenMethods.add(method);
-      boolean processed = false;
-      for (Annotation a : method.getDeclaredAnnotations()) {
-        if (a instanceof Metered) {
-          processed = true;
-
-          Metered metered = (Metered) a;
-          if (metered.ignore()) {
-            return null;
-          }
-
-          Map<String, String> methodTags =
-              MethodInstrumentation.coalesceTags(target, method, tags, metered.tags());
-          if (Strings.isNullOrEmpty(metered.metricName())) {
-            addInstrumentedMethod(
-                instrumentedMethods,
-                method,
-                new MethodMetrics(timingId(method, methodTags), invocationId(method, methodTags)));
-          } else {
-            addInstrumentedMethod(
-                instrumentedMethods,
-                method,
-                new MethodMetrics(
-                    timingId(metered.metricName(), methodTags),
-                    invocationId(metered.metricName(), methodTags)));
-          }
+  /** Builds the immutable method table for every interface method the proxy can receive. */
+  private Map<Method, InstrumentedMethod> resolveMethods() {
+    final Set<Class<?>> classes = new LinkedHashSet<>();
+    addHierarchy(classes, target.getClass());
+
+    Map<Method, InstrumentedMethod> methods = new HashMap<>();
+    for (Class<?> cl : classes) {
+      if (!cl.isInterface()) {
+        continue;
+      }
+      for (Method method : cl.getMethods()) {
+        if (!methods.containsKey(method)) {
+          methods.put(
+              method,
+              new InstrumentedMethod(method, toHandle(method), getMethodMetrics(method)));
         }
       }
+    }
+    return Collections.unmodifiableMap(methods);
+  }
 
-      if (!processed && !instrumentedMethods.containsKey(method)) {
-        addInstrumentedMethod(
-            instrumentedMethods,
-            method,
-            new MethodMetrics(timingId(method, tags), invocationId(method, tags)));
-      }
+  /**
+   * Adapts the method to a handle bound to the target accepting the proxy's argument array.
+   *
+   * <p>Returns null if the method is not accessible as a handle, in which case it is invoked
+   * reflectively.
+   */
+  private MethodHandle toHandle(Method method) {
+    try {
+      return MethodHandles.publicLookup()
+          .unreflect(method)
+          .bindTo(target)
+          .asSpreader(Object[].class, method.getParameterCount())
+          .asType(MethodType.methodType(Object.class, Object[].class));
+    } catch (IllegalAccessException e) {
+      return null;
     }
-    return instrumentedMethods.get(method);
   }
 
-  private void addInstrumentedMethod(
-      Map<Method, MethodMetrics> existingMethodMetrics,
-      Method method,
-      MethodMetrics methodMetrics) {
+  private MethodMetrics getMethodMetrics(Method method) {
     if (!MethodInstrumentation.isMethodAllowed(method)) {
-      return;
+      return null;
     }
 
-    existingMethodMetrics.putIfAbsent(method, methodMetrics);
+    Metered metered = method.getAnnotation(Metered.class);
+    if (metered == null) {
+      return new MethodMetrics(registry, timingId(method, tags), invocationId(method, tags));
+    }
+    if (metered.ignore()) {
+      return null;
+    }
+
+    Map<String, String> methodTags =
+        MethodInstrumentation.coalesceTags(target, method, tags, metered.tags());
+    if (Strings.isNullOrEmpty(metered.metricName())) {
+      return new MethodMetrics(
+          registry, timingId(method, methodTags), invocationId(method, methodTags));
+    }
+    return new MethodMetrics(
+        registry,
+        timingId(metered.metricName(), methodTags),
+        invocationId(metered.metricName(), methodTags));
   }
 
   private static void addHierarchy(Set<Class<?>> classes, Class<?> cl) {
@@ -208,13 +224,49 @@ public class InstrumentedProxy implements InvocationHandler {
     }
   }
 
+  private class InstrumentedMethod {
+    final Method method;
+    final MethodHandle handle;
+    final MethodMetrics metrics;
+
+    InstrumentedMethod(Method method, MethodHandle handle, MethodMetrics metrics) {
+      this.method = method;
+      this.handle = handle;
+      this.metrics = metrics;
+    }
+
+    Object invoke(Object[] args) throws Throwable {
+      if (handle != null) {
+        return (Object) handle.invokeExact(args);
+      }
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
   private static class MethodMetrics {
-    final Id timingId;
-    final Id invocationsId;
+    final Counter successInvocations;
+    final Counter failureInvocations;
+    final PercentileTimer successTiming;
+    final PercentileTimer failureTiming;
+
+    MethodMetrics(Registry registry, Id timingId, Id invocationsId) {
+      this.successInvocations = registry.counter(withResult(invocationsId, SUCCESS));
+      this.failureInvocations = registry.counter(withResult(invocationsId, FAILURE));
+      this.successTiming = PercentileTimer.get(registry, withResult(timingId, SUCCESS));
+      this.failureTiming = PercentileTimer.get(registry, withResult(timingId, FAILURE));
+    }
+
+    void record(boolean success, long durationNanos) {
+      (success ? successInvocations : failureInvocations).increment();
+      (success ? successTiming : failureTiming).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
 
-    MethodMetrics(Id timingId, Id invocationsId) {
-      this.timingId = timingId;
-      this.invocationsId = invocationsId;
+    private static Id withResult(Id id, ResultValue resultValue) {
+      return id.withTag(RESULT_KEY, resultValue.toString());
     }
   }
 }
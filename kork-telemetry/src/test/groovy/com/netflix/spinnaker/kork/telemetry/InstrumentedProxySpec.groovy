@@ -46,6 +46,28 @@ class InstrumentedProxySpec extends Specification {
     then:
     thrown MyException
   }
+
+  def "should record invocations by result"() {
+    given:
+    Registry registry = new DefaultRegistry()
+    MyContract subject = InstrumentedProxy.proxy(registry, new MyContractImpl(), "myns")
+
+    when:
+    subject.doStuff()
+    subject.doStuff()
+    subject.ignored()
+    subject.sig1(1L)
+    try {
+      subject.throwError()
+    } catch (MyException ignored) {
+    }
+
+    then:
+    registry.counter("myns.doStuff.invocations", "result", "SUCCESS").count() == 2
+    registry.counter("myns.throwError.invocations", "result", "FAILURE").count() == 1
+    registry.counter("sig1Long.myns.invocations", "foo", "bar", "result", "SUCCESS").count() == 1
+    registry.counter("myns.ignored.invocations", "result", "SUCCESS").count() == 0
+  }
 }
 
 interface MyContract {
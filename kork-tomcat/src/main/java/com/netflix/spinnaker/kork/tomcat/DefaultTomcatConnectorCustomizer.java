@@ -17,13 +17,25 @@
 
 package com.netflix.spinnaker.kork.tomcat;
 
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import com.netflix.spinnaker.kork.tomcat.TomcatConfigurationProperties.ConnectorProperties;
 import com.netflix.spinnaker.kork.tomcat.x509.BlocklistingSSLImplementation;
 import com.netflix.spinnaker.kork.tomcat.x509.SslExtensionConfigurationProperties;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
 import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
 import org.apache.coyote.ProtocolHandler;
 import org.apache.coyote.http11.AbstractHttp11JsseProtocol;
 import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.coyote.http2.Http2Protocol;
 import org.apache.tomcat.util.net.SSLHostConfig;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
@@ -40,18 +52,113 @@ class DefaultTomcatConnectorCustomizer implements TomcatConnectorCustomizer {
 
   private final TomcatConfigurationProperties tomcatConfigurationProperties;
   private final SslExtensionConfigurationProperties sslExtensionConfigurationProperties;
+  private final SharedConnectorExecutor sharedConnectorExecutor;
+  private final Registry registry;
+
+  private final Set<Connector> monitoredConnectors =
+      Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
 
   DefaultTomcatConnectorCustomizer(
       TomcatConfigurationProperties tomcatConfigurationProperties,
-      SslExtensionConfigurationProperties sslExtensionConfigurationProperties) {
+      SslExtensionConfigurationProperties sslExtensionConfigurationProperties,
+      SharedConnectorExecutor sharedConnectorExecutor,
+      Registry registry) {
     this.tomcatConfigurationProperties = tomcatConfigurationProperties;
     this.sslExtensionConfigurationProperties = sslExtensionConfigurationProperties;
+    this.sharedConnectorExecutor = sharedConnectorExecutor;
+    this.registry = registry;
+    monitorSharedExecutor();
   }
 
   @Override
   public void customize(Connector connector) {
     this.applySSLSettings(connector);
     this.applyRelaxedURIProperties(connector);
+    this.applyConnectorSettings(connector);
+  }
+
+  /**
+   * Applies the shared executor and connection limits, and registers gauges for the connector's
+   * open connections and, unless it uses the shared executor, its busy threads and queued requests.
+   */
+  void applyConnectorSettings(Connector connector) {
+    ProtocolHandler handler = connector.getProtocolHandler();
+    if (!(handler instanceof AbstractProtocol)) {
+      log.warn(
+          "Can't apply executor config to connector of type {}",
+          connector.getProtocolHandlerClassName());
+      return;
+    }
+    AbstractProtocol<?> protocol = (AbstractProtocol<?>) handler;
+
+    Executor executor = sharedConnectorExecutor.getExecutor();
+    if (executor != null) {
+      protocol.setExecutor(executor);
+    }
+
+    ConnectorProperties limits = tomcatConfigurationProperties.getConnector();
+    if (limits.getAcceptCount() != null) {
+      protocol.setAcceptCount(limits.getAcceptCount());
+    }
+    if (limits.getMaxConnections() != null) {
+      protocol.setMaxConnections(limits.getMaxConnections());
+    }
+    if (limits.getKeepAliveTimeout() != null) {
+      protocol.setKeepAliveTimeout((int) limits.getKeepAliveTimeout().toMillis());
+    }
+    if (limits.getMaxKeepAliveRequests() != null && protocol instanceof AbstractHttp11Protocol) {
+      ((AbstractHttp11Protocol<?>) protocol)
+          .setMaxKeepAliveRequests(limits.getMaxKeepAliveRequests());
+    }
+
+    if (monitoredConnectors.add(connector)) {
+      monitor(connector, protocol);
+    }
+  }
+
+  /**
+   * Registers the shared pool's gauges once, tagged {@code executor=shared}, rather than per port,
+   * where summing across connectors would count the same threads several times.
+   */
+  private void monitorSharedExecutor() {
+    Executor executor = sharedConnectorExecutor.getExecutor();
+    if (executor instanceof ThreadPoolExecutor) {
+      ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+      PolledMeter.using(registry)
+          .withName("tomcat.connector.busyThreads")
+          .withTag("executor", "shared")
+          .monitorValue(pool, ThreadPoolExecutor::getActiveCount);
+      PolledMeter.using(registry)
+          .withName("tomcat.connector.queueSize")
+          .withTag("executor", "shared")
+          .monitorValue(pool, e -> e.getQueue().size());
+    }
+  }
+
+  private void monitor(Connector connector, AbstractProtocol<?> protocol) {
+    String port = Integer.toString(connector.getPort());
+    if (sharedConnectorExecutor.getExecutor() == null) {
+      PolledMeter.using(registry)
+          .withName("tomcat.connector.busyThreads")
+          .withTag("port", port)
+          .monitorValue(
+              protocol, p -> threadPool(p).map(ThreadPoolExecutor::getActiveCount).orElse(0));
+      PolledMeter.using(registry)
+          .withName("tomcat.connector.queueSize")
+          .withTag("port", port)
+          .monitorValue(protocol, p -> threadPool(p).map(e -> e.getQueue().size()).orElse(0));
+    }
+    PolledMeter.using(registry)
+        .withName("tomcat.connector.connections")
+        .withTag("port", port)
+        .monitorValue(protocol, p -> p.getConnectionCount());
+  }
+
+  /** The connector's own executor, once started. */
+  private static Optional<ThreadPoolExecutor> threadPool(AbstractProtocol<?> protocol) {
+    return Optional.ofNullable(protocol.getExecutor())
+        .filter(ThreadPoolExecutor.class::isInstance)
+        .map(ThreadPoolExecutor.class::cast);
   }
 
   Ssl copySslConfigurationWithClientAuth(TomcatServletWebServerFactory tomcat) {
@@ -84,6 +191,19 @@ class DefaultTomcatConnectorCustomizer implements TomcatConnectorCustomizer {
             String.join(",", tomcatConfigurationProperties.getTlsVersions()));
         sslHostConfig.setCertificateRevocationListFile(
             sslExtensionConfigurationProperties.getCrlFile());
+        if (sslExtensionConfigurationProperties.getSessionCacheSize() != null) {
+          sslHostConfig.setSessionCacheSize(
+              sslExtensionConfigurationProperties.getSessionCacheSize());
+        }
+        if (sslExtensionConfigurationProperties.getSessionTimeout() != null) {
+          sslHostConfig.setSessionTimeout(
+              (int) sslExtensionConfigurationProperties.getSessionTimeout().toSeconds());
+        }
+        if (tomcatConfigurationProperties.isHttp2Enabled()
+            && Arrays.stream(connector.findUpgradeProtocols())
+                .noneMatch(Http2Protocol.class::isInstance)) {
+          connector.addUpgradeProtocol(new Http2Protocol());
+        }
       }
     }
   }
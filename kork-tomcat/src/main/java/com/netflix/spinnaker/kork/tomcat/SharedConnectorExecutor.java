@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.spinnaker.kork.tomcat;
+
+import com.netflix.spinnaker.kork.tomcat.TomcatConfigurationProperties.ExecutorProperties;
+import com.netflix.spinnaker.kork.tomcat.TomcatConfigurationProperties.ExecutorType;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * The request processing executor shared by all connectors, as configured by {@link
+ * ExecutorProperties}.
+ *
+ * <p>Sharing one executor lets the main, legacy and API connectors draw from a single sized pool,
+ * rather than each starting its own default pool of 200 threads. With {@link ExecutorType#DEFAULT}
+ * no executor is created and each connector keeps its own.
+ */
+class SharedConnectorExecutor implements DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(SharedConnectorExecutor.class);
+
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private final ExecutorService executor;
+
+  SharedConnectorExecutor(ExecutorProperties properties) {
+    this.executor = createExecutor(properties);
+  }
+
+  /** Returns the shared executor, or null if each connector should use its own. */
+  Executor getExecutor() {
+    return executor;
+  }
+
+  @Override
+  public void destroy() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  private static ExecutorService createExecutor(ExecutorProperties properties) {
+    switch (properties.getType()) {
+      case VIRTUAL:
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+        if (virtual != null) {
+          log.info("Handling requests on virtual threads");
+          return virtual;
+        }
+        log.warn("Virtual threads require Java 21, using a shared platform thread pool instead");
+        return newPlatformExecutor(properties);
+      case PLATFORM:
+        return newPlatformExecutor(properties);
+      default:
+        return null;
+    }
+  }
+
+  /** Creates a pool that behaves like a connector's own, but is shared across connectors. */
+  private static ExecutorService newPlatformExecutor(ExecutorProperties properties) {
+    log.info(
+        "Handling requests on a shared pool of {}-{} threads",
+        properties.getMinSpareThreads(),
+        properties.getMaxThreads());
+    TaskQueue queue = new TaskQueue(properties.getMaxQueueSize());
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            properties.getMinSpareThreads(),
+            properties.getMaxThreads(),
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            queue,
+            new TaskThreadFactory("http-exec-", true, Thread.NORM_PRIORITY));
+    queue.setParent(executor);
+    return executor;
+  }
+
+  /** Looked up reflectively, so that this still runs on Java 17. */
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+}
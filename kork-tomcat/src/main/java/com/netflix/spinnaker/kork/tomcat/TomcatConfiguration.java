@@ -17,12 +17,15 @@
 
 package com.netflix.spinnaker.kork.tomcat;
 
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.Spectator;
 import com.netflix.spinnaker.kork.tomcat.x509.SslExtensionConfigurationProperties;
 import org.apache.catalina.connector.Connector;
 import org.apache.coyote.http11.Http11NioProtocol;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
@@ -42,17 +45,28 @@ class TomcatConfiguration {
 
   private final Logger log = LoggerFactory.getLogger(getClass());
 
+  @Bean
+  SharedConnectorExecutor sharedConnectorExecutor(
+      TomcatConfigurationProperties tomcatConfigurationProperties) {
+    return new SharedConnectorExecutor(tomcatConfigurationProperties.getExecutor());
+  }
+
   @Bean
   TomcatConnectorCustomizer defaultTomcatConnectorCustomizer(
       TomcatConfigurationProperties tomcatConfigurationProperties,
-      SslExtensionConfigurationProperties sslExtensionConfigurationProperties) {
+      SslExtensionConfigurationProperties sslExtensionConfigurationProperties,
+      SharedConnectorExecutor sharedConnectorExecutor,
+      ObjectProvider<Registry> registry) {
     if (tomcatConfigurationProperties.getRejectIllegalHeader() != null) {
       System.setProperty(
           "server.tomcat.reject-illegal-header",
           tomcatConfigurationProperties.getRejectIllegalHeader().toString());
     }
     return new DefaultTomcatConnectorCustomizer(
-        tomcatConfigurationProperties, sslExtensionConfigurationProperties);
+        tomcatConfigurationProperties,
+        sslExtensionConfigurationProperties,
+        sharedConnectorExecutor,
+        registry.getIfAvailable(Spectator::globalRegistry));
   }
 
   /**
@@ -63,9 +77,15 @@ class TomcatConfiguration {
   @ConditionalOnExpression("${server.ssl.enabled:false}")
   WebServerFactoryCustomizer containerCustomizer(
       DefaultTomcatConnectorCustomizer defaultTomcatConnectorCustomizer,
-      TomcatConfigurationProperties tomcatConfigurationProperties) {
+      TomcatConfigurationProperties tomcatConfigurationProperties,
+      SslExtensionConfigurationProperties sslExtensionConfigurationProperties) {
     System.setProperty("jdk.tls.rejectClientInitiatedRenegotiation", "true");
     System.setProperty("jdk.tls.ephemeralDHKeySize", "2048");
+    if (sslExtensionConfigurationProperties.getSessionTickets() != null) {
+      System.setProperty(
+          "jdk.tls.server.enableSessionTicketExtension",
+          sslExtensionConfigurationProperties.getSessionTickets().toString());
+    }
 
     return new WebServerFactoryCustomizer() {
       @Override
@@ -84,6 +104,7 @@ class TomcatConfiguration {
           httpConnector.setPort(tomcatConfigurationProperties.getLegacyServerPort());
 
           applyCompressionSettings(httpConnector, tomcat);
+          defaultTomcatConnectorCustomizer.applyConnectorSettings(httpConnector);
           tomcat.addAdditionalTomcatConnectors(httpConnector);
         }
 
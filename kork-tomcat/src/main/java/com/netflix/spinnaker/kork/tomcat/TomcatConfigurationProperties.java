@@ -18,6 +18,7 @@
 package com.netflix.spinnaker.kork.tomcat;
 
 import com.netflix.spinnaker.kork.crypto.CipherSuites;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -40,6 +41,13 @@ public class TomcatConfigurationProperties {
   // which is true by default.
   private Boolean rejectIllegalHeader;
 
+  // Offer HTTP/2 via ALPN on the SSL connectors, in addition to HTTP/1.1
+  private boolean http2Enabled = false;
+
+  private ExecutorProperties executor = new ExecutorProperties();
+
+  private ConnectorProperties connector = new ConnectorProperties();
+
   public int getLegacyServerPort() {
     return legacyServerPort;
   }
@@ -95,4 +103,130 @@ public class TomcatConfigurationProperties {
   public void setRejectIllegalHeader(Boolean rejectIllegalHeader) {
     this.rejectIllegalHeader = rejectIllegalHeader;
   }
+
+  public boolean isHttp2Enabled() {
+    return http2Enabled;
+  }
+
+  public void setHttp2Enabled(boolean http2Enabled) {
+    this.http2Enabled = http2Enabled;
+  }
+
+  public ExecutorProperties getExecutor() {
+    return executor;
+  }
+
+  public void setExecutor(ExecutorProperties executor) {
+    this.executor = executor;
+  }
+
+  public ConnectorProperties getConnector() {
+    return connector;
+  }
+
+  public void setConnector(ConnectorProperties connector) {
+    this.connector = connector;
+  }
+
+  /** How request processing threads are provided to the connectors. */
+  public enum ExecutorType {
+    /** Each connector creates its own default Tomcat thread pool. */
+    DEFAULT,
+    /** All connectors share one pool of platform threads, sized by {@link ExecutorProperties}. */
+    PLATFORM,
+    /**
+     * Each request runs on a new virtual thread. Requires Java 21; falls back to {@code PLATFORM}
+     * on older runtimes.
+     */
+    VIRTUAL
+  }
+
+  /** The request processing executor shared by the main, legacy and API connectors. */
+  public static class ExecutorProperties {
+    private ExecutorType type = ExecutorType.DEFAULT;
+
+    private int maxThreads = 200;
+
+    private int minSpareThreads = 10;
+
+    private int maxQueueSize = Integer.MAX_VALUE;
+
+    public ExecutorType getType() {
+      return type;
+    }
+
+    public void setType(ExecutorType type) {
+      this.type = type;
+    }
+
+    public int getMaxThreads() {
+      return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+      this.maxThreads = maxThreads;
+    }
+
+    public int getMinSpareThreads() {
+      return minSpareThreads;
+    }
+
+    public void setMinSpareThreads(int minSpareThreads) {
+      this.minSpareThreads = minSpareThreads;
+    }
+
+    public int getMaxQueueSize() {
+      return maxQueueSize;
+    }
+
+    public void setMaxQueueSize(int maxQueueSize) {
+      this.maxQueueSize = maxQueueSize;
+    }
+  }
+
+  /**
+   * Connection limits applied to the main, legacy and API connectors. Unset values keep Tomcat's
+   * defaults.
+   */
+  public static class ConnectorProperties {
+    private Integer acceptCount;
+
+    private Integer maxConnections;
+
+    private Integer maxKeepAliveRequests;
+
+    private Duration keepAliveTimeout;
+
+    public Integer getAcceptCount() {
+      return acceptCount;
+    }
+
+    public void setAcceptCount(Integer acceptCount) {
+      this.acceptCount = acceptCount;
+    }
+
+    public Integer getMaxConnections() {
+      return maxConnections;
+    }
+
+    public void setMaxConnections(Integer maxConnections) {
+      this.maxConnections = maxConnections;
+    }
+
+    public Integer getMaxKeepAliveRequests() {
+      return maxKeepAliveRequests;
+    }
+
+    public void setMaxKeepAliveRequests(Integer maxKeepAliveRequests) {
+      this.maxKeepAliveRequests = maxKeepAliveRequests;
+    }
+
+    public Duration getKeepAliveTimeout() {
+      return keepAliveTimeout;
+    }
+
+    public void setKeepAliveTimeout(Duration keepAliveTimeout) {
+      this.keepAliveTimeout = keepAliveTimeout;
+    }
+  }
 }
@@ -16,12 +16,20 @@
 
 package com.netflix.spinnaker.kork.tomcat.x509;
 
+import com.netflix.spectator.api.NoopRegistry;
+import com.netflix.spectator.api.Registry;
 import java.security.cert.X509Certificate;
 
 public interface Blocklist {
 
+  /** Returns the blocklist for the file, shared with other callers for the same file. */
   static Blocklist forFile(String blocklistFile) {
-    return new ReloadingFileBlocklist(blocklistFile);
+    return forFile(blocklistFile, new NoopRegistry());
+  }
+
+  /** Returns the blocklist for the file, shared with other callers for the same file. */
+  static Blocklist forFile(String blocklistFile, Registry registry) {
+    return ReloadingFileBlocklist.shared(blocklistFile, registry);
   }
 
   boolean isBlocklisted(X509Certificate cert);
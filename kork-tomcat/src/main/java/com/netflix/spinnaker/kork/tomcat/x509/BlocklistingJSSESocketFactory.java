@@ -17,8 +17,11 @@
 package com.netflix.spinnaker.kork.tomcat.x509;
 
 import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.Optional;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 import org.apache.tomcat.util.net.SSLHostConfigCertificate;
@@ -41,16 +44,25 @@ public class BlocklistingJSSESocketFactory extends JSSEUtil {
 
     if (blocklistFile != null) {
       certificate.getSSLHostConfig().setCertificateRevocationListFile(null);
-      blocklist = Blocklist.forFile(blocklistFile);
+      blocklist = Blocklist.forFile(blocklistFile, registry);
     } else {
       blocklist = null;
     }
   }
 
+  /** Also reports the number of sessions cached for resumption. */
+  @Override
+  public void configureSessionContext(SSLSessionContext sslSessionContext) {
+    super.configureSessionContext(sslSessionContext);
+    PolledMeter.using(registry)
+        .withName("ssl.sessionCache.size")
+        .monitorValue(sslSessionContext, context -> Collections.list(context.getIds()).size());
+  }
+
   @Override
   public TrustManager[] getTrustManagers() throws Exception {
     TrustManager[] trustManagers = super.getTrustManagers();
-    if (blocklist != null && trustManagers != null) {
+    if (trustManagers != null) {
       int delegatedCount = 0;
       for (int i = 0; i < trustManagers.length; i++) {
         TrustManager tm = trustManagers[i];
@@ -61,7 +73,7 @@ public class BlocklistingJSSESocketFactory extends JSSEUtil {
         }
       }
 
-      if (delegatedCount != 1) {
+      if (blocklist != null && delegatedCount != 1) {
         throw new IllegalStateException("expected single X509TrustManager");
       }
     }
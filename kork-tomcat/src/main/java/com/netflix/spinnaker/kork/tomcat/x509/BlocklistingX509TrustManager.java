@@ -28,6 +28,12 @@ import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.net.ssl.X509TrustManager;
 
+/**
+ * Rejects client certificates on the {@link Blocklist}, if one is configured, before delegating.
+ *
+ * <p>Client certificates are only verified on full handshakes, so this also counts full
+ * handshakes; resumed sessions skip it.
+ */
 public class BlocklistingX509TrustManager implements X509TrustManager {
   // Hookpoint for shutoff via property monitor:
   public static AtomicBoolean BLOCKLIST_ENABLED = new AtomicBoolean(true);
@@ -35,19 +41,25 @@ public class BlocklistingX509TrustManager implements X509TrustManager {
   private final Blocklist blocklist;
   private final Registry registry;
   private final Id checkClientTrusted;
+  private final Id fullHandshakes;
 
+  /**
+   * @param blocklist the blocklist to enforce, or null to only count handshakes
+   */
   public BlocklistingX509TrustManager(
       X509TrustManager delegate, Blocklist blocklist, Registry registry) {
     this.delegate = Objects.requireNonNull(delegate);
-    this.blocklist = Objects.requireNonNull(blocklist);
+    this.blocklist = blocklist;
     this.registry = Objects.requireNonNull(registry);
     checkClientTrusted = registry.createId("ssl.blocklist.checkClientTrusted");
+    fullHandshakes = registry.createId("ssl.handshakes.full");
   }
 
   @Override
   public void checkClientTrusted(X509Certificate[] x509Certificates, String authType)
       throws CertificateException {
-    if (BLOCKLIST_ENABLED.get()) {
+    registry.counter(fullHandshakes).increment();
+    if (blocklist != null && BLOCKLIST_ENABLED.get()) {
       boolean rejected = false;
       try {
         if (x509Certificates != null) {
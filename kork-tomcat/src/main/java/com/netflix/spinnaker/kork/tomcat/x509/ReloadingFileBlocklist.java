@@ -16,23 +16,50 @@
 
 package com.netflix.spinnaker.kork.tomcat.x509;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.collect.ImmutableSet;
-import java.io.File;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.NoopRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spectator.api.patterns.PolledMeter;
+import java.io.Closeable;
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.security.cert.X509Certificate;
-import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.security.auth.x500.X500Principal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-public class ReloadingFileBlocklist implements Blocklist {
+/**
+ * A {@link Blocklist} read from a file, which is reloaded in the background when it changes.
+ *
+ * <p>A daemon thread watches the file's directory for changes and, as a fallback for file systems
+ * that do not deliver watch events, also checks the file every reload interval. A check reads the
+ * file and compares a hash of its contents with the loaded version, so edits that keep the size and
+ * modification time (coarse timestamps, symlink swaps of mounted config maps) are still picked up.
+ * Each reload parses the file off the handshake path and atomically swaps in an immutable index of
+ * its entries, so {@link #isBlocklisted} is a lock-free lookup. If the file cannot be parsed, the
+ * previously loaded entries remain in effect.
+ *
+ * <p>{@link #shared} returns one blocklist per file, so recreating the SSL configuration does not
+ * start another reloader thread each time.
+ */
+public class ReloadingFileBlocklist implements Blocklist, Closeable {
   private static class Entry {
     private static final String DELIMITER = ":::";
     private final X500Principal issuer;
@@ -53,72 +80,191 @@ public class ReloadingFileBlocklist implements Blocklist {
       this.issuer = Objects.requireNonNull(issuer);
       this.serial = Objects.requireNonNull(serial);
     }
+  }
 
-    @Override
-    public boolean equals(Object o) {
-      if (this == o) return true;
-      if (o == null || getClass() != o.getClass()) return false;
+  private static final Logger log = LoggerFactory.getLogger(ReloadingFileBlocklist.class);
 
-      Entry entry = (Entry) o;
+  private static final int DEFAULT_RELOAD_INTERVAL_SECONDS = 5;
+  private static final AtomicInteger RELOADER_COUNT = new AtomicInteger();
+  private static final Map<Path, ReloadingFileBlocklist> SHARED = new ConcurrentHashMap<>();
 
-      if (!issuer.equals(entry.issuer)) return false;
-      return serial.equals(entry.serial);
-    }
+  private final Path blocklistFile;
+  private final long reloadIntervalMillis;
+  private final Registry registry;
+  private final Id reloadsId;
+  private final Id reloadLatencyId;
+  private final Thread reloader;
 
-    @Override
-    public int hashCode() {
-      int result = issuer.hashCode();
-      result = 31 * result + serial.hashCode();
-      return result;
+  /** Blocklisted issuers, indexed by serial number so most lookups are a single hash probe. */
+  private volatile ImmutableSetMultimap<BigInteger, X500Principal> entries =
+      ImmutableSetMultimap.of();
+
+  /** Hash of the file contents that entries were loaded from; a missing file reads as empty. */
+  private volatile HashCode loadedVersion;
+  private volatile boolean closed;
+
+  public ReloadingFileBlocklist(
+      String blocklistFile, long reloadInterval, TimeUnit unit, Registry registry) {
+    this.blocklistFile = Paths.get(blocklistFile).toAbsolutePath();
+    this.reloadIntervalMillis = unit.toMillis(reloadInterval);
+    this.registry = Objects.requireNonNull(registry);
+    this.reloadsId = registry.createId("ssl.blocklist.reloads");
+    this.reloadLatencyId = registry.createId("ssl.blocklist.reloadLatency");
+    PolledMeter.using(registry)
+        .withName("ssl.blocklist.entries")
+        .monitorValue(this, blocklist -> blocklist.entries.size());
+
+    try {
+      byte[] contents = read(this.blocklistFile);
+      entries = parse(contents);
+      loadedVersion = hash(contents);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to load certificate blocklist " + blocklistFile, e);
     }
+    reloader = new Thread(this::watch, "blocklist-reloader-" + RELOADER_COUNT.incrementAndGet());
+    reloader.setDaemon(true);
+    reloader.start();
   }
 
-  private static final int DEFAULT_RELOAD_INTERVAL_SECONDS = 5;
-  private final String blocklistFile;
-  private final LoadingCache<String, Set<Entry>> blocklist;
-
   public ReloadingFileBlocklist(String blocklistFile, long reloadInterval, TimeUnit unit) {
-    this.blocklistFile = blocklistFile;
-    this.blocklist =
-        CacheBuilder.newBuilder()
-            .expireAfterAccess(reloadInterval, unit)
-            .build(
-                new CacheLoader<String, Set<Entry>>() {
-                  @Override
-                  public Set<Entry> load(String key) throws Exception {
-                    File f = new File(key);
-                    if (!f.exists()) {
-                      return Collections.emptySet();
-                    }
-                    return ImmutableSet.copyOf(
-                        Files.readAllLines(f.toPath()).stream()
-                            .map(String::trim)
-                            .filter(line -> !(line.isEmpty() || line.startsWith("#")))
-                            .map(Entry::fromString)
-                            .collect(Collectors.toSet()));
-                  }
-                });
+    this(blocklistFile, reloadInterval, unit, new NoopRegistry());
+  }
+
+  public ReloadingFileBlocklist(String blocklistFile, Registry registry) {
+    this(blocklistFile, DEFAULT_RELOAD_INTERVAL_SECONDS, TimeUnit.SECONDS, registry);
   }
 
   public ReloadingFileBlocklist(String blocklistFile) {
     this(blocklistFile, DEFAULT_RELOAD_INTERVAL_SECONDS, TimeUnit.SECONDS);
   }
 
+  /**
+   * Returns the blocklist shared by all callers for the given file, loading it on first use. The
+   * registry only applies to the first caller; later callers get the existing blocklist.
+   */
+  static ReloadingFileBlocklist shared(String blocklistFile, Registry registry) {
+    return SHARED.computeIfAbsent(
+        Paths.get(blocklistFile).toAbsolutePath(),
+        file -> new ReloadingFileBlocklist(file.toString(), registry));
+  }
+
   @Override
   public boolean isBlocklisted(X509Certificate cert) {
+    ImmutableSetMultimap<BigInteger, X500Principal> current = entries;
+    BigInteger serial = cert.getSerialNumber();
+    return current.containsKey(serial)
+        && current.get(serial).contains(cert.getIssuerX500Principal());
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    reloader.interrupt();
+    SHARED.remove(blocklistFile, this);
+  }
+
+  /**
+   * Reloads the blocklist if the file has changed since it was last loaded. A file that fails to
+   * parse is not retried until it changes again.
+   *
+   * @return whether the blocklist was reloaded
+   */
+  synchronized boolean reload() {
+    byte[] contents;
+    try {
+      contents = read(blocklistFile);
+    } catch (IOException e) {
+      log.warn("Failed to check certificate blocklist {} for changes", blocklistFile, e);
+      return false;
+    }
+    HashCode version = hash(contents);
+    if (version.equals(loadedVersion)) {
+      return false;
+    }
+
+    long start = System.nanoTime();
+    boolean success = false;
     try {
-      return blocklist
-          .get(blocklistFile)
-          .contains(new Entry(cert.getIssuerX500Principal(), cert.getSerialNumber()));
-    } catch (ExecutionException ee) {
-      Throwable cause = ee.getCause();
-      if (cause != null) {
-        if (cause instanceof RuntimeException) {
-          throw (RuntimeException) cause;
+      entries = parse(contents);
+      success = true;
+      log.info("Reloaded certificate blocklist {} ({} entries)", blocklistFile, entries.size());
+    } catch (RuntimeException e) {
+      log.error(
+          "Failed to reload certificate blocklist {}, keeping previous entries", blocklistFile, e);
+    } finally {
+      loadedVersion = version;
+      registry.counter(reloadsId.withTag("success", success)).increment();
+      registry
+          .timer(reloadLatencyId.withTag("success", success))
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    return success;
+  }
+
+  private static byte[] read(Path file) throws IOException {
+    try {
+      return Files.readAllBytes(file);
+    } catch (NoSuchFileException e) {
+      return new byte[0];
+    }
+  }
+
+  private static HashCode hash(byte[] contents) {
+    return Hashing.sha256().hashBytes(contents);
+  }
+
+  private static ImmutableSetMultimap<BigInteger, X500Principal> parse(byte[] contents) {
+    ImmutableSetMultimap.Builder<BigInteger, X500Principal> builder =
+        ImmutableSetMultimap.builder();
+    new String(contents, StandardCharsets.UTF_8)
+        .lines()
+        .map(String::trim)
+        .filter(line -> !(line.isEmpty() || line.startsWith("#")))
+        .map(Entry::fromString)
+        .forEach(entry -> builder.put(entry.serial, entry.issuer));
+    return builder.build();
+  }
+
+  private void watch() {
+    try (WatchService watchService = blocklistFile.getFileSystem().newWatchService()) {
+      registerWatch(watchService);
+      while (!closed) {
+        WatchKey key = watchService.poll(reloadIntervalMillis, TimeUnit.MILLISECONDS);
+        if (key != null) {
+          // Any change in the directory triggers a check of the file's contents
+          key.pollEvents();
+          key.reset();
         }
-        throw new RuntimeException(cause);
+        reload();
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException e) {
+      log.warn("Unable to watch {}, reloading every {}ms", blocklistFile, reloadIntervalMillis, e);
+      poll();
+    }
+  }
+
+  private void registerWatch(WatchService watchService) throws IOException {
+    Path directory = blocklistFile.getParent();
+    if (directory == null || !Files.isDirectory(directory)) {
+      throw new IOException("Parent directory of " + blocklistFile + " does not exist");
+    }
+    directory.register(
+        watchService,
+        StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_MODIFY,
+        StandardWatchEventKinds.ENTRY_DELETE);
+  }
+
+  private void poll() {
+    try {
+      while (!closed) {
+        Thread.sleep(reloadIntervalMillis);
+        reload();
       }
-      throw new RuntimeException(ee);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
   }
 }
@@ -16,12 +16,18 @@
 
 package com.netflix.spinnaker.kork.tomcat.x509;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties("server.ssl")
 public class SslExtensionConfigurationProperties {
   private String crlFile = null;
 
+  // TLS session resumption settings; unset values keep the JSSE defaults
+  private Integer sessionCacheSize = null;
+  private Duration sessionTimeout = null;
+  private Boolean sessionTickets = null;
+
   public String getCrlFile() {
     return crlFile;
   }
@@ -29,4 +35,28 @@ public class SslExtensionConfigurationProperties {
   public void setCrlFile(String crlFile) {
     this.crlFile = crlFile;
   }
+
+  public Integer getSessionCacheSize() {
+    return sessionCacheSize;
+  }
+
+  public void setSessionCacheSize(Integer sessionCacheSize) {
+    this.sessionCacheSize = sessionCacheSize;
+  }
+
+  public Duration getSessionTimeout() {
+    return sessionTimeout;
+  }
+
+  public void setSessionTimeout(Duration sessionTimeout) {
+    this.sessionTimeout = sessionTimeout;
+  }
+
+  public Boolean getSessionTickets() {
+    return sessionTickets;
+  }
+
+  public void setSessionTickets(Boolean sessionTickets) {
+    this.sessionTickets = sessionTickets;
+  }
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.netflix.spinnaker.kork.tomcat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.kork.tomcat.TomcatConfigurationProperties.ExecutorType;
+import com.netflix.spinnaker.kork.tomcat.x509.SslExtensionConfigurationProperties;
+import java.time.Duration;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.apache.tomcat.util.net.SSLHostConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DefaultTomcatConnectorCustomizerTest {
+
+  private final TomcatConfigurationProperties properties = new TomcatConfigurationProperties();
+  private final SslExtensionConfigurationProperties sslProperties =
+      new SslExtensionConfigurationProperties();
+  private final Registry registry = new DefaultRegistry();
+  private SharedConnectorExecutor executor;
+
+  @AfterEach
+  void shutdown() {
+    executor.destroy();
+  }
+
+  @Test
+  void sharesExecutorAcrossConnectors() {
+    properties.getExecutor().setType(ExecutorType.PLATFORM);
+    properties.getExecutor().setMaxThreads(50);
+    DefaultTomcatConnectorCustomizer customizer = customizer();
+
+    Connector first = connector(8080);
+    Connector second = connector(8084);
+    customizer.applyConnectorSettings(first);
+    customizer.applyConnectorSettings(second);
+
+    assertThat(protocol(first).getExecutor()).isSameAs(executor.getExecutor());
+    assertThat(protocol(second).getExecutor()).isSameAs(executor.getExecutor());
+  }
+
+  @Test
+  void keepsConnectorExecutorsByDefault() {
+    DefaultTomcatConnectorCustomizer customizer = customizer();
+
+    Connector connector = connector(8080);
+    customizer.applyConnectorSettings(connector);
+
+    assertThat(executor.getExecutor()).isNull();
+    assertThat(protocol(connector).getExecutor()).isNull();
+  }
+
+  @Test
+  void appliesConnectionLimits() {
+    properties.getConnector().setAcceptCount(50);
+    properties.getConnector().setMaxConnections(500);
+    properties.getConnector().setMaxKeepAliveRequests(10);
+    properties.getConnector().setKeepAliveTimeout(Duration.ofSeconds(5));
+    DefaultTomcatConnectorCustomizer customizer = customizer();
+
+    Connector connector = connector(8080);
+    customizer.applyConnectorSettings(connector);
+
+    Http11NioProtocol protocol = protocol(connector);
+    assertThat(protocol.getAcceptCount()).isEqualTo(50);
+    assertThat(protocol.getMaxConnections()).isEqualTo(500);
+    assertThat(protocol.getMaxKeepAliveRequests()).isEqualTo(10);
+    assertThat(protocol.getKeepAliveTimeout()).isEqualTo(5000);
+  }
+
+  @Test
+  void registersConnectorGaugesOnce() {
+    DefaultTomcatConnectorCustomizer customizer = customizer();
+
+    Connector connector = connector(8080);
+    customizer.applyConnectorSettings(connector);
+    customizer.applyConnectorSettings(connector);
+
+    assertThat(registry.state())
+        .containsKey(registry.createId("tomcat.connector.connections", "port", "8080"));
+    assertThat(registry.state())
+        .containsKey(registry.createId("tomcat.connector.busyThreads", "port", "8080"));
+  }
+
+  @Test
+  void registersSharedExecutorGaugesOnce() {
+    properties.getExecutor().setType(ExecutorType.PLATFORM);
+    DefaultTomcatConnectorCustomizer customizer = customizer();
+
+    customizer.applyConnectorSettings(connector(8080));
+    customizer.applyConnectorSettings(connector(8084));
+
+    assertThat(registry.state())
+        .containsKey(registry.createId("tomcat.connector.busyThreads", "executor", "shared"))
+        .containsKey(registry.createId("tomcat.connector.connections", "port", "8084"))
+        .doesNotContainKey(registry.createId("tomcat.connector.busyThreads", "port", "8080"))
+        .doesNotContainKey(registry.createId("tomcat.connector.queueSize", "port", "8084"));
+  }
+
+  @Test
+  void configuresSessionsAndHttp2OnSslConnectors() {
+    properties.setHttp2Enabled(true);
+    sslProperties.setSessionCacheSize(1000);
+    sslProperties.setSessionTimeout(Duration.ofMinutes(10));
+    DefaultTomcatConnectorCustomizer customizer = customizer();
+
+    Connector connector = connector(8443);
+    protocol(connector).setSSLEnabled(true);
+    connector.addSslHostConfig(new SSLHostConfig());
+    customizer.applySSLSettings(connector);
+    customizer.applySSLSettings(connector);
+
+    SSLHostConfig sslHostConfig = connector.findSslHostConfigs()[0];
+    assertThat(sslHostConfig.getSessionCacheSize()).isEqualTo(1000);
+    assertThat(sslHostConfig.getSessionTimeout()).isEqualTo(600);
+    assertThat(connector.findUpgradeProtocols())
+        .hasSize(1)
+        .hasOnlyElementsOfType(Http2Protocol.class);
+  }
+
+  @Test
+  void leavesPlainConnectorsOnHttp11() {
+    properties.setHttp2Enabled(true);
+    DefaultTomcatConnectorCustomizer customizer = customizer();
+
+    Connector connector = connector(8080);
+    customizer.applySSLSettings(connector);
+
+    assertThat(connector.findUpgradeProtocols()).isEmpty();
+  }
+
+  private DefaultTomcatConnectorCustomizer customizer() {
+    executor = new SharedConnectorExecutor(properties.getExecutor());
+    return new DefaultTomcatConnectorCustomizer(
+        properties, sslProperties, executor, registry);
+  }
+
+  private static Connector connector(int port) {
+    Connector connector = new Connector("org.apache.coyote.http11.Http11NioProtocol");
+    connector.setPort(port);
+    return connector;
+  }
+
+  private static Http11NioProtocol protocol(Connector connector) {
+    return (Http11NioProtocol) connector.getProtocolHandler();
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2024 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.kork.tomcat.x509;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Registry;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.TimeUnit;
+import javax.security.auth.x500.X500Principal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReloadingFileBlocklistTest {
+
+  private static final String ISSUER = "CN=Test CA, O=Netflix";
+
+  @TempDir Path directory;
+
+  private final Registry registry = new DefaultRegistry();
+  private ReloadingFileBlocklist blocklist;
+
+  @AfterEach
+  void close() {
+    if (blocklist != null) {
+      blocklist.close();
+    }
+  }
+
+  @Test
+  void blocklistsEntriesFromFile() throws IOException {
+    Path file = write("# comment\n\n" + ISSUER + ":::42\n", 1);
+    blocklist = create(file);
+
+    assertThat(blocklist.isBlocklisted(cert(ISSUER, 42))).isTrue();
+    assertThat(blocklist.isBlocklisted(cert(ISSUER, 43))).isFalse();
+    assertThat(blocklist.isBlocklisted(cert("CN=Other CA", 42))).isFalse();
+  }
+
+  @Test
+  void missingFileBlocklistsNothing() {
+    blocklist = create(directory.resolve("missing"));
+
+    assertThat(blocklist.isBlocklisted(cert(ISSUER, 42))).isFalse();
+  }
+
+  @Test
+  void invalidFileFailsInitialLoad() throws IOException {
+    Path file = write("not an entry\n", 1);
+
+    assertThatThrownBy(() -> create(file)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void reloadsChangedFile() throws IOException {
+    Path file = write(ISSUER + ":::42\n", 1);
+    blocklist = create(file);
+
+    assertThat(blocklist.reload()).isFalse();
+
+    write(ISSUER + ":::43\n", 2);
+    blocklist.reload();
+    assertThat(blocklist.isBlocklisted(cert(ISSUER, 42))).isFalse();
+    assertThat(blocklist.isBlocklisted(cert(ISSUER, 43))).isTrue();
+    assertThat(registry.counter("ssl.blocklist.reloads", "success", "true").count()).isEqualTo(1);
+  }
+
+  @Test
+  void reloadsSameSizeEditWithUnchangedModificationTime() throws IOException {
+    Path file = write(ISSUER + ":::42\n", 1);
+    blocklist = create(file);
+
+    write(ISSUER + ":::43\n", 1);
+    assertThat(blocklist.reload()).isTrue();
+    assertThat(blocklist.isBlocklisted(cert(ISSUER, 42))).isFalse();
+    assertThat(blocklist.isBlocklisted(cert(ISSUER, 43))).isTrue();
+  }
+
+  @Test
+  void keepsPreviousEntriesWhenReloadFails() throws IOException {
+    Path file = write(ISSUER + ":::42\n", 1);
+    blocklist = create(file);
+
+    write("not an entry\n", 2);
+    blocklist.reload();
+    assertThat(blocklist.isBlocklisted(cert(ISSUER, 42))).isTrue();
+    assertThat(registry.counter("ssl.blocklist.reloads", "success", "false").count()).isEqualTo(1);
+  }
+
+  @Test
+  void sharesOneBlocklistPerFile() throws IOException {
+    Path file = write(ISSUER + ":::42\n", 1);
+    blocklist = ReloadingFileBlocklist.shared(file.toString(), registry);
+
+    assertThat(Blocklist.forFile(file.toString(), registry)).isSameAs(blocklist);
+
+    // Once closed, the next caller gets a new blocklist
+    blocklist.close();
+    blocklist = ReloadingFileBlocklist.shared(file.toString(), registry);
+    assertThat(blocklist.isBlocklisted(cert(ISSUER, 42))).isTrue();
+  }
+
+  private ReloadingFileBlocklist create(Path file) {
+    return new ReloadingFileBlocklist(file.toString(), 1, TimeUnit.HOURS, registry);
+  }
+
+  /** Atomically replaces the blocklist, as a config management tool would. */
+  private Path write(String content, long modifiedSeconds) throws IOException {
+    Path staged = Files.writeString(Files.createTempFile(directory, "staged", ".tmp"), content);
+    Files.setLastModifiedTime(staged, FileTime.from(modifiedSeconds, TimeUnit.SECONDS));
+    return Files.move(
+        staged,
+        directory.resolve("blocklist"),
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private static X509Certificate cert(String issuer, long serial) {
+    X509Certificate cert = mock(X509Certificate.class);
+    when(cert.getIssuerX500Principal()).thenReturn(new X500Principal(issuer));
+    when(cert.getSerialNumber()).thenReturn(BigInteger.valueOf(serial));
+    return cert;
+  }
+}